@@ -0,0 +1,135 @@
+package com.jingsky.customer.benchmarks;
+
+import com.alibaba.fastjson.JSONObject;
+import com.jingsky.customer.util.accesslog.AccessLog;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.PatternLayout;
+import org.apache.log4j.RollingFileAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request thread cost of logging a request:the synchronous fastjson and log4j line AllFilter used to write,
+ * against handing it to the asynchronous AccessLog. Each call also does some fixed work standing in for the
+ * request,so the access log's writer thread keeps up like it does under real traffic;subtract baseline.
+ * Both write to files in a temp directory,removed at the end.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccessLogBenchmark {
+
+    private static final long REQUEST_WORK = 2000;
+
+    private File dir;
+    private HttpServletRequest request;
+    private Logger logger;
+    private AccessLog accessLog;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("access-log-benchmark").toFile();
+        final Map<String, String> params = new LinkedHashMap<String, String>();
+        params.put("name", "Tom");
+        params.put("ageGT", "18");
+        params.put("pageIndex", "2");
+        request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "getMethod":
+                                return "GET";
+                            case "getRequestURI":
+                                return "/customer/list";
+                            case "getRemoteAddr":
+                                return "127.0.0.1";
+                            case "getParameterNames":
+                                return Collections.enumeration(params.keySet());
+                            case "getParameter":
+                                return params.get(args[0]);
+                            default:
+                                return null;
+                        }
+                    }
+                });
+
+        logger = Logger.getLogger("benchmark.requests");
+        logger.setAdditivity(false);
+        logger.setLevel(Level.INFO);
+        RollingFileAppender appender = new RollingFileAppender(
+                new PatternLayout("%d{yyyy-MM-dd HH:mm:ss} %-5p [%t] %c %x - %m%n"), new File(dir, "log4j.log").getPath());
+        appender.setMaximumFileSize(16L * 1024 * 1024);
+        appender.setMaxBackupIndex(1);
+        logger.addAppender(appender);
+
+        accessLog = new AccessLog(new File(dir, "access.log"), 8192, 16L * 1024 * 1024, 1);
+        accessLog.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        accessLog.stop();
+        logger.removeAllAppenders();
+        System.out.println("access log dropped " + accessLog.getDropped());
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Benchmark
+    public void baseline() {
+        Blackhole.consumeCPU(REQUEST_WORK);
+    }
+
+    @Benchmark
+    public void log4jJson() {
+        Blackhole.consumeCPU(REQUEST_WORK);
+        //AllFilter.logRequestInfo before the access log
+        JSONObject jo = new JSONObject();
+        Enumeration paras = request.getParameterNames();
+        while (paras.hasMoreElements()) {
+            Object name = paras.nextElement();
+            jo.put(name.toString(), request.getParameter(name.toString()));
+        }
+        logger.info("IP:" + request.getRemoteAddr() + ",requestCode:" + "b68ad6553e27c4fb" + ",URI:" + request.getRequestURI()
+                + ",parameters:" + jo.toJSONString());
+    }
+
+    @Benchmark
+    public boolean accessLog() {
+        Blackhole.consumeCPU(REQUEST_WORK);
+        return accessLog.log(request, request.getRemoteAddr(), "b68ad6553e27c4fb", 200, 12345678);
+    }
+}
@@ -0,0 +1,144 @@
+package com.jingsky.customer.benchmarks;
+
+import com.jingsky.customer.entity.Customer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generators for benchmark inputs shaped like what the web tier actually sees:
+ * customer names, form text mixing CJK and ASCII with the odd html special character,
+ * full-width input typed on Chinese IMEs and column/property identifiers.
+ * The same seed always yields the same data so runs stay comparable.
+ */
+final class Inputs {
+
+    private static final String CJK = "张王李赵刘陈杨黄周吴徐孙马朱胡郭何高林罗郑梁谢宋唐许韩冯邓曹彭曾肖田董袁潘于蒋蔡余杜叶程苏魏吕丁任沈姚卢姜崔钟谭陆汪范金石廖贾夏韦付方白邹孟熊秦邱江尹薛闫段雷侯龙史陶黎贺顾毛郝龚邵万钱严覃武戴莫孔向汤";
+    private static final String ASCII = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ,.;:-_()!?";
+    private static final String HTML_SPECIAL = "<>&\"'";
+    private static final String FULL_WIDTH = "１２３４５６７８９０！＠＃＄％＆＊（）ａｂｃｄｅｆｇｈｉｊｋｌｍｎｏｐＡＢＣＤＥＦＧＨＩＪＫＬＭＮ－＿＝＋；：，。／？";
+    private static final String[] WORDS = {"customer", "name", "age", "password", "create", "time", "update", "user",
+            "id", "order", "status", "login", "last", "count", "limit", "start", "end", "after", "key", "total"};
+
+    private Inputs() {
+    }
+
+    static Random random() {
+        return new Random(20161018L);
+    }
+
+    /**
+     * free text: mostly CJK and ASCII, roughly one html special character every specialEvery chars(0 for none)
+     */
+    static String text(Random random, int length, int specialEvery) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            if (specialEvery > 0 && random.nextInt(specialEvery) == 0) {
+                sb.append(pick(random, HTML_SPECIAL));
+            } else if (random.nextInt(3) == 0) {
+                sb.append(pick(random, CJK));
+            } else {
+                sb.append(pick(random, ASCII));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * text typed with a full-width IME: about half of the characters are full-width
+     */
+    static String fullWidthText(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            int r = random.nextInt(4);
+            if (r < 2) {
+                sb.append(pick(random, FULL_WIDTH));
+            } else if (r == 2) {
+                sb.append(pick(random, CJK));
+            } else {
+                sb.append(pick(random, ASCII));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * database style identifier like last_login_time
+     */
+    static String underline(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append('_');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * java property style identifier like lastLoginTime
+     */
+    static String camel(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            sb.append(i == 0 ? word : Character.toUpperCase(word.charAt(0)) + word.substring(1));
+        }
+        return sb.toString();
+    }
+
+    static String name(Random random) {
+        return random.nextBoolean() ? text(random, 2 + random.nextInt(2), 0).trim() + random.nextInt(1000)
+                : "user_" + Integer.toString(random.nextInt(1 << 20), 36);
+    }
+
+    static Customer customer(Random random) {
+        Customer customer = new Customer();
+        customer.setName(name(random));
+        customer.setPassword(Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()));
+        customer.setAge(18 + random.nextInt(60));
+        return customer;
+    }
+
+    static Object[] mixedArray(Random random, int size) {
+        Object[] array = new Object[size];
+        for (int i = 0; i < size; i++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    array[i] = name(random);
+                    break;
+                case 1:
+                    array[i] = random.nextInt(100000);
+                    break;
+                case 2:
+                    array[i] = random.nextLong();
+                    break;
+                default:
+                    array[i] = null;
+            }
+        }
+        return array;
+    }
+
+    static List<String> names(Random random, int size) {
+        List<String> names = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            names.add(name(random));
+        }
+        return names;
+    }
+
+    static int[] ints(Random random, int size) {
+        int[] array = new int[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = random.nextInt();
+        }
+        return array;
+    }
+
+    private static char pick(Random random, String chars) {
+        return chars.charAt(random.nextInt(chars.length()));
+    }
+}
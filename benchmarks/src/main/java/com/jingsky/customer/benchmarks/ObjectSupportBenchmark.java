@@ -0,0 +1,61 @@
+package com.jingsky.customer.benchmarks;
+
+import com.jingsky.customer.entity.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * equals/hashCode/toString that Customer inherits from ObjectSupport(or overrides),
+ * hit whenever customers go into hash based collections, caches or log lines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObjectSupportBenchmark {
+
+    private Customer customer;
+    private Customer same;
+    private Customer other;
+
+    @Setup
+    public void setUp() {
+        Random random = Inputs.random();
+        customer = Inputs.customer(random);
+        same = customer.copy();
+        other = Inputs.customer(random);
+    }
+
+    @Benchmark
+    public boolean equalsSame() {
+        return customer.equals(same);
+    }
+
+    @Benchmark
+    public boolean equalsOther() {
+        return customer.equals(other);
+    }
+
+    @Benchmark
+    public int hashCodeCustomer() {
+        return customer.hashCode();
+    }
+
+    @Benchmark
+    public String toStringCustomer() {
+        return customer.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package com.jingsky.customer.benchmarks;
+
+import com.jingsky.customer.util.base.Objects;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Objects.nullSafe* helpers on arrays of request parameters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObjectsBenchmark {
+
+    @Param({"8", "128"})
+    public int size;
+
+    private Object[] objects;
+    private Object[] objectsCopy;
+    private int[] ints;
+    private Object boxedInts;
+
+    @Setup
+    public void setUp() {
+        objects = Inputs.mixedArray(Inputs.random(), size);
+        objectsCopy = Inputs.mixedArray(Inputs.random(), size);
+        ints = Inputs.ints(Inputs.random(), size);
+        boxedInts = Inputs.ints(Inputs.random(), size);
+    }
+
+    @Benchmark
+    public int nullSafeHashCodeObjects() {
+        return Objects.nullSafeHashCode(objects);
+    }
+
+    @Benchmark
+    public int nullSafeHashCodeInts() {
+        return Objects.nullSafeHashCode(ints);
+    }
+
+    /**
+     * goes through the Object overload, which dispatches on the runtime array type
+     */
+    @Benchmark
+    public int nullSafeHashCodeDispatch() {
+        return Objects.nullSafeHashCode(boxedInts);
+    }
+
+    @Benchmark
+    public String nullSafeToStringObjects() {
+        return Objects.nullSafeToString(objects);
+    }
+
+    @Benchmark
+    public String nullSafeToStringInts() {
+        return Objects.nullSafeToString(ints);
+    }
+
+    @Benchmark
+    public boolean nullSafeEquals() {
+        return Objects.nullSafeEquals(objects, objectsCopy);
+    }
+}
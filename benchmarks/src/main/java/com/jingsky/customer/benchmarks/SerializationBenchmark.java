@@ -0,0 +1,85 @@
+package com.jingsky.customer.benchmarks;
+
+import com.alibaba.dubbo.common.io.UnsafeByteArrayInputStream;
+import com.alibaba.dubbo.common.io.UnsafeByteArrayOutputStream;
+import com.alibaba.dubbo.common.serialize.ObjectInput;
+import com.alibaba.dubbo.common.serialize.ObjectOutput;
+import com.alibaba.dubbo.common.serialize.Serialization;
+import com.alibaba.dubbo.common.serialize.support.hessian.Hessian2Serialization;
+import com.jingsky.customer.entity.Customer;
+import com.jingsky.customer.service.serialize.KryoSerialization;
+import com.jingsky.customer.util.base.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body of a dubbo response to ICustomerService.page: a Page of customers written and read through the
+ * Serialization SPI the same way the dubbo codec does, hessian2(dubbo's default) against kryo.
+ * The encoded size of each is printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.lang=ALL-UNNAMED",
+        "--add-opens=java.base/java.math=ALL-UNNAMED", "--add-opens=java.base/java.util=ALL-UNNAMED"})
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"hessian2", "kryo"})
+    private String serialization;
+
+    @Param({"10", "100", "1000"})
+    private int rows;
+
+    private Serialization codec;
+    private Page<Customer> page;
+    private UnsafeByteArrayOutputStream buffer;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        codec = "kryo".equals(serialization) ? new KryoSerialization() : new Hessian2Serialization();
+        Random random = Inputs.random();
+        List<Customer> customers = new ArrayList<Customer>(rows);
+        for (int i = 0; i < rows; i++) {
+            customers.add(Inputs.customer(random));
+        }
+        page = new Page<Customer>(0, rows);
+        page.setData(customers);
+        page.setTotalCount(rows * 10L);
+        buffer = new UnsafeByteArrayOutputStream(1024);
+        encoded = encode().toByteArray();
+        System.out.println(serialization + " " + rows + " rows: " + encoded.length + " bytes");
+    }
+
+    @Benchmark
+    public UnsafeByteArrayOutputStream encode() throws IOException {
+        buffer.reset();
+        ObjectOutput output = codec.serialize(null, buffer);
+        output.writeObject(page);
+        output.flushBuffer();
+        return buffer;
+    }
+
+    @Benchmark
+    public Object decode() throws IOException, ClassNotFoundException {
+        ObjectInput input = codec.deserialize(null, new UnsafeByteArrayInputStream(encoded));
+        return input.readObject();
+    }
+}
@@ -0,0 +1,90 @@
+package com.jingsky.customer.benchmarks;
+
+import com.jingsky.customer.util.metrics.StatementMetricsInterceptor;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost StatementMetricsInterceptor adds to every mapper call on the fast path(not slow),
+ * against the same call without it. Run with -prof gc to see what it allocates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementMetricsBenchmark {
+
+    private StatementMetricsInterceptor interceptor;
+    private Invocation query;
+    private Invocation update;
+
+    @Setup
+    public void setUp() throws Exception {
+        interceptor = new StatementMetricsInterceptor();
+        Configuration configuration = new Configuration();
+        MappedStatement find = new MappedStatement.Builder(configuration, "com.jingsky.customer.dao.CustomerDao.find",
+                new StaticSqlSource(configuration, "select 1"), SqlCommandType.SELECT).build();
+        MappedStatement updateByEntity = new MappedStatement.Builder(configuration,
+                "com.jingsky.customer.dao.CustomerDao.updateByEntity", new StaticSqlSource(configuration, "update 1"),
+                SqlCommandType.UPDATE).build();
+        StubExecutor executor = new StubExecutor();
+        query = new Invocation(executor, StubExecutor.class.getMethod("query", MappedStatement.class, Object.class,
+                RowBounds.class, ResultHandler.class), new Object[]{find, null, RowBounds.DEFAULT, null});
+        update = new Invocation(executor, StubExecutor.class.getMethod("update", MappedStatement.class, Object.class),
+                new Object[]{updateByEntity, null});
+    }
+
+    @Benchmark
+    public Object queryBare() throws Exception {
+        return query.proceed();
+    }
+
+    @Benchmark
+    public Object queryIntercepted() throws Throwable {
+        return interceptor.intercept(query);
+    }
+
+    @Benchmark
+    public Object updateIntercepted() throws Throwable {
+        return interceptor.intercept(update);
+    }
+
+    /**
+     * returns at once,so only the interceptor's own work is measured
+     */
+    public static class StubExecutor {
+
+        private final List<Object> rows = Collections.unmodifiableList(Arrays.<Object>asList(1, 2, 3));
+        private final Integer affected = 1;
+
+        public List<Object> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler handler) {
+            return rows;
+        }
+
+        public Integer update(MappedStatement ms, Object parameter) {
+            return affected;
+        }
+    }
+}
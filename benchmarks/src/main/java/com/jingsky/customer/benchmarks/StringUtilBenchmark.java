@@ -0,0 +1,122 @@
+package com.jingsky.customer.benchmarks;
+
+import com.jingsky.customer.util.util.CaseConverter;
+import com.jingsky.customer.util.util.StringUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StringUtil helpers used while rendering and binding requests.
+ * length is the size of the free text inputs; identifiers are 3-word column/property names.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StringUtilBenchmark {
+
+    @Param({"32", "1024"})
+    public int length;
+
+    private String html;
+    private String escaped;
+    private String plain;
+    private String fullWidth;
+    private String halfWidth;
+    private String underline;
+    private String camel;
+    private Object[] array;
+    private List<String> names;
+
+    @Setup
+    public void setUp() {
+        Random random = Inputs.random();
+        html = Inputs.text(random, length, 20);
+        escaped = StringUtil.htmlEncode(html);
+        plain = Inputs.text(random, length, 0);
+        fullWidth = Inputs.fullWidthText(random, length);
+        halfWidth = Inputs.text(random, length, 0);
+        underline = Inputs.underline(random, 3);
+        camel = Inputs.camel(random, 3);
+        array = Inputs.mixedArray(random, 20);
+        names = Inputs.names(random, 20);
+    }
+
+    @Benchmark
+    public String htmlEncode() {
+        return StringUtil.htmlEncode(html);
+    }
+
+    @Benchmark
+    public String htmlEncodeNothingToEscape() {
+        return StringUtil.htmlEncode(plain);
+    }
+
+    @Benchmark
+    public String htmlEncodeQuotes() {
+        return StringUtil.htmlEncode(html, 1);
+    }
+
+    @Benchmark
+    public String htmlDecode() {
+        return StringUtil.htmlDecode(escaped);
+    }
+
+    @Benchmark
+    public String changeToHalf() {
+        return StringUtil.changeToHalf(fullWidth);
+    }
+
+    @Benchmark
+    public String changeToFull() {
+        return StringUtil.changeToFull(halfWidth);
+    }
+
+    @Benchmark
+    public String underlineToJavaString() {
+        return StringUtil.underlineToJavaString(underline);
+    }
+
+    @Benchmark
+    public String javaStringToUnderline() {
+        return StringUtil.javaStringToUnderline(camel);
+    }
+
+    /**
+     * the conversion itself, the two above are answered from the identifier cache after the first call
+     */
+    @Benchmark
+    public String underlineToCamelUncached() {
+        return CaseConverter.underlineToCamel(underline);
+    }
+
+    @Benchmark
+    public String camelToUnderlineUncached() {
+        return CaseConverter.camelToUnderline(camel);
+    }
+
+    @Benchmark
+    public String joinArray() {
+        return StringUtil.join(array, ',');
+    }
+
+    @Benchmark
+    public String joinIterable() {
+        return StringUtil.join(names, ", ");
+    }
+}
@@ -0,0 +1,87 @@
+package com.jingsky.customer.benchmarks;
+
+import com.jingsky.customer.util.util.WidthConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-width/half-width conversion over a range of input lengths.
+ * Run with -prof gc: time per op should grow linearly with length, gc.alloc.rate.norm of toHalf/toFull
+ * should only be the output(the char[] being filled and the String made from it, about 5 bytes a char)
+ * and the streaming variant should stay flat at its copy buffer whatever the input size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WidthConverterBenchmark {
+
+    @Param({"64", "1024", "16384"})
+    public int length;
+
+    private String fullWidth;
+    private String halfWidth;
+    private String fileContent;
+
+    @Setup
+    public void setUp() {
+        Random random = Inputs.random();
+        fullWidth = Inputs.fullWidthText(random, length);
+        halfWidth = Inputs.text(random, length, 0);
+        fileContent = Inputs.fullWidthText(random, 64 * length);
+    }
+
+    @Benchmark
+    public String toHalf() {
+        return WidthConverter.toHalf(fullWidth);
+    }
+
+    @Benchmark
+    public String toFull() {
+        return WidthConverter.toFull(halfWidth);
+    }
+
+    /**
+     * a 64*length chars import file, written to a sink so only the converter's own buffer is allocated
+     */
+    @Benchmark
+    public long toHalfStream() throws IOException {
+        Reader in = new StringReader(fileContent);
+        return WidthConverter.toHalf(in, NullWriter.INSTANCE);
+    }
+
+    private static final class NullWriter extends Writer {
+
+        static final NullWriter INSTANCE = new NullWriter();
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.jingsky.customer.entity;
 
 import com.jingsky.customer.util.base.BaseEntity;
-import org.apache.commons.lang3.builder.ToStringBuilder;
+import com.jingsky.customer.util.base.IdentityField;
 
 
 public class Customer extends BaseEntity<Long,Customer> {
@@ -11,12 +11,15 @@ public class Customer extends BaseEntity<Long,Customer> {
 	/**
 	 * 
 	 */
+    @IdentityField
     private String password;
 	/**
 	 * 
 	 */
+    @IdentityField
     private Integer age;
 
+    @IdentityField
     private String name;
     
 		    
@@ -50,8 +53,14 @@ public class Customer extends BaseEntity<Long,Customer> {
         this.name = name;
     }
 
-    @Override
-	public String toString() {
-		return ToStringBuilder.reflectionToString(this);
-	}
+    /**
+     * 复制数据列生成新对象,缓存返回副本时使用,避免调用方修改缓存中的实例
+     */
+    public Customer copy() {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setPassword(password);
+        customer.setAge(age);
+        return customer;
+    }
 }
\ No newline at end of file
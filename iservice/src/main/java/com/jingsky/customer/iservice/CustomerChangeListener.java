@@ -0,0 +1,12 @@
+package com.jingsky.customer.iservice;
+
+/**
+ * Callback invoked by the provider after customer rows change.
+ */
+public interface CustomerChangeListener {
+
+    /**
+     * @param name the changed customer's name, null when any row may have changed
+     */
+    public void changed(String name);
+}
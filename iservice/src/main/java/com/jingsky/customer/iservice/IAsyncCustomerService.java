@@ -0,0 +1,11 @@
+package com.jingsky.customer.iservice;
+
+import com.jingsky.customer.entity.Customer;
+import com.jingsky.customer.util.base.IAsyncBaseService;
+
+/**
+ * Non-blocking customer service for in-process callers.
+ */
+public interface IAsyncCustomerService extends IAsyncBaseService<Customer, Long> {
+
+}
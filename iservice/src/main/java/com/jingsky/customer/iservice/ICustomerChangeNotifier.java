@@ -0,0 +1,12 @@
+package com.jingsky.customer.iservice;
+
+/**
+ * Lets consumers subscribe to customer change events, used to invalidate client side caches.
+ * The listener argument is exported as a dubbo callback.
+ */
+public interface ICustomerChangeNotifier {
+
+    public void subscribe(String key, CustomerChangeListener listener);
+
+    public void unsubscribe(String key);
+}
@@ -0,0 +1,114 @@
+package com.jingsky.customer.loadtest;
+
+import org.apache.log4j.Logger;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.webapp.WebAppContext;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Scanner;
+
+/**
+ * The whole stack in one JVM: the service provider on the classpath against an in-memory
+ * MySQL-mode h2 database, and the exploded web war in jetty with its own classloader,
+ * calling the provider over dubbo on localhost like it does in production.
+ * With loadtest.profile=embedded no provider is started and the webapp runs the service itself.
+ */
+public class EmbeddedStack {
+
+    private static final Logger logger = Logger.getLogger(EmbeddedStack.class);
+
+    private static final String[] PROVIDER_PACKAGES = {"com.jingsky.", "com.alibaba.", "org.springframework.",
+            "org.apache.", "org.mybatis.", "org.jboss.netty.", "javassist.", "com.fasterxml.", "org.aopalliance.",
+            "org.aspectj.", "com.mysql.", "redis.clients.", "org.json.", "org.jsoup.", "org.dom4j.", "org.junit.", "junit."};
+
+    private final LoadTestConfig config;
+    private ClassPathXmlApplicationContext provider;
+    private Server server;
+
+    public EmbeddedStack(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public void start() throws Exception {
+        File webapp = new File(config.get("loadtest.webapp"));
+        if (!new File(webapp, "WEB-INF/web.xml").isFile()) {
+            throw new IllegalStateException("no exploded war at " + webapp.getAbsolutePath() + ", run mvn package first");
+        }
+
+        //read by the provider's placeholder configurer,system properties override config.properties
+        String jdbcUrl = config.get("loadtest.jdbcUrl");
+        System.setProperty("jdbc.connection.url", jdbcUrl);
+        System.setProperty("jdbc.connection.driver", "org.h2.Driver");
+        System.setProperty("jdbc.connection.username", "sa");
+        System.setProperty("jdbc.connection.password", "");
+        createSchema(jdbcUrl);
+
+        String profile = config.get("loadtest.profile");
+        long start = System.currentTimeMillis();
+        if (!"embedded".equals(profile)) {
+            provider = new ClassPathXmlApplicationContext("classpath*:spring/spring-context.xml",
+                    "classpath*:spring/spring-mybatis.xml", "classpath*:spring/spring-provider.xml");
+            logger.info("provider started in " + (System.currentTimeMillis() - start) + "ms");
+        }
+
+        start = System.currentTimeMillis();
+        server = new Server(config.getInt("loadtest.port"));
+        WebAppContext context = new WebAppContext(webapp.getAbsolutePath(), "/");
+        context.setInitParameter("spring.profiles.active", profile);
+        //the webapp must only see its own WEB-INF/lib copies of what the provider also has on this classpath,
+        //dubbo in particular looks its generated classes up by name and would find the provider's
+        for (String hidden : PROVIDER_PACKAGES) {
+            context.addServerClass(hidden);
+        }
+        server.setHandler(context);
+        server.start();
+        if (context.getUnavailableException() != null) {
+            throw new IllegalStateException("web application failed to start", context.getUnavailableException());
+        }
+        logger.info("web(" + profile + ") started in " + (System.currentTimeMillis() - start) + "ms on port "
+                + config.getInt("loadtest.port"));
+    }
+
+    public void stop() {
+        if (server != null) {
+            try {
+                server.stop();
+            } catch (Exception e) {
+                logger.warn("stop jetty failed", e);
+            }
+        }
+        if (provider != null) {
+            provider.close();
+        }
+    }
+
+    private void createSchema(String jdbcUrl) throws SQLException, IOException {
+        InputStream in = EmbeddedStack.class.getResourceAsStream("/loadtest/schema.sql");
+        String sql;
+        try {
+            sql = new Scanner(in, StandardCharsets.UTF_8.name()).useDelimiter("\\A").next();
+        } finally {
+            in.close();
+        }
+        Connection connection = DriverManager.getConnection(jdbcUrl, "sa", "");
+        try {
+            Statement statement = connection.createStatement();
+            for (String ddl : sql.split(";")) {
+                if (!ddl.trim().isEmpty()) {
+                    statement.execute(ddl);
+                }
+            }
+            statement.close();
+        } finally {
+            connection.close();
+        }
+    }
+}
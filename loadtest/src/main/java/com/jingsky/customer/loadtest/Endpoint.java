@@ -0,0 +1,59 @@
+package com.jingsky.customer.loadtest;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * The controller endpoints the workload calls, each executed as a given virtual user.
+ */
+public enum Endpoint {
+
+    LOGIN {
+        @Override
+        Response call(VirtualUser user, Random random) throws IOException {
+            return user.login();
+        }
+    },
+    ME {
+        @Override
+        Response call(VirtualUser user, Random random) throws IOException {
+            return user.get("/me");
+        }
+    },
+    UPDATE {
+        @Override
+        Response call(VirtualUser user, Random random) throws IOException {
+            return user.post("/update", "{\"age\":" + (18 + random.nextInt(60)) + "}");
+        }
+    },
+    REGISTER {
+        @Override
+        Response call(VirtualUser user, Random random) throws IOException {
+            return user.register(VirtualUser.nextName());
+        }
+    };
+
+    abstract Response call(VirtualUser user, Random random) throws IOException;
+
+    public String path() {
+        return "/" + name().toLowerCase();
+    }
+
+    /**
+     * outcome of one request; the web tier reports business failures as 200 with status=failure
+     */
+    static class Response {
+
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        boolean isSuccess() {
+            return status == 200 && !body.contains("\"status\":\"failure\"");
+        }
+    }
+}
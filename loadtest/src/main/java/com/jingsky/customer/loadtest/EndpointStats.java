@@ -0,0 +1,61 @@
+package com.jingsky.customer.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies of one endpoint in microseconds, up to one hour at 3 significant digits.
+ * Requests that failed are recorded as well, so slow failures still show up in the percentiles.
+ */
+public class EndpointStats {
+
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final Endpoint endpoint;
+    private final Recorder recorder = new Recorder(HIGHEST_MICROS, 3);
+    private final AtomicLong errors = new AtomicLong();
+    private Histogram histogram;
+    private long errorCount;
+
+    public EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void record(long latencyNanos, boolean success) {
+        recorder.recordValue(Math.min(HIGHEST_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos))));
+        if (!success) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * throw away what the warmup recorded
+     */
+    public void reset() {
+        recorder.reset();
+        errors.set(0);
+    }
+
+    /**
+     * freeze the measured interval, later recordings are ignored
+     */
+    public void finish() {
+        histogram = recorder.getIntervalHistogram();
+        errorCount = errors.get();
+    }
+
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+}
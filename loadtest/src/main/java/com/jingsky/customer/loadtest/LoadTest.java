@@ -0,0 +1,128 @@
+package com.jingsky.customer.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load test of the controller -> dubbo -> mybatis path.<br/>
+ * Starts provider, h2 and jetty in-process unless loadtest.baseUrl points at a running web tier,
+ * signs up loadtest.users accounts, drives the configured mix and prints per-endpoint throughput
+ * and p50/p99/p999 latency. Full HdrHistogram percentile distributions(.hgrm, milliseconds) and the
+ * summary are written to loadtest.output. Settings are in loadtest/loadtest.properties.
+ */
+public class LoadTest {
+
+    private static final Logger logger = Logger.getLogger(LoadTest.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+        int threads = config.getInt("loadtest.threads");
+        int userCount = config.getInt("loadtest.users");
+        if (userCount < threads) {
+            logger.warn("loadtest.users raised to loadtest.threads(" + threads + "), a user is used by one thread at a time");
+            userCount = threads;
+        }
+        //the jdk keeps only 5 idle connections per host by default
+        System.setProperty("http.maxConnections", String.valueOf(threads));
+
+        EmbeddedStack stack = null;
+        int exitCode = 0;
+        try {
+            if (config.isEmbedded()) {
+                stack = new EmbeddedStack(config);
+                stack.start();
+            }
+            List<VirtualUser> users = new ArrayList<VirtualUser>(userCount);
+            for (int i = 0; i < userCount; i++) {
+                VirtualUser user = new VirtualUser(config.getBaseUrl(), config.getInt("loadtest.timeoutMillis"));
+                user.signUp();
+                users.add(user);
+            }
+            logger.info(userCount + " users signed up against " + config.getBaseUrl());
+
+            Workload workload = new Workload(config, users);
+            long measuredNanos = workload.run();
+            report(config, workload.getStats(), measuredNanos);
+        } catch (Exception e) {
+            logger.error("load test failed", e);
+            exitCode = 1;
+        } finally {
+            if (stack != null) {
+                stack.stop();
+            }
+        }
+        //dubbo leaves non-daemon threads behind
+        System.exit(exitCode);
+    }
+
+    private static void report(LoadTestConfig config, Collection<EndpointStats> stats, long measuredNanos) throws IOException {
+        File output = new File(config.get("loadtest.output"));
+        if (!output.isDirectory() && !output.mkdirs()) {
+            throw new IOException("can not create " + output.getAbsolutePath());
+        }
+        double seconds = measuredNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        Histogram total = null;
+        long totalErrors = 0;
+
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-10s %10s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)"));
+        for (EndpointStats endpointStats : stats) {
+            Histogram histogram = endpointStats.getHistogram();
+            appendRow(table, endpointStats.getEndpoint().path(), histogram, endpointStats.getErrorCount(), seconds);
+            writeDistribution(new File(output, endpointStats.getEndpoint().name().toLowerCase() + ".hgrm"), histogram);
+            if (total == null) {
+                total = histogram.copy();
+            } else {
+                total.add(histogram);
+            }
+            totalErrors += endpointStats.getErrorCount();
+        }
+        appendRow(table, "all", total, totalErrors, seconds);
+        writeDistribution(new File(output, "all.hgrm"), total);
+
+        String summary = (config.isOpenLoop() ? "open loop at " + config.getInt("loadtest.rate") + " req/s" : "closed loop")
+                + ", " + config.getInt("loadtest.threads") + " threads, " + String.format("%.1f", seconds) + "s measured\n"
+                + table;
+        System.out.println();
+        System.out.println(summary);
+        PrintStream out = new PrintStream(new FileOutputStream(new File(output, "summary.txt")), false, "UTF-8");
+        try {
+            out.println(summary);
+            out.println(config);
+        } finally {
+            out.close();
+        }
+        logger.info("histograms written to " + output.getAbsolutePath());
+    }
+
+    private static void appendRow(StringBuilder table, String name, Histogram histogram, long errors, double seconds) {
+        table.append(String.format("%-10s %10d %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n", name,
+                histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue())));
+    }
+
+    private static void writeDistribution(File file, Histogram histogram) throws IOException {
+        PrintStream out = new PrintStream(new FileOutputStream(file), false, "UTF-8");
+        try {
+            //recorded in microseconds,printed in milliseconds
+            histogram.outputPercentileDistribution(out, 1000.0);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
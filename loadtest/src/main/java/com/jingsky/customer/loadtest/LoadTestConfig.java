@@ -0,0 +1,79 @@
+package com.jingsky.customer.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Settings of one load test run: loadtest/loadtest.properties overridden by system properties.
+ */
+public class LoadTestConfig {
+
+    private final Properties properties = new Properties();
+
+    public LoadTestConfig() throws IOException {
+        InputStream in = LoadTestConfig.class.getResourceAsStream("/loadtest/loadtest.properties");
+        try {
+            properties.load(in);
+        } finally {
+            in.close();
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("loadtest.")) {
+                properties.setProperty(key, System.getProperty(key));
+            }
+        }
+    }
+
+    public String get(String key) {
+        String value = properties.getProperty(key);
+        return value == null ? null : value.trim();
+    }
+
+    public int getInt(String key) {
+        return Integer.parseInt(get(key));
+    }
+
+    public boolean isEmbedded() {
+        String baseUrl = get("loadtest.baseUrl");
+        return baseUrl == null || baseUrl.isEmpty();
+    }
+
+    public String getBaseUrl() {
+        return isEmbedded() ? "http://localhost:" + getInt("loadtest.port") : get("loadtest.baseUrl");
+    }
+
+    public boolean isOpenLoop() {
+        return "open".equalsIgnoreCase(get("loadtest.mode"));
+    }
+
+    /**
+     * loadtest.mix parsed into endpoint weights, endpoints missing from the mix are not called
+     */
+    public Map<Endpoint, Integer> getMix() {
+        Map<Endpoint, Integer> mix = new LinkedHashMap<Endpoint, Integer>();
+        for (String entry : get("loadtest.mix").split(",")) {
+            String[] pair = entry.split(":");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(Endpoint.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no endpoint with a positive weight");
+        }
+        return mix;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (String key : new TreeSet<String>(properties.stringPropertyNames())) {
+            sb.append(key).append('=').append(properties.getProperty(key)).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.jingsky.customer.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One customer account with its own session cookie. A user is driven by one thread at a time.
+ * Connections are kept alive through the JDK's HttpURLConnection pool, so the body of every
+ * response is read to the end.
+ */
+public class VirtualUser {
+
+    private static final String RUN_ID = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final String baseUrl;
+    private final int timeoutMillis;
+    private final String name;
+    private final String password = "loadtest";
+    private String cookie;
+
+    public VirtualUser(String baseUrl, int timeoutMillis) {
+        this.baseUrl = baseUrl;
+        this.timeoutMillis = timeoutMillis;
+        this.name = nextName();
+    }
+
+    /**
+     * unique across runs against the same database
+     */
+    static String nextName() {
+        return "lt" + RUN_ID + "_" + SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * register this user's account and open its session
+     */
+    public void signUp() throws IOException {
+        Endpoint.Response response = register(name);
+        if (!response.isSuccess()) {
+            throw new IOException("register " + name + " failed: " + response.body);
+        }
+        response = login();
+        if (!response.isSuccess()) {
+            throw new IOException("login " + name + " failed: " + response.body);
+        }
+    }
+
+    Endpoint.Response login() throws IOException {
+        return post("/login", "{\"name\":\"" + name + "\",\"password\":\"" + password + "\"}");
+    }
+
+    Endpoint.Response register(String newName) throws IOException {
+        return post("/register", "{\"name\":\"" + newName + "\",\"password\":\"" + password + "\",\"age\":30}");
+    }
+
+    Endpoint.Response get(String path) throws IOException {
+        return execute(open(path, "GET"));
+    }
+
+    Endpoint.Response post(String path, String json) throws IOException {
+        HttpURLConnection connection = open(path, "POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
+        OutputStream out = connection.getOutputStream();
+        try {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        } finally {
+            out.close();
+        }
+        return execute(connection);
+    }
+
+    private HttpURLConnection open(String path, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(timeoutMillis);
+        connection.setReadTimeout(timeoutMillis);
+        connection.setUseCaches(false);
+        if (cookie != null) {
+            connection.setRequestProperty("Cookie", cookie);
+        }
+        return connection;
+    }
+
+    private Endpoint.Response execute(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        List<String> setCookies = connection.getHeaderFields().get("Set-Cookie");
+        if (setCookies != null) {
+            for (String setCookie : setCookies) {
+                if (setCookie.startsWith("JSESSIONID=")) {
+                    int end = setCookie.indexOf(';');
+                    cookie = end < 0 ? setCookie : setCookie.substring(0, end);
+                }
+            }
+        }
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (in == null) {
+            return new Endpoint.Response(status, "");
+        }
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+            }
+            return new Endpoint.Response(status, new String(body.toByteArray(), StandardCharsets.UTF_8));
+        } finally {
+            in.close();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+}
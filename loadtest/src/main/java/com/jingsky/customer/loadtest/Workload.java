@@ -0,0 +1,173 @@
+package com.jingsky.customer.loadtest;
+
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the endpoint mix with a pool of signed up virtual users.<br/>
+ * closed loop: each of the threads calls back to back, latency is the call itself.<br/>
+ * open loop: requests are due at a fixed rate and latency is measured from the time a request was due,
+ * so queueing behind a slow server is counted instead of silently lowering the offered load.
+ */
+public class Workload {
+
+    private static final Logger logger = Logger.getLogger(Workload.class);
+
+    private final LoadTestConfig config;
+    private final Endpoint[] wheel;
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<Endpoint, EndpointStats>(Endpoint.class);
+    private final BlockingQueue<VirtualUser> users;
+    private volatile boolean running = true;
+
+    public Workload(LoadTestConfig config, List<VirtualUser> signedUp) {
+        this.config = config;
+        Map<Endpoint, Integer> mix = config.getMix();
+        List<Endpoint> slots = new ArrayList<Endpoint>();
+        for (Map.Entry<Endpoint, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                slots.add(entry.getKey());
+            }
+            stats.put(entry.getKey(), new EndpointStats(entry.getKey()));
+        }
+        this.wheel = slots.toArray(new Endpoint[slots.size()]);
+        this.users = new ArrayBlockingQueue<VirtualUser>(signedUp.size(), false, signedUp);
+    }
+
+    /**
+     * run warmup and measurement
+     * @return length of the measured interval in nanoseconds
+     */
+    public long run() throws InterruptedException {
+        int threads = config.getInt("loadtest.threads");
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        Thread driver;
+        if (config.isOpenLoop()) {
+            driver = new Thread(openLoop(workers, config.getInt("loadtest.rate")), "loadtest-open-loop");
+        } else {
+            driver = new Thread(closedLoop(workers, threads), "loadtest-closed-loop");
+        }
+        driver.setDaemon(true);
+        driver.start();
+
+        logger.info("warming up for " + config.getInt("loadtest.warmupSeconds") + "s");
+        TimeUnit.SECONDS.sleep(config.getInt("loadtest.warmupSeconds"));
+        for (EndpointStats endpointStats : stats.values()) {
+            endpointStats.reset();
+        }
+        logger.info("measuring for " + config.getInt("loadtest.durationSeconds") + "s");
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(config.getInt("loadtest.durationSeconds"));
+        for (EndpointStats endpointStats : stats.values()) {
+            endpointStats.finish();
+        }
+        long measured = System.nanoTime() - start;
+
+        running = false;
+        driver.interrupt();
+        workers.shutdownNow();
+        workers.awaitTermination(config.getInt("loadtest.timeoutMillis"), TimeUnit.MILLISECONDS);
+        return measured;
+    }
+
+    public Collection<EndpointStats> getStats() {
+        return stats.values();
+    }
+
+    private Runnable closedLoop(final ExecutorService workers, final int threads) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < threads; i++) {
+                    workers.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            while (running) {
+                                try {
+                                    VirtualUser user = users.take();
+                                    try {
+                                        call(user, System.nanoTime());
+                                    } finally {
+                                        users.put(user);
+                                    }
+                                } catch (InterruptedException e) {
+                                    return;
+                                }
+                            }
+                        }
+                    });
+                }
+            }
+        };
+    }
+
+    private Runnable openLoop(final ExecutorService workers, int rate) {
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        return new Runnable() {
+            @Override
+            public void run() {
+                long due = System.nanoTime();
+                while (running) {
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                        if (Thread.interrupted()) {
+                            return;
+                        }
+                        continue;
+                    }
+                    try {
+                        workers.execute(scheduled(due));
+                    } catch (RejectedExecutionException e) {
+                        //workers shut down at the end of the run
+                        return;
+                    }
+                    due += intervalNanos;
+                }
+            }
+        };
+    }
+
+    private Runnable scheduled(final long intendedStart) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    VirtualUser user = users.take();
+                    try {
+                        call(user, intendedStart);
+                    } finally {
+                        users.put(user);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    private void call(VirtualUser user, long startNanos) {
+        Random random = ThreadLocalRandom.current();
+        Endpoint endpoint = wheel[random.nextInt(wheel.length)];
+        boolean success;
+        try {
+            success = endpoint.call(user, random).isSuccess();
+        } catch (Exception e) {
+            success = false;
+        }
+        stats.get(endpoint).record(System.nanoTime() - startNanos, success);
+    }
+}
@@ -0,0 +1,5 @@
+create table if not exists Customer (
+  name varchar(64) not null primary key,
+  password varchar(64),
+  age int
+);
@@ -0,0 +1,27 @@
+package com.jingsky.customer.service;
+
+import com.jingsky.customer.entity.Customer;
+import com.jingsky.customer.iservice.IAsyncCustomerService;
+import com.jingsky.customer.iservice.ICustomerService;
+import com.jingsky.customer.util.base.AsyncBaseService;
+import com.jingsky.customer.util.base.IBaseService;
+
+/**
+ * Runs customerService calls on a dedicated bounded pool.
+ * Declared in xml rather than scanned, the web context scans this package too.
+ */
+public class AsyncCustomerService extends AsyncBaseService<Customer, Long> implements IAsyncCustomerService {
+
+	private final ICustomerService customerService;
+
+	public AsyncCustomerService(ICustomerService customerService, int threads, int queueSize) {
+		super("async-customer", threads, queueSize);
+		this.customerService = customerService;
+	}
+
+	@Override
+	public IBaseService<Customer, Long> getDelegate() {
+		return customerService;
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.jingsky.customer.service;
+
+import com.jingsky.customer.iservice.CustomerChangeListener;
+import com.jingsky.customer.iservice.ICustomerChangeNotifier;
+import com.jingsky.customer.util.base.NamedThreadFactory;
+import com.jingsky.customer.util.metrics.Counter;
+import com.jingsky.customer.util.metrics.Metrics;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broadcasts customer change events to subscribed consumers.
+ * Events are delivered on a single background thread so writes never wait on remote callbacks;
+ * a listener whose callback fails is dropped and has to subscribe again.
+ * Subscribing is idempotent,consumers repeat it periodically;a key that was not subscribed(first subscription,
+ * dropped after a failed callback,provider restarted) first gets an event invalidating every row,
+ * so the changes it missed meanwhile never stay cached.
+ * When the queue is full the queued events are replaced by one event invalidating every row,
+ * so consumers never miss a change,the drops are counted in customer_change_events_dropped_total.
+ */
+public class CustomerChangeNotifier implements ICustomerChangeNotifier {
+
+    private static final Logger logger = Logger.getLogger(CustomerChangeNotifier.class);
+
+    private static final Counter DROPPED = Metrics.get().register(new Counter("customer_change_events_dropped_total",
+            "Change events replaced by an invalidate-all because the notifier queue was full", null));
+
+    private final Map<String, CustomerChangeListener> listeners = new ConcurrentHashMap<String, CustomerChangeListener>();
+
+    private final ThreadPoolExecutor executor;
+
+    public CustomerChangeNotifier() {
+        this(10000);
+    }
+
+    public CustomerChangeNotifier(int queueSize) {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(queueSize),
+                new NamedThreadFactory("customer-change"), new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+                overflow(executor);
+            }
+        });
+    }
+
+    @Override
+    public void subscribe(String key, CustomerChangeListener listener) {
+        if (listeners.put(key, listener) == null) {
+            logger.info("customer change listener subscribed:" + key);
+            executor.execute(new Delivery(null, key));
+        }
+    }
+
+    @Override
+    public void unsubscribe(String key) {
+        listeners.remove(key);
+        logger.info("customer change listener unsubscribed:" + key);
+    }
+
+    /**
+     * @param name the changed customer's name, null when any row may have changed
+     */
+    public void publish(final String name) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        executor.execute(new Delivery(name, null));
+    }
+
+    /**
+     * runs on the publishing thread,the rejected event is dropped along with everything queued
+     */
+    private void overflow(ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        BlockingQueue<Runnable> queue = executor.getQueue();
+        int dropped = 1;
+        //other publishers may refill the queue between draining and offering
+        do {
+            dropped += queue.drainTo(new ArrayList<Runnable>());
+        } while (!queue.offer(new Delivery(null, null)));
+        DROPPED.add(dropped);
+        logger.warn("customer change queue full, " + dropped + " events replaced by invalidating every row");
+    }
+
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private final class Delivery implements Runnable {
+
+        private final String name;
+        /**
+         * the only listener to call,null for all
+         */
+        private final String key;
+
+        Delivery(String name, String key) {
+            this.name = name;
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            if (key != null) {
+                CustomerChangeListener listener = listeners.get(key);
+                if (listener != null) {
+                    deliver(key, listener);
+                }
+                return;
+            }
+            for (Map.Entry<String, CustomerChangeListener> entry : listeners.entrySet()) {
+                deliver(entry.getKey(), entry.getValue());
+            }
+        }
+
+        private void deliver(String key, CustomerChangeListener listener) {
+            try {
+                listener.changed(name);
+            } catch (Exception e) {
+                logger.warn("customer change listener " + key + " failed, removed", e);
+                //also when it subscribed again meanwhile,the next subscription then gets the invalidate-all
+                listeners.remove(key);
+            }
+        }
+    }
+}
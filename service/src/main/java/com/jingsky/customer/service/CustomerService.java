@@ -4,19 +4,245 @@ import com.jingsky.customer.dao.CustomerDao;
 import com.jingsky.customer.entity.Customer;
 import com.jingsky.customer.iservice.ICustomerService;
 import com.jingsky.customer.util.base.BaseService;
+import com.jingsky.customer.util.base.ChunkResult;
 import com.jingsky.customer.util.base.MybatisDao;
+import com.jingsky.customer.util.cache.LocalCache;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+
 @Service("customerService")
 public class CustomerService extends BaseService<Customer, Long> implements ICustomerService {
-    
+
     @Autowired
 	private CustomerDao customerDao;
 
+	/**
+	 * declared in spring-provider.xml, absent when the service runs without dubbo
+	 */
+	@Autowired(required = false)
+	private CustomerChangeNotifier changeNotifier;
+
+	@Autowired
+	private SqlSessionFactory sqlSessionFactory;
+
+	@Value("${customer.batch.chunkSize:1000}")
+	private int batchChunkSize;
+
+	@Value("${customer.cache.enabled:true}")
+	private boolean cacheEnabled;
+
+	@Value("${customer.cache.maxSize:10000}")
+	private int cacheMaxSize;
+
+	@Value("${customer.cache.ttlSeconds:300}")
+	private long cacheTtlSeconds;
+
+	/**
+	 * read-through cache of customer rows keyed by name, null when disabled
+	 */
+	private LocalCache<String, Customer> cache;
+
+	@PostConstruct
+	public void initCache() {
+		if (cacheEnabled) {
+			cache = new LocalCache<String, Customer>("customer", cacheMaxSize, cacheTtlSeconds * 1000).registerMBean();
+		}
+	}
+
 	@Override
 	public MybatisDao<Customer, Long> getEntityDao() {
 		return customerDao;
 	}
-    
-}
\ No newline at end of file
+
+	@Override
+	protected SqlSessionFactory getSqlSessionFactory() {
+		return sqlSessionFactory;
+	}
+
+	@Override
+	protected Class<CustomerDao> getEntityDaoClass() {
+		return CustomerDao.class;
+	}
+
+	@Override
+	protected int getBatchChunkSize() {
+		return batchChunkSize;
+	}
+
+	/**
+	 * findAfter/findByEntityAfter seek and order by name
+	 */
+	@Override
+	protected String getSeekKey(Customer entity) {
+		return entity.getName();
+	}
+
+	/**
+	 * the get statement matches the primary key against the name column, so it shares the name keyed cache
+	 */
+	@Override
+	public Customer get(final Long id) {
+		if (cache == null || id == null) {
+			return super.get(id);
+		}
+		String key = String.valueOf(id);
+		//taken before the read, an update committed meanwhile keeps the row it read out of the cache
+		long stamp = cache.stamp(key);
+		Customer customer = cache.get(key);
+		if (customer == null) {
+			customer = super.get(id);
+			cache.put(key, customer, stamp);
+		}
+		return customer == null ? null : customer.copy();
+	}
+
+	/**
+	 * findByEntity only filters by name, so lookups carrying a name are served from the cache
+	 */
+	@Override
+	public Customer findOne(final Customer entity) {
+		if (cache == null || entity.getName() == null) {
+			return super.findOne(entity);
+		}
+		long stamp = cache.stamp(entity.getName());
+		Customer customer = cache.get(entity.getName());
+		if (customer == null) {
+			customer = super.findOne(entity);
+			cache.put(entity.getName(), customer, stamp);
+		}
+		return customer == null ? null : customer.copy();
+	}
+
+	@Override
+	public int insert(final Customer entity) {
+		try {
+			return super.insert(entity);
+		} finally {
+			invalidate(entity);
+		}
+	}
+
+	@Override
+	public int insertBatch(final List<Customer> list) {
+		try {
+			return super.insertBatch(list);
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	@Override
+	public List<ChunkResult> insertBatch(final List<Customer> list, int chunkSize) {
+		try {
+			return super.insertBatch(list, chunkSize);
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	@Override
+	public List<ChunkResult> updateBatch(final List<Customer> list) {
+		try {
+			return super.updateBatch(list);
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	@Override
+	public List<ChunkResult> upsertBatch(final List<Customer> list) {
+		try {
+			return super.upsertBatch(list);
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	@Override
+	public int update(final Map<String, Object> params) {
+		try {
+			return super.update(params);
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	@Override
+	public int remove(final Map<String, Object> params) {
+		try {
+			return super.remove(params);
+		} finally {
+			invalidateAll();
+		}
+	}
+
+	@Override
+	public int updateByEntity(final Customer entity) {
+		try {
+			return super.updateByEntity(entity);
+		} finally {
+			invalidate(entity);
+		}
+	}
+
+	@Override
+	public int removeByEntity(final Customer entity) {
+		try {
+			return super.removeByEntity(entity);
+		} finally {
+			invalidate(entity);
+		}
+	}
+
+	/**
+	 * drop the local entry and tell subscribed consumers, a missing name may touch any row
+	 */
+	private void invalidate(Customer entity) {
+		String name = entity.getName();
+		if (name == null) {
+			invalidateAll();
+			return;
+		}
+		if (cache != null) {
+			cache.invalidate(name);
+		}
+		if (changeNotifier != null) {
+			changeNotifier.publish(name);
+		}
+	}
+
+	private void invalidateAll() {
+		if (cache != null) {
+			cache.invalidateAll();
+		}
+		if (changeNotifier != null) {
+			changeNotifier.publish(null);
+		}
+	}
+
+	/**
+	 * drop the local entry only, for changes another provider made and publishes itself
+	 * @param name null drops every entry
+	 */
+	void evict(String name) {
+		if (cache == null) {
+			return;
+		}
+		if (name == null) {
+			cache.invalidateAll();
+		} else {
+			cache.invalidate(name);
+		}
+	}
+
+	public LocalCache<String, Customer> getCache() {
+		return cache;
+	}
+
+}
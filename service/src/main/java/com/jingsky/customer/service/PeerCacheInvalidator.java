@@ -0,0 +1,129 @@
+package com.jingsky.customer.service;
+
+import com.alibaba.dubbo.config.ApplicationConfig;
+import com.alibaba.dubbo.config.ReferenceConfig;
+import com.jingsky.customer.iservice.CustomerChangeListener;
+import com.jingsky.customer.iservice.ICustomerChangeNotifier;
+import com.jingsky.customer.util.base.NamedThreadFactory;
+import org.apache.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps this provider's customer cache in step with the other providers of customerService:
+ * subscribes to their {@link ICustomerChangeNotifier} and drops the rows they change.
+ * Without it a row read here(a call without a name,a failover read,a read taken over from an ejected provider)
+ * stays cached after another provider changed it.<br/>
+ * The subscription is repeated every resubscribeSeconds like the web's near cache does,a peer that did not have it
+ * (restarted,dropped it after a failed callback,unreachable at startup) answers with an invalidate-all.
+ * Does nothing without peers or without a cache.
+ */
+public class PeerCacheInvalidator {
+
+    private static final Logger logger = Logger.getLogger(PeerCacheInvalidator.class);
+
+    private CustomerService customerService;
+    private String applicationName;
+    private String peers;
+    private long resubscribeSeconds = 5;
+
+    private final String subscribeKey = UUID.randomUUID().toString();
+    /**
+     * one instance for every subscription,dubbo exports a callback per listener instance
+     */
+    private final CustomerChangeListener listener = new CustomerChangeListener() {
+        @Override
+        public void changed(String name) {
+            customerService.evict(name);
+        }
+    };
+    private ReferenceConfig<ICustomerChangeNotifier> reference;
+    private ICustomerChangeNotifier notifier;
+    private volatile boolean subscribed = true;
+    private ScheduledExecutorService resubscriber;
+
+    public void init() {
+        if (peers == null || peers.trim().isEmpty() || customerService.getCache() == null) {
+            return;
+        }
+        //broadcast:subscribe to every peer,each one publishes the changes it makes
+        reference = new ReferenceConfig<ICustomerChangeNotifier>();
+        reference.setApplication(new ApplicationConfig(applicationName));
+        reference.setInterface(ICustomerChangeNotifier.class);
+        reference.setUrl(peers.trim());
+        reference.setCluster("broadcast");
+        reference.setCheck(false);
+        reference.setLazy(true);
+        Map<String, String> parameters = new HashMap<String, String>();
+        //direct url gets no provider parameters,as in the web's spring-customer.xml
+        parameters.put("subscribe.1.callback", "true");
+        reference.setParameters(parameters);
+        notifier = reference.get();
+        subscribe();
+        resubscriber = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("peer-cache-subscribe"));
+        resubscriber.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                subscribe();
+            }
+        }, resubscribeSeconds, resubscribeSeconds, TimeUnit.SECONDS);
+        logger.info("customer cache follows the changes of " + peers);
+    }
+
+    /**
+     * idempotent,logs only when the subscription starts or stops failing
+     */
+    private void subscribe() {
+        try {
+            notifier.subscribe(subscribeKey, listener);
+            if (!subscribed) {
+                logger.info("subscribed customer change events of peers again");
+                subscribed = true;
+            }
+        } catch (Exception e) {
+            if (subscribed) {
+                //the peers that were reached are subscribed,the others are tried again
+                logger.warn("subscribe customer change events of peers failed, cache relies on ttl until it succeeds", e);
+                subscribed = false;
+            }
+        }
+    }
+
+    public void destroy() {
+        if (resubscriber != null) {
+            resubscriber.shutdownNow();
+        }
+        if (reference != null) {
+            try {
+                notifier.unsubscribe(subscribeKey);
+            } catch (Exception e) {
+                logger.warn("unsubscribe customer change events of peers failed", e);
+            }
+            reference.destroy();
+        }
+    }
+
+    public void setCustomerService(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    public void setApplicationName(String applicationName) {
+        this.applicationName = applicationName;
+    }
+
+    /**
+     * @param peers the other providers,';' separated dubbo urls,empty for a single provider
+     */
+    public void setPeers(String peers) {
+        this.peers = peers;
+    }
+
+    public void setResubscribeSeconds(long resubscribeSeconds) {
+        this.resubscribeSeconds = resubscribeSeconds;
+    }
+}
@@ -0,0 +1,142 @@
+package com.jingsky.customer.service.cluster;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.cluster.loadbalance.AbstractLoadBalance;
+import com.jingsky.customer.entity.Customer;
+import com.jingsky.customer.util.base.QuerySpec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Consistent hash on the customer name,selected with loadbalance="customername".
+ * Every call about one customer,reads and writes,goes to the same provider,so each provider's customer cache
+ * mostly holds its own share of the customers,and adding or removing a provider moves only that provider's share.
+ * Only mostly:get(id) and other calls without a name,failover retries and reads taken over from an ejected provider
+ * cache rows on other providers,which drop them through {@link com.jingsky.customer.service.PeerCacheInvalidator}
+ * when the owner changes them.<br/>
+ * The name is taken from the first argument:a Customer,a params map or a QuerySpec with a "name" criterion.
+ * Calls without one(batches,lists) go to {@link HealthyLeastActiveLoadBalance}.
+ * An ejected provider's names move to the next provider on the ring until it is back.
+ */
+public class CustomerNameLoadBalance extends AbstractLoadBalance {
+
+    public static final String NAME = "customername";
+
+    /**
+     * points per provider on the ring,more points spread the names more evenly
+     */
+    private static final int REPLICAS = 160;
+
+    private final ConcurrentMap<String, Ring<?>> rings = new ConcurrentHashMap<String, Ring<?>>();
+
+    private final HealthyLeastActiveLoadBalance fallback = new HealthyLeastActiveLoadBalance();
+
+    @Override
+    public <T> Invoker<T> select(List<Invoker<T>> invokers, URL url, Invocation invocation) {
+        if (invokers == null || invokers.isEmpty()) {
+            return null;
+        }
+        String name = customerName(invocation);
+        if (name == null || invokers.size() == 1) {
+            return fallback.select(invokers, url, invocation);
+        }
+        return doSelect(invokers, url, invocation);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
+        //one ring per reference,not per method:find and update of a customer must land on the same provider;
+        //references of one service(sync and async) keep their own ring instead of rebuilding a shared one in turn.
+        //url is the reference's own,its full string is cached
+        String key = url.toFullString();
+        int identity = System.identityHashCode(invokers);
+        Ring<T> ring = (Ring<T>) rings.get(key);
+        if (ring == null || ring.identity != identity) {
+            ring = new Ring<T>(invokers, identity);
+            rings.put(key, ring);
+        }
+        return ring.select(customerName(invocation));
+    }
+
+    static String customerName(Invocation invocation) {
+        Object[] arguments = invocation.getArguments();
+        if (arguments == null || arguments.length == 0) {
+            return null;
+        }
+        Object argument = arguments[0];
+        Object name = null;
+        if (argument instanceof Customer) {
+            name = ((Customer) argument).getName();
+        } else if (argument instanceof Map) {
+            name = ((Map<?, ?>) argument).get("name");
+        } else if (argument instanceof QuerySpec) {
+            name = ((QuerySpec) argument).getCriteria().get("name");
+        }
+        return name == null ? null : name.toString();
+    }
+
+    private static final class Ring<T> {
+
+        private final TreeMap<Long, Invoker<T>> points = new TreeMap<Long, Invoker<T>>();
+        private final int identity;
+
+        Ring(List<Invoker<T>> invokers, int identity) {
+            this.identity = identity;
+            for (Invoker<T> invoker : invokers) {
+                String address = invoker.getUrl().getAddress();
+                //4 points from each md5 like dubbo's consistenthash
+                for (int i = 0; i < REPLICAS / 4; i++) {
+                    byte[] digest = md5(address + "-" + i);
+                    for (int h = 0; h < 4; h++) {
+                        points.put(hash(digest, h), invoker);
+                    }
+                }
+            }
+        }
+
+        Invoker<T> select(String name) {
+            long hash = hash(md5(name), 0);
+            SortedMap<Long, Invoker<T>> tail = points.tailMap(hash);
+            Invoker<T> first = null;
+            //walk clockwise past the points of ejected providers,wrapping around once;all ejected:use the first
+            for (int round = 0; round < 2; round++) {
+                for (Invoker<T> invoker : (round == 0 ? tail : points).values()) {
+                    if (first == null) {
+                        first = invoker;
+                    }
+                    if (!ProviderHealth.get().isEjected(invoker.getUrl())) {
+                        return invoker;
+                    }
+                }
+            }
+            return first;
+        }
+
+        private static long hash(byte[] digest, int number) {
+            return (((long) (digest[3 + number * 4] & 0xFF) << 24)
+                    | ((long) (digest[2 + number * 4] & 0xFF) << 16)
+                    | ((long) (digest[1 + number * 4] & 0xFF) << 8)
+                    | (digest[number * 4] & 0xFF))
+                    & 0xFFFFFFFFL;
+        }
+
+        private static byte[] md5(String value) {
+            try {
+                return MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
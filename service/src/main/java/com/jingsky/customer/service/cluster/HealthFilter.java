@@ -0,0 +1,169 @@
+package com.jingsky.customer.service.cluster;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.remoting.RemotingException;
+import com.alibaba.dubbo.remoting.exchange.ResponseCallback;
+import com.alibaba.dubbo.remoting.exchange.ResponseFuture;
+import com.alibaba.dubbo.rpc.Filter;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.Result;
+import com.alibaba.dubbo.rpc.RpcContext;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.RpcStatus;
+import com.alibaba.dubbo.rpc.protocol.dubbo.FutureAdapter;
+import com.alibaba.dubbo.rpc.support.RpcUtils;
+import com.jingsky.customer.util.deadline.Deadline;
+import com.jingsky.customer.util.deadline.DeadlineExceededException;
+
+import java.util.concurrent.Future;
+
+/**
+ * Consumer filter(filter="health") recording the outcome of every call per provider into {@link ProviderHealth},
+ * and the calls in flight into RpcStatus for healthyleastactive,like dubbo's ActiveLimitFilter does.
+ * List it before consumerDeadline so a synchronous call is counted until its response arrives.
+ * Calls of async references are counted until their response or timeout reaches the future:the future in
+ * RpcContext is replaced by one that records the outcome first and then runs the caller's callback.
+ */
+public class HealthFilter implements Filter {
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        if (Deadline.isSet() && Deadline.remainingMillis() <= 0) {
+            //failed by consumerDeadline without being sent,the provider is not to blame
+            return invoker.invoke(invocation);
+        }
+        URL url = invoker.getUrl();
+        String method = invocation.getMethodName();
+        //before invoking:consumerDeadline turns synchronous calls into asynchronous ones it waits for itself
+        boolean async = RpcUtils.isAsync(url, invocation);
+        RpcStatus.beginCount(url, method);
+        long start = System.currentTimeMillis();
+        boolean failed = true;
+        boolean pending = false;
+        try {
+            Result result = invoker.invoke(invocation);
+            failed = result.hasException() && isProviderFailure(result.getException());
+            if (async && !result.hasException()) {
+                Future<?> future = RpcContext.getContext().getFuture();
+                if (future instanceof FutureAdapter) {
+                    HealthFuture health = new HealthFuture(((FutureAdapter<?>) future).getFuture(), url, method, start);
+                    RpcContext.getContext().setFuture(new FutureAdapter<Object>(health));
+                    pending = true;
+                }
+            }
+            return result;
+        } catch (RpcException e) {
+            failed = isProviderFailure(e);
+            throw e;
+        } finally {
+            if (!pending) {
+                record(url, method, start, failed);
+            }
+        }
+    }
+
+    private static void record(URL url, String method, long start, boolean failed) {
+        RpcStatus.endCount(url, method, System.currentTimeMillis() - start, !failed);
+        if (failed) {
+            ProviderHealth.get().failure(url);
+        } else {
+            ProviderHealth.get().success(url);
+        }
+    }
+
+    /**
+     * the provider did not answer in time or could not be reached;business exceptions say nothing about its health
+     */
+    private static boolean isProviderFailure(Throwable e) {
+        if (e instanceof RpcException) {
+            return !((RpcException) e).isBiz();
+        }
+        //RemotingException:an async future timed out or the channel failed
+        return e instanceof DeadlineExceededException || e instanceof RemotingException;
+    }
+
+    /**
+     * Takes dubbo's single response callback to record the outcome,then hands the response to the callback
+     * the caller sets,also when the caller sets it after the response arrived.
+     */
+    private static final class HealthFuture implements ResponseFuture, ResponseCallback {
+
+        private final ResponseFuture future;
+        private final URL url;
+        private final String method;
+        private final long start;
+        private ResponseCallback callback;
+        private boolean done;
+        private Object response;
+        private Throwable exception;
+
+        HealthFuture(ResponseFuture future, URL url, String method, long start) {
+            this.future = future;
+            this.url = url;
+            this.method = method;
+            this.start = start;
+            future.setCallback(this);
+        }
+
+        @Override
+        public Object get() throws RemotingException {
+            return future.get();
+        }
+
+        @Override
+        public Object get(int timeoutInMillis) throws RemotingException {
+            return future.get(timeoutInMillis);
+        }
+
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        public void setCallback(ResponseCallback callback) {
+            synchronized (this) {
+                if (!done) {
+                    this.callback = callback;
+                    return;
+                }
+            }
+            deliver(callback);
+        }
+
+        @Override
+        public void done(Object response) {
+            Result result = (Result) response;
+            record(url, method, start, result.hasException() && isProviderFailure(result.getException()));
+            complete(response, null);
+        }
+
+        @Override
+        public void caught(Throwable exception) {
+            record(url, method, start, isProviderFailure(exception));
+            complete(null, exception);
+        }
+
+        private void complete(Object response, Throwable exception) {
+            ResponseCallback callback;
+            synchronized (this) {
+                this.response = response;
+                this.exception = exception;
+                done = true;
+                callback = this.callback;
+            }
+            if (callback != null) {
+                deliver(callback);
+            }
+        }
+
+        private void deliver(ResponseCallback callback) {
+            if (exception != null) {
+                callback.caught(exception);
+            } else {
+                callback.done(response);
+            }
+        }
+    }
+}
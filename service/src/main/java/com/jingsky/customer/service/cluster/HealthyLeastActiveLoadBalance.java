@@ -0,0 +1,22 @@
+package com.jingsky.customer.service.cluster;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.cluster.loadbalance.LeastActiveLoadBalance;
+
+import java.util.List;
+
+/**
+ * dubbo's leastactive among the providers {@link ProviderHealth} has not ejected,
+ * selected with loadbalance="healthyleastactive". Needs {@link HealthFilter} for the active counts.
+ */
+public class HealthyLeastActiveLoadBalance extends LeastActiveLoadBalance {
+
+    public static final String NAME = "healthyleastactive";
+
+    @Override
+    public <T> Invoker<T> select(List<Invoker<T>> invokers, URL url, Invocation invocation) {
+        return super.select(ProviderHealth.get().healthy(invokers), url, invocation);
+    }
+}
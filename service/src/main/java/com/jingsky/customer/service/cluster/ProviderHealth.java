@@ -0,0 +1,151 @@
+package com.jingsky.customer.service.cluster;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.rpc.Invoker;
+import org.apache.log4j.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consumer side health of every provider address,fed by {@link HealthFilter} and read by the load balancers.<br/>
+ * A provider that fails ejection.failures calls in a row(connection errors and timeouts,not business exceptions)
+ * is ejected for ejection.millis. After that it gets traffic again;the first success clears it,
+ * another failure ejects it again right away.
+ * When every provider is ejected all of them are used,ejecting the last one would only turn errors into outages.<br/>
+ * Registered as com.jingsky.customer:type=DubboProviders.
+ */
+public class ProviderHealth implements ProviderHealthMBean {
+
+    private static final Logger logger = Logger.getLogger(ProviderHealth.class);
+
+    public static final String FAILURES_KEY = "ejection.failures";
+    public static final String EJECTION_MILLIS_KEY = "ejection.millis";
+    public static final int DEFAULT_FAILURES = 3;
+    public static final long DEFAULT_EJECTION_MILLIS = 30000L;
+
+    private static final ProviderHealth INSTANCE = new ProviderHealth().registerMBean();
+
+    private final ConcurrentMap<String, State> states = new ConcurrentHashMap<String, State>();
+
+    private ProviderHealth() {
+    }
+
+    public static ProviderHealth get() {
+        return INSTANCE;
+    }
+
+    void success(URL url) {
+        State state = states.get(url.getAddress());
+        if (state != null && state.failures.getAndSet(0) >= url.getParameter(FAILURES_KEY, DEFAULT_FAILURES)) {
+            logger.info("provider " + url.getAddress() + " recovered");
+        }
+    }
+
+    void failure(URL url) {
+        State state = state(url.getAddress());
+        int failures = state.failures.incrementAndGet();
+        if (failures >= url.getParameter(FAILURES_KEY, DEFAULT_FAILURES) && !state.isEjected()) {
+            long millis = url.getParameter(EJECTION_MILLIS_KEY, DEFAULT_EJECTION_MILLIS);
+            state.ejectedUntil.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+            state.ejections.incrementAndGet();
+            logger.warn("provider " + url.getAddress() + " ejected for " + millis + "ms after " + failures + " failures in a row");
+        }
+    }
+
+    public boolean isEjected(URL url) {
+        State state = states.get(url.getAddress());
+        return state != null && state.isEjected();
+    }
+
+    /**
+     * the invokers whose provider is not ejected,all of them when every one is
+     */
+    public <T> List<Invoker<T>> healthy(List<Invoker<T>> invokers) {
+        if (states.isEmpty()) {
+            return invokers;
+        }
+        List<Invoker<T>> healthy = null;
+        for (int i = 0; i < invokers.size(); i++) {
+            Invoker<T> invoker = invokers.get(i);
+            if (isEjected(invoker.getUrl())) {
+                if (healthy == null) {
+                    healthy = new ArrayList<Invoker<T>>(invokers.subList(0, i));
+                }
+            } else if (healthy != null) {
+                healthy.add(invoker);
+            }
+        }
+        return healthy == null || healthy.isEmpty() ? invokers : healthy;
+    }
+
+    private State state(String address) {
+        State state = states.get(address);
+        if (state == null) {
+            State created = new State();
+            state = states.putIfAbsent(address, created);
+            if (state == null) {
+                state = created;
+            }
+        }
+        return state;
+    }
+
+    private ProviderHealth registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName("com.jingsky.customer:type=DubboProviders");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("register provider health mbean failed", e);
+        }
+        return this;
+    }
+
+    @Override
+    public String[] getProviders() {
+        List<String> lines = new ArrayList<String>(states.size());
+        for (Map.Entry<String, State> entry : states.entrySet()) {
+            State state = entry.getValue();
+            lines.add(entry.getKey() + " failures=" + state.failures.get() + " ejected=" + state.isEjected()
+                    + " ejections=" + state.ejections.get());
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    @Override
+    public int getEjectedCount() {
+        int ejected = 0;
+        for (State state : states.values()) {
+            if (state.isEjected()) {
+                ejected++;
+            }
+        }
+        return ejected;
+    }
+
+    @Override
+    public void reset() {
+        states.clear();
+    }
+
+    private static final class State {
+
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicLong ejectedUntil = new AtomicLong(System.nanoTime());
+        private final AtomicInteger ejections = new AtomicInteger();
+
+        boolean isEjected() {
+            return ejectedUntil.get() - System.nanoTime() > 0;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.jingsky.customer.service.cluster;
+
+/**
+ * JMX view of {@link ProviderHealth}
+ */
+public interface ProviderHealthMBean {
+
+    /**
+     * one line per provider address:host:port failures= ejected= ejections=
+     */
+    String[] getProviders();
+
+    int getEjectedCount();
+
+    /**
+     * take every provider back at once,e.g. after a deploy
+     */
+    void reset();
+}
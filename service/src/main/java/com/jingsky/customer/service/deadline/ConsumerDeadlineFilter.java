@@ -0,0 +1,86 @@
+package com.jingsky.customer.service.deadline;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.remoting.RemotingException;
+import com.alibaba.dubbo.remoting.TimeoutException;
+import com.alibaba.dubbo.remoting.exchange.ResponseFuture;
+import com.alibaba.dubbo.rpc.Filter;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.Result;
+import com.alibaba.dubbo.rpc.RpcContext;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.RpcInvocation;
+import com.alibaba.dubbo.rpc.RpcResult;
+import com.alibaba.dubbo.rpc.protocol.dubbo.FutureAdapter;
+import com.alibaba.dubbo.rpc.support.RpcUtils;
+import com.jingsky.customer.util.deadline.Deadline;
+import com.jingsky.customer.util.deadline.DeadlineExceededException;
+
+import java.util.concurrent.Future;
+
+/**
+ * Consumer side of deadline propagation,selected with filter="consumerDeadline" on dubbo:consumer.
+ * When the calling thread has a {@link Deadline} the remaining time goes to the provider as an attachment,
+ * a call with no time left is not sent at all,and a synchronous call waits for at most the remaining time
+ * instead of the reference's timeout:dubbo 2.5.3 has no per call timeout,so the call is sent asynchronously
+ * and its future is waited on here.<br/>
+ * Timeouts on either side surface as {@link DeadlineExceededException}.
+ */
+public class ConsumerDeadlineFilter implements Filter {
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        if (!Deadline.isSet()) {
+            return invoker.invoke(invocation);
+        }
+        String method = invoker.getInterface().getSimpleName() + "." + invocation.getMethodName();
+        long remaining = Deadline.remainingMillis();
+        if (remaining <= 0) {
+            return new RpcResult(new DeadlineExceededException("deadline exceeded before calling " + method));
+        }
+        RpcInvocation rpcInvocation = (RpcInvocation) invocation;
+        rpcInvocation.setAttachment(Deadline.ATTACHMENT_KEY, String.valueOf(remaining));
+        if (RpcUtils.isAsync(invoker.getUrl(), invocation)) {
+            //the caller waits on the future itself,see translate
+            return invoker.invoke(invocation);
+        }
+
+        rpcInvocation.setAttachment(Constants.ASYNC_KEY, Boolean.TRUE.toString());
+        Result sent = invoker.invoke(invocation);
+        Future<?> future = RpcContext.getContext().getFuture();
+        RpcContext.getContext().setFuture(null);
+        if (sent.hasException() || !(future instanceof FutureAdapter)) {
+            return translate(sent, method);
+        }
+        ResponseFuture responseFuture = ((FutureAdapter<?>) future).getFuture();
+        try {
+            return translate((Result) responseFuture.get((int) Math.min(remaining, Integer.MAX_VALUE)), method);
+        } catch (TimeoutException e) {
+            return new RpcResult(new DeadlineExceededException("no response from " + method + " within " + remaining + "ms"));
+        } catch (RemotingException e) {
+            throw new RpcException(RpcException.NETWORK_EXCEPTION, "Failed to invoke " + method + ", cause: " + e.getMessage(), e);
+        }
+    }
+
+    private static Result translate(Result result, String method) {
+        if (result.hasException()) {
+            Throwable translated = translate(result.getException());
+            if (translated != result.getException()) {
+                return new RpcResult(translated);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * the provider reports an exceeded deadline as a timeout RpcException(see {@link ProviderDeadlineFilter}),
+     * mapped back to DeadlineExceededException here;also for failures of async references' futures
+     */
+    public static Throwable translate(Throwable e) {
+        if (e instanceof RpcException && ((RpcException) e).isTimeout() || e instanceof TimeoutException) {
+            return new DeadlineExceededException(e.getMessage());
+        }
+        return e;
+    }
+}
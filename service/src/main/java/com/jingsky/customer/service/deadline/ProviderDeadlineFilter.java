@@ -0,0 +1,62 @@
+package com.jingsky.customer.service.deadline;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.rpc.Filter;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.Result;
+import com.alibaba.dubbo.rpc.RpcContext;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.RpcResult;
+import com.jingsky.customer.util.deadline.Deadline;
+import com.jingsky.customer.util.deadline.DeadlineExceededException;
+import org.apache.log4j.Logger;
+
+/**
+ * Provider side of deadline propagation,selected with filter="deadline" on dubbo:provider.
+ * Starts a {@link Deadline} from the consumer's remaining time,or from the provider's timeout for callers
+ * that send none,so BaseService and the mybatis StatementTimeoutInterceptor see it.
+ * Time spent in the thread pool queue is not known here and not subtracted.<br/>
+ * A failure caused by the deadline is answered as a timeout RpcException:dubbo's ExceptionFilter would turn
+ * DeadlineExceededException into a plain RuntimeException,ConsumerDeadlineFilter maps it back.
+ */
+public class ProviderDeadlineFilter implements Filter {
+
+    private static final Logger logger = Logger.getLogger(ProviderDeadlineFilter.class);
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        //set by ConsumerDeadlineFilter for its own wait,it must not make this thread's nested calls async
+        RpcContext.getContext().getAttachments().remove(Constants.ASYNC_KEY);
+        String method = invoker.getInterface().getSimpleName() + "." + invocation.getMethodName();
+        long budget = budget(invoker, invocation);
+        if (budget <= 0) {
+            return invoker.invoke(invocation);
+        }
+        Deadline.start(budget);
+        try {
+            Result result = invoker.invoke(invocation);
+            if (result.hasException() && DeadlineExceededException.isCausedBy(result.getException())) {
+                logger.warn(method + " exceeded its deadline of " + budget + "ms: " + result.getException());
+                return new RpcResult(new RpcException(RpcException.TIMEOUT_EXCEPTION,
+                        "deadline of " + budget + "ms exceeded in " + method));
+            }
+            return result;
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    private static long budget(Invoker<?> invoker, Invocation invocation) {
+        String remaining = invocation.getAttachment(Deadline.ATTACHMENT_KEY);
+        if (remaining != null) {
+            try {
+                //a consumer that ran out before sending does not call at all,so at least 1ms is left here
+                return Math.max(1, Long.parseLong(remaining));
+            } catch (NumberFormatException e) {
+                logger.warn("ignore malformed " + Deadline.ATTACHMENT_KEY + " attachment:" + remaining);
+            }
+        }
+        return invoker.getUrl().getMethodParameter(invocation.getMethodName(), Constants.TIMEOUT_KEY, 0);
+    }
+}
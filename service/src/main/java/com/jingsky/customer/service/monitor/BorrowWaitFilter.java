@@ -0,0 +1,32 @@
+package com.jingsky.customer.service.monitor;
+
+import com.alibaba.druid.filter.FilterAdapter;
+import com.alibaba.druid.filter.FilterChain;
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.pool.DruidPooledConnection;
+import com.jingsky.customer.util.metrics.Histogram;
+import com.jingsky.customer.util.metrics.Metrics;
+
+import java.sql.SQLException;
+
+/**
+ * Druid filter timing every getConnection,i.e. how long a caller waits for a free connection,
+ * as druid_pool_borrow_wait_seconds per dataSource name. Added to the dataSource's proxyFilters.
+ */
+public class BorrowWaitFilter extends FilterAdapter {
+
+    private static final Histogram BORROW_WAIT = Metrics.get().register(new Histogram("druid_pool_borrow_wait_seconds",
+            "Time to borrow a connection,failed borrows included", "pool",
+            new double[]{0.0001, 0.0005, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5, 10, 30, 60}));
+
+    @Override
+    public DruidPooledConnection dataSource_getConnection(FilterChain chain, DruidDataSource dataSource, long maxWaitMillis)
+            throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return chain.dataSource_connect(dataSource, maxWaitMillis);
+        } finally {
+            BORROW_WAIT.labels(dataSource.getName()).observeNanos(System.nanoTime() - start);
+        }
+    }
+}
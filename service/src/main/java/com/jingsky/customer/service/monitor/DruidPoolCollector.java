@@ -0,0 +1,67 @@
+package com.jingsky.customer.service.monitor;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.jingsky.customer.util.metrics.Collector;
+import com.jingsky.customer.util.metrics.MetricWriter;
+import com.jingsky.customer.util.metrics.Metrics;
+
+/**
+ * Pool size,borrows and the prepared statement cache of a druid dataSource,read at scrape time.
+ * Labelled with the dataSource name;the time a borrow waits is measured by {@link BorrowWaitFilter}.
+ */
+public class DruidPoolCollector implements Collector {
+
+    private final DruidDataSource dataSource;
+
+    public DruidPoolCollector(DruidDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void register() {
+        Metrics.get().register(this);
+    }
+
+    public void unregister() {
+        Metrics.get().unregister(this);
+    }
+
+    @Override
+    public void collect(MetricWriter writer) {
+        String pool = dataSource.getName();
+        gauge(writer, "druid_pool_active_connections", "Connections borrowed and not returned yet", pool,
+                dataSource.getActiveCount());
+        gauge(writer, "druid_pool_active_connections_peak", "Most connections borrowed at once", pool,
+                dataSource.getActivePeak());
+        gauge(writer, "druid_pool_idle_connections", "Connections in the pool ready to borrow", pool,
+                dataSource.getPoolingCount());
+        gauge(writer, "druid_pool_max_active", "maxActive of the pool", pool, dataSource.getMaxActive());
+        gauge(writer, "druid_pool_waiting_threads", "Threads waiting for a connection", pool,
+                dataSource.getNotEmptyWaitThreadCount());
+
+        counter(writer, "druid_pool_borrows_total", "Connections borrowed", pool, dataSource.getConnectCount());
+        counter(writer, "druid_pool_borrow_waits_total", "Borrows that found the pool empty and waited", pool,
+                dataSource.getNotEmptyWaitCount());
+        counter(writer, "druid_pool_borrow_errors_total", "Borrows that failed,mostly maxWait running out", pool,
+                dataSource.getConnectErrorCount());
+        counter(writer, "druid_pool_physical_connects_total", "Connections opened to the database", pool,
+                dataSource.getCreateCount());
+
+        long hits = dataSource.getCachedPreparedStatementHitCount();
+        long misses = dataSource.getCachedPreparedStatementMissCount();
+        counter(writer, "druid_pool_ps_cache_hits_total", "Prepared statements reused from the connection cache", pool, hits);
+        counter(writer, "druid_pool_ps_cache_misses_total", "Prepared statements not found in the connection cache", pool,
+                misses);
+        gauge(writer, "druid_pool_ps_cache_hit_ratio", "Hits of all prepared statement cache lookups so far", pool,
+                hits + misses == 0 ? Double.NaN : (double) hits / (hits + misses));
+        gauge(writer, "druid_pool_ps_cache_size", "Prepared statements cached over all connections", pool,
+                dataSource.getCachedPreparedStatementCount());
+    }
+
+    private static void gauge(MetricWriter writer, String name, String help, String pool, double value) {
+        writer.family(name, help, "gauge").sample(name, value, "pool", pool);
+    }
+
+    private static void counter(MetricWriter writer, String name, String help, String pool, double value) {
+        writer.family(name, help, "counter").sample(name, value, "pool", pool);
+    }
+}
@@ -0,0 +1,29 @@
+package com.jingsky.customer.service.monitor;
+
+import com.alibaba.dubbo.rpc.Filter;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.Result;
+import com.alibaba.dubbo.rpc.RpcException;
+
+/**
+ * Records every provider call into {@link MethodStats},selected with filter="latency" on dubbo:provider.
+ * The time is spent on the provider thread,waiting in the thread pool queue is not included.
+ */
+public class LatencyFilter implements Filter {
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        MethodStats.Stat stat = MethodStats.get().stat(invoker.getInterface().getSimpleName() + "." + invocation.getMethodName());
+        stat.begin();
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            Result result = invoker.invoke(invocation);
+            error = result.hasException();
+            return result;
+        } finally {
+            stat.end(System.nanoTime() - start, error);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.jingsky.customer.service.monitor;
+
+import org.apache.log4j.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calls,errors,calls in flight and latency of every provider method,keyed by Interface.method.
+ * One instance per JVM registered as com.jingsky.customer:type=DubboMethods.
+ */
+public class MethodStats implements MethodStatsMBean {
+
+    private static final Logger logger = Logger.getLogger(MethodStats.class);
+
+    private static final MethodStats INSTANCE = new MethodStats().registerMBean();
+
+    private final ConcurrentMap<String, Stat> stats = new ConcurrentHashMap<String, Stat>();
+
+    private MethodStats() {
+    }
+
+    public static MethodStats get() {
+        return INSTANCE;
+    }
+
+    Stat stat(String method) {
+        Stat stat = stats.get(method);
+        if (stat == null) {
+            Stat created = new Stat();
+            stat = stats.putIfAbsent(method, created);
+            if (stat == null) {
+                stat = created;
+            }
+        }
+        return stat;
+    }
+
+    private MethodStats registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName("com.jingsky.customer:type=DubboMethods");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            }
+        } catch (Exception e) {
+            logger.warn("register method stats mbean failed", e);
+        }
+        return this;
+    }
+
+    @Override
+    public String[] getMethods() {
+        List<String> lines = new ArrayList<String>(stats.size());
+        for (Map.Entry<String, Stat> entry : stats.entrySet()) {
+            lines.add(entry.getKey() + " " + entry.getValue());
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    @Override
+    public long getTotalCount() {
+        long total = 0;
+        for (Stat stat : stats.values()) {
+            total += stat.count.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getInFlight() {
+        long inFlight = 0;
+        for (Stat stat : stats.values()) {
+            inFlight += stat.inFlight.sum();
+        }
+        return inFlight;
+    }
+
+    @Override
+    public void reset() {
+        stats.clear();
+    }
+
+    static final class Stat {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder inFlight = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void begin() {
+            inFlight.increment();
+        }
+
+        void end(long nanos, boolean error) {
+            inFlight.decrement();
+            count.increment();
+            if (error) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        @Override
+        public String toString() {
+            long n = count.sum();
+            return "count=" + n + " errors=" + errors.sum() + " inFlight=" + inFlight.sum() + " avgMs="
+                    + String.format("%.3f", n == 0 ? 0d : totalNanos.sum() / 1e6 / n) + " maxMs="
+                    + String.format("%.3f", maxNanos.get() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.jingsky.customer.service.monitor;
+
+/**
+ * JMX view of the per method latency recorded by {@link LatencyFilter}
+ */
+public interface MethodStatsMBean {
+
+    /**
+     * one line per method:Interface.method count= errors= inFlight= avgMs= maxMs=
+     */
+    String[] getMethods();
+
+    long getTotalCount();
+
+    long getInFlight();
+
+    void reset();
+}
@@ -0,0 +1,47 @@
+package com.jingsky.customer.service.monitor;
+
+import com.alibaba.dubbo.common.Constants;
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.threadpool.ThreadPool;
+import com.alibaba.dubbo.common.threadpool.support.AbortPolicyWithReport;
+import com.alibaba.dubbo.common.utils.NamedThreadFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * dubbo's fixed thread pool(threadpool="fixed") that also counts rejected calls and exposes its
+ * saturation over JMX, see {@link ThreadPoolStats}. Selected with threadpool="monitored" on the protocol,
+ * threads and queues mean the same as for fixed:queues=0 hands calls straight to an idle thread,
+ * a negative value queues without bound.<br/>
+ * dubbo 2.5.3 does not answer a rejected call,the consumer waits for its timeout,so keep threads+queues
+ * above the expected burst and the consumer timeout short.
+ */
+public class MonitoredThreadPool implements ThreadPool {
+
+    @Override
+    public Executor getExecutor(URL url) {
+        String name = url.getParameter(Constants.THREAD_NAME_KEY, Constants.DEFAULT_THREAD_NAME);
+        int threads = url.getParameter(Constants.THREADS_KEY, Constants.DEFAULT_THREADS);
+        int queues = url.getParameter(Constants.QUEUES_KEY, Constants.DEFAULT_QUEUES);
+        BlockingQueue<Runnable> queue = queues == 0 ? new SynchronousQueue<Runnable>()
+                : queues < 0 ? new LinkedBlockingQueue<Runnable>() : new LinkedBlockingQueue<Runnable>(queues);
+
+        final ThreadPoolStats stats = new ThreadPoolStats(name);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue,
+                new NamedThreadFactory(name, true), new AbortPolicyWithReport(name, url) {
+                    @Override
+                    public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+                        stats.rejected();
+                        super.rejectedExecution(r, e);
+                    }
+                });
+        stats.bind(executor);
+        stats.registerMBean();
+        return executor;
+    }
+}
@@ -0,0 +1,97 @@
+package com.jingsky.customer.service.monitor;
+
+import org.apache.log4j.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Saturation of one provider thread pool: busy threads, queued calls and calls rejected because both were full.
+ * Registered as com.jingsky.customer:type=DubboThreadPool,name=&lt;thread name&gt;.
+ */
+public class ThreadPoolStats implements ThreadPoolStatsMBean {
+
+    private static final Logger logger = Logger.getLogger(ThreadPoolStats.class);
+
+    private final String name;
+    private final LongAdder rejectedCount = new LongAdder();
+    private volatile ThreadPoolExecutor executor;
+
+    ThreadPoolStats(String name) {
+        this.name = name;
+    }
+
+    void bind(ThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    void rejected() {
+        rejectedCount.increment();
+    }
+
+    ThreadPoolStats registerMBean() {
+        try {
+            ObjectName objectName = new ObjectName("com.jingsky.customer:type=DubboThreadPool,name=" + ObjectName.quote(name));
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            }
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (Exception e) {
+            logger.warn("register thread pool mbean " + name + " failed", e);
+        }
+        return this;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    @Override
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    @Override
+    public int getLargestPoolSize() {
+        return executor.getLargestPoolSize();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public int getQueueRemainingCapacity() {
+        return executor.getQueue().remainingCapacity();
+    }
+
+    @Override
+    public long getCompletedTaskCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name + "[active=" + getActiveCount() + ",pool=" + getPoolSize() + "/" + getMaxPoolSize() + ",queue="
+                + getQueueSize() + ",rejected=" + getRejectedCount() + "]";
+    }
+}
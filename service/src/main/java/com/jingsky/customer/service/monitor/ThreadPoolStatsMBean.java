@@ -0,0 +1,25 @@
+package com.jingsky.customer.service.monitor;
+
+/**
+ * JMX view of a provider thread pool created by {@link MonitoredThreadPool}
+ */
+public interface ThreadPoolStatsMBean {
+
+    String getName();
+
+    int getMaxPoolSize();
+
+    int getPoolSize();
+
+    int getLargestPoolSize();
+
+    int getActiveCount();
+
+    int getQueueSize();
+
+    int getQueueRemainingCapacity();
+
+    long getCompletedTaskCount();
+
+    long getRejectedCount();
+}
@@ -0,0 +1,118 @@
+package com.jingsky.customer.service.serialize;
+
+import com.alibaba.dubbo.rpc.RpcException;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.jingsky.customer.entity.Customer;
+import com.jingsky.customer.util.base.BaseEntity;
+import com.jingsky.customer.util.base.ChunkResult;
+import com.jingsky.customer.util.base.Page;
+import com.jingsky.customer.util.base.QuerySpec;
+import com.jingsky.customer.util.deadline.DeadlineExceededException;
+import com.jingsky.customer.util.util.ResultMessage;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.TreeMap;
+
+/**
+ * One configured kryo per thread, kryo instances are not thread safe.<br/>
+ * Classes that cross dubbo are registered with fixed ids so they are written as a small varint instead of
+ * their name. Both sides must agree on the ids: append new classes with a new id, never renumber or reuse one.
+ * Registration is required,so a peer can only make us create the classes below: every type crossing
+ * ICustomerService and ICustomerChangeNotifier has to be added here,an unregistered one fails the call.
+ * Exceptions go through {@link ThrowableSerializer} rather than java serialization.
+ */
+public final class KryoFactory {
+
+    private static final int MAX_DEPTH = 32;
+
+    private static final ThreadLocal<Kryo> KRYO = new ThreadLocal<Kryo>() {
+        @Override
+        protected Kryo initialValue() {
+            return create();
+        }
+    };
+
+    private KryoFactory() {
+    }
+
+    public static Kryo get() {
+        return KRYO.get();
+    }
+
+    static Kryo create() {
+        Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(true);
+        //entities,pages,params and exception chains are trees
+        kryo.setReferences(false);
+        //bounds what a peer can nest,also ends a cause loop
+        kryo.setMaxDepth(MAX_DEPTH);
+        //no-arg constructor when there is one,otherwise objenesis,e.g. for Arrays.asList
+        kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+
+        //jdk types used in params,attachments and results;kryo takes ids below 20 for primitives and String
+        kryo.register(HashMap.class, 20);
+        kryo.register(LinkedHashMap.class, 21);
+        kryo.register(TreeMap.class, 22);
+        kryo.register(ArrayList.class, 23);
+        kryo.register(LinkedList.class, 24);
+        kryo.register(HashSet.class, 25);
+        kryo.register(Date.class, 26);
+        kryo.register(BigDecimal.class, 27);
+        kryo.register(Object[].class, 28);
+        kryo.register(String[].class, 29);
+        kryo.register(Collections.emptyList().getClass(), 30);
+        kryo.register(Collections.emptyMap().getClass(), 31);
+        kryo.register(Collections.singletonList(null).getClass(), 32);
+        kryo.register(Arrays.asList().getClass(), 33);
+        kryo.register(java.sql.Date.class, 34);
+        kryo.register(java.sql.Timestamp.class, 35);
+
+        //util
+        kryo.register(Page.class, 40);
+        kryo.register(QuerySpec.class, 41);
+        kryo.register(ChunkResult.class, 42);
+        kryo.register(ResultMessage.class, 43);
+        kryo.register(queryStateClass(), 44);
+
+        //BaseEntity subclasses
+        kryo.register(Customer.class, 60);
+
+        //exceptions a provider returns:dubbo's ExceptionFilter passes jdk ones and RpcException through and
+        //wraps the rest in RuntimeException
+        ThrowableSerializer throwables = new ThrowableSerializer();
+        kryo.register(Exception.class, throwables, 80);
+        kryo.register(RuntimeException.class, throwables, 81);
+        kryo.register(IllegalArgumentException.class, throwables, 82);
+        kryo.register(IllegalStateException.class, throwables, 83);
+        kryo.register(NullPointerException.class, throwables, 84);
+        kryo.register(UnsupportedOperationException.class, throwables, 85);
+        kryo.register(IndexOutOfBoundsException.class, throwables, 86);
+        kryo.register(ArithmeticException.class, throwables, 87);
+        kryo.register(ClassCastException.class, throwables, 88);
+        kryo.register(NumberFormatException.class, throwables, 89);
+        kryo.register(RpcException.class, throwables, 90);
+        kryo.register(DeadlineExceededException.class, throwables, 91);
+        return kryo;
+    }
+
+    /**
+     * the paging holder inside BaseEntity,private to it
+     */
+    private static Class<?> queryStateClass() {
+        try {
+            return Class.forName(BaseEntity.class.getName() + "$QueryState");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
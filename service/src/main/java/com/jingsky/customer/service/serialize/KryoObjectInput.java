@@ -0,0 +1,131 @@
+package com.jingsky.customer.service.serialize;
+
+import com.alibaba.dubbo.common.serialize.ObjectInput;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Reads one dubbo message written by {@link KryoObjectOutput}. Dubbo hands over a stream limited to the
+ * message body, so reading ahead into the buffer is safe.<br/>
+ * Objects are only created for the classes registered in {@link KryoFactory},any other class id or name fails.
+ */
+public class KryoObjectInput implements ObjectInput {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private final Kryo kryo;
+    private final Input input;
+
+    public KryoObjectInput(InputStream inputStream) {
+        this.kryo = KryoFactory.get();
+        this.input = new Input(inputStream, BUFFER_SIZE);
+    }
+
+    @Override
+    public boolean readBool() throws IOException {
+        try {
+            return input.readBoolean();
+        } catch (KryoException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        try {
+            return input.readByte();
+        } catch (KryoException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        try {
+            return input.readShort();
+        } catch (KryoException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        try {
+            return input.readInt();
+        } catch (KryoException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        try {
+            return input.readLong();
+        } catch (KryoException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        try {
+            return input.readFloat();
+        } catch (KryoException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        try {
+            return input.readDouble();
+        } catch (KryoException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        try {
+            return input.readString();
+        } catch (KryoException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public byte[] readBytes() throws IOException {
+        try {
+            int length = input.readInt();
+            return length < 0 ? null : input.readBytes(length);
+        } catch (KryoException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Object readObject() throws IOException, ClassNotFoundException {
+        try {
+            return kryo.readClassAndObject(input);
+        } catch (KryoException | IllegalArgumentException e) {
+            //IllegalArgumentException for a class that is not registered
+            throw new IOException("kryo can not read object", e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T readObject(Class<T> cls) throws IOException, ClassNotFoundException {
+        return (T) readObject();
+    }
+
+    @Override
+    public <T> T readObject(Class<T> cls, Type type) throws IOException, ClassNotFoundException {
+        return readObject(cls);
+    }
+}
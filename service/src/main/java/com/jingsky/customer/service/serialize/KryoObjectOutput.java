@@ -0,0 +1,100 @@
+package com.jingsky.customer.service.serialize;
+
+import com.alibaba.dubbo.common.serialize.ObjectOutput;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Output;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * One dubbo message written with the calling thread's kryo, buffered until {@link #flushBuffer()}.
+ */
+public class KryoObjectOutput implements ObjectOutput {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private final Kryo kryo;
+    private final Output output;
+
+    public KryoObjectOutput(OutputStream outputStream) {
+        this.kryo = KryoFactory.get();
+        this.output = new Output(outputStream, BUFFER_SIZE);
+    }
+
+    @Override
+    public void writeBool(boolean v) throws IOException {
+        output.writeBoolean(v);
+    }
+
+    @Override
+    public void writeByte(byte v) throws IOException {
+        output.writeByte(v);
+    }
+
+    @Override
+    public void writeShort(short v) throws IOException {
+        output.writeShort(v);
+    }
+
+    @Override
+    public void writeInt(int v) throws IOException {
+        output.writeInt(v);
+    }
+
+    @Override
+    public void writeLong(long v) throws IOException {
+        output.writeLong(v);
+    }
+
+    @Override
+    public void writeFloat(float v) throws IOException {
+        output.writeFloat(v);
+    }
+
+    @Override
+    public void writeDouble(double v) throws IOException {
+        output.writeDouble(v);
+    }
+
+    @Override
+    public void writeUTF(String v) throws IOException {
+        output.writeString(v);
+    }
+
+    @Override
+    public void writeBytes(byte[] v) throws IOException {
+        if (v == null) {
+            output.writeInt(-1);
+        } else {
+            writeBytes(v, 0, v.length);
+        }
+    }
+
+    @Override
+    public void writeBytes(byte[] v, int off, int len) throws IOException {
+        output.writeInt(len);
+        output.writeBytes(v, off, len);
+    }
+
+    @Override
+    public void writeObject(Object obj) throws IOException {
+        try {
+            //an unregistered exception would fail the whole response,send it as a RuntimeException instead
+            kryo.writeClassAndObject(output, obj instanceof Throwable ? ThrowableSerializer.registered(kryo, (Throwable) obj) : obj);
+        } catch (KryoException | IllegalArgumentException e) {
+            //IllegalArgumentException for a class that is not registered
+            throw new IOException("kryo can not write " + (obj == null ? null : obj.getClass().getName()), e);
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        try {
+            output.flush();
+        } catch (KryoException e) {
+            throw new IOException(e);
+        }
+    }
+}
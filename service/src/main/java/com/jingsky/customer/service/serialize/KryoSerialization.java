@@ -0,0 +1,44 @@
+package com.jingsky.customer.service.serialize;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.common.serialize.ObjectInput;
+import com.alibaba.dubbo.common.serialize.ObjectOutput;
+import com.alibaba.dubbo.common.serialize.Serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Kryo serialization for dubbo, selected with serialization="kryo" on the protocol(provider responses)
+ * and as a url parameter on references(consumer requests).<br/>
+ * Messages carry their content type id, so either side decodes both kryo and hessian2 and the two can
+ * be switched independently as long as this class is on both classpaths.
+ */
+public class KryoSerialization implements Serialization {
+
+    /**
+     * dubbo 2.5.3 uses 1 to 7 for its own serializations
+     */
+    public static final byte CONTENT_TYPE_ID = 8;
+
+    @Override
+    public byte getContentTypeId() {
+        return CONTENT_TYPE_ID;
+    }
+
+    @Override
+    public String getContentType() {
+        return "x-application/kryo";
+    }
+
+    @Override
+    public ObjectOutput serialize(URL url, OutputStream output) throws IOException {
+        return new KryoObjectOutput(output);
+    }
+
+    @Override
+    public ObjectInput deserialize(URL url, InputStream input) throws IOException {
+        return new KryoObjectInput(input);
+    }
+}
@@ -0,0 +1,96 @@
+package com.jingsky.customer.service.serialize;
+
+import com.alibaba.dubbo.rpc.RpcException;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Writes an exception as its message,stack trace,cause and suppressed exceptions,and reads it back through
+ * the public (String) constructor,so only the exception classes registered in {@link KryoFactory} can be
+ * created by a peer and no private jdk fields are touched.<br/>
+ * Causes and suppressed exceptions of other classes are sent as a RuntimeException with their toString
+ * as the message,the way dubbo's ExceptionFilter wraps undeclared exceptions.
+ */
+final class ThrowableSerializer extends Serializer<Throwable> {
+
+    @Override
+    public void write(Kryo kryo, Output output, Throwable throwable) {
+        output.writeString(throwable.getMessage());
+        output.writeVarInt(throwable instanceof RpcException ? ((RpcException) throwable).getCode() : 0, false);
+        StackTraceElement[] stackTrace = throwable.getStackTrace();
+        output.writeVarInt(stackTrace.length, true);
+        for (StackTraceElement element : stackTrace) {
+            output.writeString(element.getClassName());
+            output.writeString(element.getMethodName());
+            output.writeString(element.getFileName());
+            output.writeVarInt(element.getLineNumber(), false);
+        }
+        Throwable cause = throwable.getCause();
+        kryo.writeClassAndObject(output, cause == null ? null : registered(kryo, cause));
+        Throwable[] suppressed = throwable.getSuppressed();
+        output.writeVarInt(suppressed.length, true);
+        for (Throwable t : suppressed) {
+            kryo.writeClassAndObject(output, registered(kryo, t));
+        }
+    }
+
+    @Override
+    public Throwable read(Kryo kryo, Input input, Class<? extends Throwable> type) {
+        Throwable throwable = create(type, input.readString());
+        int code = input.readVarInt(false);
+        if (throwable instanceof RpcException) {
+            ((RpcException) throwable).setCode(code);
+        }
+        StackTraceElement[] stackTrace = new StackTraceElement[input.readVarInt(true)];
+        for (int i = 0; i < stackTrace.length; i++) {
+            stackTrace[i] = new StackTraceElement(input.readString(), input.readString(), input.readString(),
+                    input.readVarInt(false));
+        }
+        throwable.setStackTrace(stackTrace);
+        Throwable cause = readThrowable(kryo, input);
+        if (cause != null) {
+            throwable.initCause(cause);
+        }
+        for (int i = input.readVarInt(true); i > 0; i--) {
+            throwable.addSuppressed(readThrowable(kryo, input));
+        }
+        return throwable;
+    }
+
+    private static Throwable readThrowable(Kryo kryo, Input input) {
+        Object object = kryo.readClassAndObject(input);
+        if (object != null && !(object instanceof Throwable)) {
+            throw new KryoException("expected an exception but read " + object.getClass().getName());
+        }
+        return (Throwable) object;
+    }
+
+    /**
+     * @return the exception itself when its class is registered,otherwise a RuntimeException in its place
+     */
+    static Throwable registered(Kryo kryo, Throwable throwable) {
+        if (kryo.getClassResolver().getRegistration(throwable.getClass()) != null) {
+            return throwable;
+        }
+        RuntimeException replacement = new RuntimeException(throwable.toString());
+        replacement.setStackTrace(throwable.getStackTrace());
+        if (throwable.getCause() != null) {
+            replacement.initCause(throwable.getCause());
+        }
+        return replacement;
+    }
+
+    private static Throwable create(Class<? extends Throwable> type, String message) {
+        try {
+            Constructor<? extends Throwable> constructor = type.getConstructor(String.class);
+            return constructor.newInstance(message);
+        } catch (ReflectiveOperationException e) {
+            throw new KryoException("can not create " + type.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.jingsky.customer.service.trace;
+
+import com.alibaba.dubbo.rpc.Filter;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.Result;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.RpcInvocation;
+import com.alibaba.dubbo.rpc.support.RpcUtils;
+import com.jingsky.customer.util.trace.Span;
+import com.jingsky.customer.util.trace.Trace;
+
+/**
+ * Consumer side of request tracing,selected with filter="consumerTracing" on dubbo:consumer.
+ * Sends the calling thread's {@link Trace} id to the provider as an attachment and records an rpc-client span
+ * per provider invoked,with the provider's address,so a retry shows up as two spans.<br/>
+ * Listed before consumerDeadline the span includes the wait for the response.
+ * For async references only the id is sent,the caller records the span when the response arrives.
+ */
+public class ConsumerTraceFilter implements Filter {
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        Trace trace = Trace.current();
+        if (trace == null) {
+            return invoker.invoke(invocation);
+        }
+        ((RpcInvocation) invocation).setAttachment(Trace.ATTACHMENT_KEY, trace.getId());
+        if (RpcUtils.isAsync(invoker.getUrl(), invocation)) {
+            return invoker.invoke(invocation);
+        }
+        String error = null;
+        long start = System.nanoTime();
+        try {
+            Result result = invoker.invoke(invocation);
+            if (result.hasException()) {
+                error = result.getException().getClass().getSimpleName();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            error = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            trace.span(Span.Kind.RPC_CLIENT, invoker.getInterface().getSimpleName() + "." + invocation.getMethodName(),
+                    invoker.getUrl().getAddress(), start, System.nanoTime() - start, error);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.jingsky.customer.service.trace;
+
+import com.alibaba.dubbo.rpc.Filter;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.Result;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.jingsky.customer.util.trace.Span;
+import com.jingsky.customer.util.trace.Trace;
+
+/**
+ * Provider side of request tracing,selected with filter="tracing" on dubbo:provider.
+ * Starts a {@link Trace} with the consumer's id,or a new one for callers that send none,so the sql spans of
+ * BaseService's statements are recorded under the web request's id;the rpc-server span is the trace itself.<br/>
+ * Listed first the span covers the other provider filters,but not the time queued for a dubbo thread.
+ */
+public class ProviderTraceFilter implements Filter {
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        String id = invocation.getAttachment(Trace.ATTACHMENT_KEY);
+        Trace trace = Trace.start(Trace.isValidId(id) ? id : Trace.newId(), Span.Kind.RPC_SERVER,
+                invoker.getInterface().getSimpleName() + "." + invocation.getMethodName());
+        String error = null;
+        try {
+            Result result = invoker.invoke(invocation);
+            if (result.hasException()) {
+                error = result.getException().getClass().getSimpleName();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            error = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            trace.finish(error);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.jingsky.customer.service;
+
+import com.jingsky.customer.iservice.CustomerChangeListener;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CustomerChangeNotifierTest {
+
+    private final CustomerChangeNotifier notifier = new CustomerChangeNotifier(2);
+    private final List<String> received = new CopyOnWriteArrayList<String>();
+    private final CountDownLatch delivering = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private CustomerChangeListener listener;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        notifier.destroy();
+    }
+
+    @Test
+    public void deliversEventsInOrder() throws Exception {
+        subscribe();
+        release.countDown();
+        notifier.publish("a");
+        notifier.publish(null);
+        awaitReceived(2);
+        assertEquals(Arrays.asList("a", null), received);
+    }
+
+    @Test
+    public void repeatedSubscribeSendsNothing() throws Exception {
+        subscribe();
+        subscribe();
+        release.countDown();
+        notifier.publish("a");
+        awaitReceived(1);
+        Thread.sleep(100);
+        assertEquals(Arrays.asList("a"), received);
+    }
+
+    @Test
+    public void droppedListenerGetsInvalidateAllWhenSubscribingAgain() throws Exception {
+        CustomerChangeListener failing = new CustomerChangeListener() {
+            @Override
+            public void changed(String name) {
+                if (name != null) {
+                    throw new IllegalStateException("consumer gone");
+                }
+            }
+        };
+        notifier.subscribe("test", failing);
+        notifier.publish("a");
+        //the first subscription's invalidate-all,then the failed "a"
+        Thread.sleep(100);
+        subscribe();
+        assertTrue(subscribed.get());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void overflowReplacesQueuedEventsWithInvalidateAll() throws Exception {
+        subscribe();
+        notifier.publish("a");
+        //the delivery thread is now held in the listener,b and c fill the queue
+        assertTrue(delivering.await(5, TimeUnit.SECONDS));
+        notifier.publish("b");
+        notifier.publish("c");
+        notifier.publish("d");
+        release.countDown();
+        awaitReceived(2);
+        Thread.sleep(100);
+        assertEquals(Arrays.asList("a", null), received);
+    }
+
+    /**
+     * subscribes under "test",the invalidate-all of the first subscription sets subscribed instead of being received;
+     * deliveries of a changed name wait for release
+     */
+    private void subscribe() throws InterruptedException {
+        boolean first = listener == null;
+        if (first) {
+            listener = new CustomerChangeListener() {
+                @Override
+                public void changed(String name) {
+                    if (name == null && !subscribed.get()) {
+                        subscribed.set(true);
+                        return;
+                    }
+                    received.add(name);
+                    if (name != null) {
+                        delivering.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+            };
+        }
+        notifier.subscribe("test", listener);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (first && !subscribed.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitReceived(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (received.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.jingsky.customer.service;
+
+import com.alibaba.dubbo.config.ApplicationConfig;
+import com.alibaba.dubbo.config.ArgumentConfig;
+import com.alibaba.dubbo.config.MethodConfig;
+import com.alibaba.dubbo.config.ProtocolConfig;
+import com.alibaba.dubbo.config.RegistryConfig;
+import com.alibaba.dubbo.config.ServiceConfig;
+import com.jingsky.customer.dao.CustomerDao;
+import com.jingsky.customer.entity.Customer;
+import com.jingsky.customer.iservice.ICustomerChangeNotifier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Two providers on one database,a exports its change notifier over dubbo like spring-provider.xml,
+ * b lists a in customer.cache.peers.
+ */
+public class PeerCacheInvalidatorTest {
+
+    /**
+     * the shared database,rows by name
+     */
+    private final Map<String, Customer> rows = new ConcurrentHashMap<String, Customer>();
+
+    private CustomerChangeNotifier notifier;
+    private ServiceConfig<ICustomerChangeNotifier> service;
+    private CustomerService a;
+    private CustomerService b;
+    private PeerCacheInvalidator invalidator;
+
+    @Before
+    public void setUp() throws Exception {
+        rows.put("tom", customer("tom", 20));
+        rows.put("ann", customer("ann", 30));
+        notifier = new CustomerChangeNotifier();
+        a = provider(notifier);
+        b = provider(null);
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        ProtocolConfig protocol = new ProtocolConfig("dubbo", port);
+        protocol.setHost("localhost");
+        protocol.setSerialization("kryo");
+        service = new ServiceConfig<ICustomerChangeNotifier>();
+        service.setApplication(new ApplicationConfig("provider-a"));
+        service.setRegistry(new RegistryConfig(RegistryConfig.NO_AVAILABLE));
+        service.setProtocol(protocol);
+        service.setInterface(ICustomerChangeNotifier.class);
+        service.setRef(notifier);
+        service.setConnections(1);
+        service.setCallbacks(1000);
+        ArgumentConfig listener = new ArgumentConfig();
+        listener.setIndex(1);
+        listener.setCallback(true);
+        MethodConfig subscribe = new MethodConfig();
+        subscribe.setName("subscribe");
+        subscribe.setArguments(Collections.singletonList(listener));
+        service.setMethods(Collections.singletonList(subscribe));
+        service.export();
+
+        invalidator = new PeerCacheInvalidator();
+        invalidator.setCustomerService(b);
+        invalidator.setApplicationName("provider-b");
+        invalidator.setPeers("dubbo://localhost:" + port);
+        invalidator.init();
+        //the invalidate-all answering the first subscription,stamps of a new cache move only on invalidation
+        long deadline = System.currentTimeMillis() + 5000;
+        while (b.getCache().stamp("tom") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotEquals(0, b.getCache().stamp("tom"));
+    }
+
+    @After
+    public void tearDown() {
+        invalidator.destroy();
+        service.unexport();
+        notifier.destroy();
+        ProtocolConfig.destroyAll();
+    }
+
+    @Test
+    public void writeOnAEvictsTheRowCachedOnB() throws Exception {
+        //a failover read or one without a name caches tom on b as well
+        assertEquals(Integer.valueOf(20), b.findOne(customer("tom", null)).getAge());
+        assertNotNull(b.getCache().get("tom"));
+
+        a.updateByEntity(customer("tom", 21));
+        awaitEvicted(b, "tom");
+        assertEquals(Integer.valueOf(21), b.findOne(customer("tom", null)).getAge());
+    }
+
+    @Test
+    public void writeWithoutANameOnAEvictsEveryRowOnB() throws Exception {
+        b.findOne(customer("tom", null));
+        b.get(1L);
+        assertNotNull(b.getCache().get("tom"));
+
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("age", 40);
+        a.update(params);
+        awaitEvicted(b, "tom");
+        awaitEvicted(b, "1");
+    }
+
+    private static void awaitEvicted(CustomerService provider, String key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (provider.getCache().get(key) != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNull(key + " still cached", provider.getCache().get(key));
+    }
+
+    /**
+     * a CustomerService wired like the scanned bean,on a dao reading and writing {@link #rows}
+     */
+    private CustomerService provider(CustomerChangeNotifier changeNotifier) throws Exception {
+        CustomerService provider = new CustomerService();
+        set(provider, "customerDao", Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{CustomerDao.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("findByEntity")) {
+                            Customer row = rows.get(((Customer) args[0]).getName());
+                            return row == null ? Collections.emptyList() : Collections.singletonList(row.copy());
+                        }
+                        if (method.getName().equals("get")) {
+                            //the get statement matches the key against the name column
+                            Customer row = rows.get(String.valueOf(args[0]));
+                            return row == null ? customer(String.valueOf(args[0]), 0) : row.copy();
+                        }
+                        if (method.getName().equals("updateByEntity")) {
+                            Customer entity = (Customer) args[0];
+                            rows.put(entity.getName(), entity.copy());
+                            return 1;
+                        }
+                        if (method.getName().equals("update")) {
+                            return 0;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                }));
+        set(provider, "changeNotifier", changeNotifier);
+        set(provider, "cacheEnabled", true);
+        set(provider, "cacheMaxSize", 100);
+        set(provider, "cacheTtlSeconds", 300L);
+        provider.initCache();
+        return provider;
+    }
+
+    private static void set(Object target, String name, Object value) throws Exception {
+        Field field = CustomerService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    private static Customer customer(String name, Integer age) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setAge(age);
+        return customer;
+    }
+}
@@ -0,0 +1,170 @@
+package com.jingsky.customer.service.cluster;
+
+import com.alibaba.dubbo.common.URL;
+import com.alibaba.dubbo.remoting.RemotingException;
+import com.alibaba.dubbo.remoting.TimeoutException;
+import com.alibaba.dubbo.remoting.exchange.ResponseCallback;
+import com.alibaba.dubbo.remoting.exchange.ResponseFuture;
+import com.alibaba.dubbo.rpc.Invocation;
+import com.alibaba.dubbo.rpc.Invoker;
+import com.alibaba.dubbo.rpc.Result;
+import com.alibaba.dubbo.rpc.RpcContext;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.alibaba.dubbo.rpc.RpcInvocation;
+import com.alibaba.dubbo.rpc.RpcResult;
+import com.alibaba.dubbo.rpc.RpcStatus;
+import com.alibaba.dubbo.rpc.protocol.dubbo.FutureAdapter;
+import com.jingsky.customer.iservice.ICustomerService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HealthFilterTest {
+
+    private static final URL PROVIDER = URL.valueOf(
+            "dubbo://127.0.0.1:20999/com.jingsky.customer.iservice.ICustomerService?async=true&ejection.failures=2");
+
+    private final HealthFilter filter = new HealthFilter();
+    private final AsyncInvoker invoker = new AsyncInvoker();
+    private final List<Object> received = new ArrayList<Object>();
+
+    @Before
+    public void setUp() {
+        ProviderHealth.get().reset();
+        RpcStatus.removeStatus(PROVIDER, "get");
+    }
+
+    @After
+    public void tearDown() {
+        ProviderHealth.get().reset();
+        RpcStatus.removeStatus(PROVIDER, "get");
+    }
+
+    @Test
+    public void asyncTimeoutIsCountedWhenTheFutureFails() {
+        for (int i = 0; i < 2; i++) {
+            call();
+            assertEquals(1, RpcStatus.getStatus(PROVIDER, "get").getActive());
+            assertFalse(ProviderHealth.get().isEjected(PROVIDER));
+            TimeoutException timeout = new TimeoutException(false, null, null, "waiting server-side response timeout");
+            invoker.future.callback.caught(timeout);
+            assertSame(timeout, received.get(i));
+            assertEquals(0, RpcStatus.getStatus(PROVIDER, "get").getActive());
+        }
+        assertTrue(ProviderHealth.get().isEjected(PROVIDER));
+        assertEquals(2, RpcStatus.getStatus(PROVIDER, "get").getFailed());
+    }
+
+    @Test
+    public void responseBeforeCallbackIsStillDelivered() {
+        Result result = filter.invoke(invoker, new RpcInvocation("get", new Class<?>[]{Long.class}, new Object[]{1L}));
+        assertFalse(result.hasException());
+        RpcResult response = new RpcResult("tom");
+        invoker.future.callback.done(response);
+        assertEquals(0, RpcStatus.getStatus(PROVIDER, "get").getActive());
+        assertEquals(0, RpcStatus.getStatus(PROVIDER, "get").getFailed());
+        futureOfLastCall().setCallback(collector());
+        assertEquals(1, received.size());
+        assertSame(response, received.get(0));
+    }
+
+    @Test
+    public void businessExceptionIsNotAProviderFailure() {
+        for (int i = 0; i < 3; i++) {
+            call();
+            invoker.future.callback.done(new RpcResult(new IllegalArgumentException("bad name")));
+        }
+        assertFalse(ProviderHealth.get().isEjected(PROVIDER));
+        assertEquals(3, received.size());
+    }
+
+    private void call() {
+        filter.invoke(invoker, new RpcInvocation("get", new Class<?>[]{Long.class}, new Object[]{1L}));
+        futureOfLastCall().setCallback(collector());
+    }
+
+    private static ResponseFuture futureOfLastCall() {
+        return ((FutureAdapter<?>) RpcContext.getContext().getFuture()).getFuture();
+    }
+
+    private ResponseCallback collector() {
+        return new ResponseCallback() {
+            @Override
+            public void done(Object response) {
+                received.add(response);
+            }
+
+            @Override
+            public void caught(Throwable exception) {
+                received.add(exception);
+            }
+        };
+    }
+
+    /**
+     * sends nothing,leaves a future in RpcContext like dubbo's async invoker does
+     */
+    private static final class AsyncInvoker implements Invoker<ICustomerService> {
+
+        private PendingFuture future;
+
+        @Override
+        public Class<ICustomerService> getInterface() {
+            return ICustomerService.class;
+        }
+
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            future = new PendingFuture();
+            RpcContext.getContext().setFuture(new FutureAdapter<Object>(future));
+            return new RpcResult();
+        }
+
+        @Override
+        public URL getUrl() {
+            return PROVIDER;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    private static final class PendingFuture implements ResponseFuture {
+
+        private ResponseCallback callback;
+
+        @Override
+        public Object get() throws RemotingException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object get(int timeoutInMillis) throws RemotingException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setCallback(ResponseCallback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public boolean isDone() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.jingsky.customer.service.serialize;
+
+import com.alibaba.dubbo.rpc.RpcException;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import com.jingsky.customer.entity.Customer;
+import com.jingsky.customer.util.base.Page;
+import com.jingsky.customer.util.base.QuerySpec;
+import com.jingsky.customer.util.deadline.DeadlineExceededException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class KryoSerializationTest {
+
+    @Test
+    public void entityKeepsPagingAndCursor() throws Exception {
+        Customer customer = customer("tom");
+        customer.setPageIndex(2);
+        customer.setPageSize(20);
+        customer.setOrderBy("name");
+        customer.setAfterKey("jack");
+        Customer copy = (Customer) roundTrip(customer);
+        assertEquals(customer, copy);
+        assertEquals(Integer.valueOf(20), copy.getLimitStart());
+        assertEquals(Integer.valueOf(20), copy.getLimitEnd());
+        assertEquals("name", copy.getOrderBy());
+        assertEquals("jack", copy.getAfterKey());
+    }
+
+    @Test
+    public void resultsAndParams() throws Exception {
+        Page<Customer> page = new Page<Customer>(10);
+        page.setData(new ArrayList<Customer>(Arrays.asList(customer("tom"), customer("ann"))));
+        page.setTotalCount(2);
+        page.setAfterKey("tom");
+        @SuppressWarnings("unchecked")
+        Page<Customer> pageCopy = (Page<Customer>) roundTrip(page);
+        assertEquals(page.getData(), pageCopy.getData());
+        assertEquals(2, pageCopy.getTotalCount());
+        assertEquals("tom", pageCopy.getAfterKey());
+
+        QuerySpec spec = new QuerySpec().where("name", "tom").where("ageGT", 18).page(2, 5).orderBy("name");
+        assertEquals(spec.toParams(), ((QuerySpec) roundTrip(spec)).toParams());
+
+        Map<String, Object> params = new HashMap<String, Object>();
+        params.put("names", Arrays.asList("tom", "ann"));
+        params.put("ids", new Object[]{1L, 2L});
+        params.put("created", new Date(0));
+        params.put("none", Collections.emptyList());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> paramsCopy = (Map<String, Object>) roundTrip(params);
+        assertEquals(params.get("names"), paramsCopy.get("names"));
+        assertArrayEquals((Object[]) params.get("ids"), (Object[]) paramsCopy.get("ids"));
+        assertEquals(params.get("created"), paramsCopy.get("created"));
+        assertSame(Collections.emptyList(), paramsCopy.get("none"));
+    }
+
+    @Test
+    public void exceptionKeepsMessageCodeStackAndCause() throws Exception {
+        RpcException e = new RpcException(RpcException.TIMEOUT_EXCEPTION, "timed out",
+                new DeadlineExceededException("deadline"));
+        e.addSuppressed(new IllegalStateException("closing"));
+        RpcException copy = (RpcException) roundTrip(e);
+        assertEquals("timed out", copy.getMessage());
+        assertTrue(copy.isTimeout());
+        assertSameFrames(e.getStackTrace(), copy.getStackTrace());
+        assertEquals(DeadlineExceededException.class, copy.getCause().getClass());
+        assertEquals("deadline", copy.getCause().getMessage());
+        assertEquals("closing", copy.getSuppressed()[0].getMessage());
+    }
+
+    @Test
+    public void unregisteredExceptionIsSentAsRuntimeException() throws Exception {
+        IOException cause = new IOException("disk");
+        Throwable copy = (Throwable) roundTrip(new IllegalArgumentException("bad", cause));
+        assertEquals(IllegalArgumentException.class, copy.getClass());
+        assertEquals(RuntimeException.class, copy.getCause().getClass());
+        assertEquals(cause.toString(), copy.getCause().getMessage());
+        assertSameFrames(cause.getStackTrace(), copy.getCause().getStackTrace());
+
+        Throwable top = (Throwable) roundTrip(new IOException("disk"));
+        assertEquals(RuntimeException.class, top.getClass());
+        assertNull(top.getCause());
+    }
+
+    @Test
+    public void unregisteredClassIsNotCreated() throws Exception {
+        Kryo open = new Kryo();
+        open.setRegistrationRequired(false);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Output output = new Output(bytes);
+        open.writeClassAndObject(output, new Unknown());
+        output.flush();
+        try {
+            new KryoObjectInput(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+            fail("read an unregistered class");
+        } catch (IOException expected) {
+            assertTrue(expected.getCause().getMessage(), expected.getCause().getMessage().contains(Unknown.class.getName()));
+        }
+    }
+
+    @Test
+    public void unregisteredClassIsNotWritten() {
+        List<Object> list = new ArrayList<Object>();
+        list.add(new Unknown());
+        try {
+            roundTrip(list);
+            fail("wrote an unregistered class");
+        } catch (IOException expected) {
+            //the call fails on the sending side
+        } catch (ClassNotFoundException e) {
+            fail(e.toString());
+        }
+    }
+
+    /**
+     * frames read back carry no class loader or module name
+     */
+    private static void assertSameFrames(StackTraceElement[] expected, StackTraceElement[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getClassName(), actual[i].getClassName());
+            assertEquals(expected[i].getMethodName(), actual[i].getMethodName());
+            assertEquals(expected[i].getFileName(), actual[i].getFileName());
+            assertEquals(expected[i].getLineNumber(), actual[i].getLineNumber());
+        }
+    }
+
+    private static Object roundTrip(Object value) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        KryoObjectOutput out = new KryoObjectOutput(bytes);
+        out.writeObject(value);
+        out.flushBuffer();
+        return new KryoObjectInput(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    }
+
+    private static Customer customer(String name) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setAge(20);
+        customer.setPassword("secret");
+        return customer;
+    }
+
+    public static class Unknown {
+        public String value = "x";
+    }
+}
@@ -0,0 +1,343 @@
+package com.jingsky.customer.util.accesslog;
+
+import com.jingsky.customer.util.base.NamedThreadFactory;
+import com.jingsky.customer.util.metrics.Counter;
+import com.jingsky.customer.util.metrics.Metrics;
+import org.apache.log4j.Logger;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步的访问日志：请求线程把请求复制到预先分配的{@link AccessLogEvent}环中即返回，不格式化、不加锁、不做io；
+ * 单个写线程按批格式化，经FileChannel追加到文件，超过maxFileBytes时滚动为file.1到file.maxBackups。<br/>
+ * 环满时(写线程跟不上或磁盘出错)丢弃新的记录并计数，见access_log_dropped_total，恢复后在日志中写一行丢弃的条数。
+ * 每行如：2026-10-18 11:30:21.070 IP:127.0.0.1,requestCode:b68ad6553e27c4fb,method:POST,URI:/register,status:200,
+ * millis:12.345,parameters:{"name":"x","password":"***"}，敏感参数见{@link com.jingsky.customer.util.util.SecretMask}。
+ */
+public class AccessLog {
+
+	private static final Logger logger = Logger.getLogger(AccessLog.class);
+
+	private static final int BATCH_SIZE = 256;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final int MAX_VALUE_LENGTH = 200;
+
+	private static final Counter EVENTS = Metrics.get().register(new Counter("access_log_events_total",
+			"Requests written to the access log", null));
+	private static final Counter DROPPED = Metrics.get().register(new Counter("access_log_dropped_total",
+			"Requests not logged because the access log queue was full", null));
+
+	private final File file;
+	private final long maxFileBytes;
+	private final int maxBackups;
+	private final AccessLogEvent[] ring;
+	private final int mask;
+	private final AtomicLong claimed = new AtomicLong();
+	private volatile long consumed;
+	private final LongAdder dropped = new LongAdder();
+	private volatile boolean running;
+	private Thread writer;
+
+	//以下只由写线程使用
+	private final StringBuilder text = new StringBuilder(BATCH_SIZE * 256);
+	private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+			.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private final SimpleDateFormat secondFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+	private long lastSecond = -1;
+	private String lastSecondText;
+	private FileChannel channel;
+	private long fileBytes;
+	private long reportedDropped;
+	private boolean failing;
+
+	/**
+	 * @param queueSize 环的大小，向上取2的幂
+	 * @param maxFileBytes 文件超过此大小时滚动
+	 * @param maxBackups 保留的滚动文件数，0表示不保留，直接清空重写
+	 */
+	public AccessLog(File file, int queueSize, long maxFileBytes, int maxBackups) {
+		this.file = file;
+		this.maxFileBytes = maxFileBytes;
+		this.maxBackups = maxBackups;
+		int size = Integer.highestOneBit(Math.max(queueSize, 2) - 1) << 1;
+		this.ring = new AccessLogEvent[size];
+		for (int i = 0; i < size; i++) {
+			ring[i] = new AccessLogEvent();
+		}
+		this.mask = size - 1;
+	}
+
+	public void start() {
+		running = true;
+		writer = new NamedThreadFactory("access-log").newThread(new Runnable() {
+			@Override
+			public void run() {
+				writeLoop();
+			}
+		});
+		writer.start();
+		logger.info("access log " + file.getAbsolutePath() + ", queue " + ring.length);
+	}
+
+	/**
+	 * 写完已入队的记录后关闭文件
+	 */
+	public void stop() {
+		running = false;
+		if (writer != null) {
+			LockSupport.unpark(writer);
+			try {
+				writer.join(TimeUnit.SECONDS.toMillis(5));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			writer = null;
+		}
+	}
+
+	/**
+	 * 在请求线程上调用，环满时丢弃
+	 * @param ip 客户端地址
+	 * @param status http状态
+	 * @param nanos 请求耗时
+	 * @return 是否已入队
+	 */
+	public boolean log(HttpServletRequest request, String ip, String requestCode, int status, long nanos) {
+		long sequence;
+		do {
+			sequence = claimed.get();
+			if (sequence - consumed >= ring.length) {
+				dropped.increment();
+				DROPPED.increment();
+				return false;
+			}
+		} while (!claimed.compareAndSet(sequence, sequence + 1));
+		AccessLogEvent event = ring[(int) sequence & mask];
+		try {
+			event.fill(request, ip, requestCode, status, nanos);
+		} finally {
+			//已占的序号必须发布，否则写线程停在这里
+			event.sequence = sequence;
+		}
+		return true;
+	}
+
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	private void writeLoop() {
+		long next = consumed;
+		while (true) {
+			int count = 0;
+			while (count < BATCH_SIZE) {
+				AccessLogEvent event = ring[(int) next & mask];
+				//未入队或已占序号还没写完
+				if (event.sequence != next) {
+					break;
+				}
+				format(event);
+				event.clear();
+				next++;
+				count++;
+			}
+			if (count > 0) {
+				consumed = next;
+				EVENTS.add(count);
+			}
+			long droppedNow = dropped.sum();
+			if (droppedNow != reportedDropped && count < BATCH_SIZE) {
+				appendTimestamp(text, System.currentTimeMillis());
+				text.append(" access log queue full, ")
+						.append(droppedNow - reportedDropped).append(" requests not logged\n");
+				reportedDropped = droppedNow;
+			}
+			if (text.length() > 0) {
+				write();
+			}
+			if (count == 0) {
+				if (!running) {
+					break;
+				}
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+			}
+		}
+		close();
+	}
+
+	private void format(AccessLogEvent event) {
+		StringBuilder out = text;
+		appendTimestamp(out, event.timeMillis);
+		out.append(" IP:").append(event.ip).append(",requestCode:").append(event.requestCode)
+				.append(",method:").append(event.method).append(",URI:").append(event.uri).append(",status:").append(event.status)
+				.append(",millis:");
+		long micros = event.nanos / 1000;
+		out.append(micros / 1000).append('.');
+		long fraction = micros % 1000;
+		if (fraction < 100) {
+			out.append(fraction < 10 ? "00" : "0");
+		}
+		out.append(fraction).append(",parameters:{");
+		for (int i = 0; i < event.paramCount; i++) {
+			if (i > 0) {
+				out.append(',');
+			}
+			appendJsonString(out, event.paramNames[i]);
+			out.append(':');
+			appendJsonString(out, event.paramValues[i]);
+		}
+		if (event.paramsOmitted > 0) {
+			out.append(event.paramCount > 0 ? "," : "").append("\"...\":").append(event.paramsOmitted);
+		}
+		out.append("}\n");
+	}
+
+	/**
+	 * yyyy-MM-dd HH:mm:ss.SSS，同一秒内只格式化一次
+	 */
+	private void appendTimestamp(StringBuilder out, long millis) {
+		long second = millis / 1000;
+		if (second != lastSecond) {
+			lastSecond = second;
+			lastSecondText = secondFormat.format(new Date(second * 1000));
+		}
+		long ms = millis % 1000;
+		out.append(lastSecondText).append(ms < 10 ? ".00" : ms < 100 ? ".0" : ".").append(ms);
+	}
+
+	private static void appendJsonString(StringBuilder out, String value) {
+		if (value == null) {
+			out.append("null");
+			return;
+		}
+		out.append('"');
+		int length = Math.min(value.length(), MAX_VALUE_LENGTH);
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					out.append("\\\"");
+					break;
+				case '\\':
+					out.append("\\\\");
+					break;
+				case '\n':
+					out.append("\\n");
+					break;
+				case '\r':
+					out.append("\\r");
+					break;
+				case '\t':
+					out.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						out.append(String.format("\\u%04x", (int) c));
+					} else {
+						out.append(c);
+					}
+			}
+		}
+		if (value.length() > MAX_VALUE_LENGTH) {
+			out.append("...");
+		}
+		out.append('"');
+	}
+
+	/**
+	 * 把text编码写入文件后清空；出错时这一批丢弃，下一批重新打开文件
+	 */
+	private void write() {
+		try {
+			if (channel == null) {
+				open();
+			}
+			CharBuffer chars = CharBuffer.wrap(text);
+			while (true) {
+				CoderResult result = encoder.encode(chars, bytes, true);
+				bytes.flip();
+				while (bytes.hasRemaining()) {
+					fileBytes += channel.write(bytes);
+				}
+				bytes.clear();
+				if (!result.isOverflow()) {
+					break;
+				}
+			}
+			if (fileBytes >= maxFileBytes) {
+				rotate();
+			}
+			failing = false;
+		} catch (IOException e) {
+			if (!failing) {
+				logger.warn("access log write to " + file + " failed, lines are lost until it succeeds again", e);
+				failing = true;
+			}
+			close();
+		} finally {
+			encoder.reset();
+			bytes.clear();
+			text.setLength(0);
+		}
+	}
+
+	private void open() throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.isDirectory()) {
+			Files.createDirectories(parent.toPath());
+		}
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		fileBytes = channel.size();
+	}
+
+	private void rotate() throws IOException {
+		close();
+		if (maxBackups <= 0) {
+			Files.deleteIfExists(file.toPath());
+		} else {
+			for (int i = maxBackups - 1; i >= 1; i--) {
+				File from = backup(i);
+				if (from.exists()) {
+					Files.move(from.toPath(), backup(i + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			Files.move(file.toPath(), backup(1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		open();
+	}
+
+	private File backup(int index) {
+		return new File(file.getPath() + "." + index);
+	}
+
+	private void close() {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				logger.warn("close access log " + file + " failed", e);
+			}
+			channel = null;
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.jingsky.customer.util.accesslog;
+
+import com.jingsky.customer.util.util.SecretMask;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Enumeration;
+
+/**
+ * {@link AccessLog}环中的一个槽，启动时一次分配，之后反复使用：请求线程只复制字段引用，格式化在写线程上进行。<br/>
+ * sequence为volatile，写入其余字段后再赋值，写线程看到序号相等时其余字段也已可见。<br/>
+ * 密码、token等参数在请求线程上按{@link SecretMask}遮盖，原值不进入环。
+ */
+final class AccessLogEvent {
+
+	/**
+	 * 每个请求最多记录的参数个数，其余只计数
+	 */
+	static final int MAX_PARAMS = 16;
+
+	volatile long sequence = -1;
+
+	long timeMillis;
+	long nanos;
+	int status;
+	String ip;
+	String requestCode;
+	String method;
+	String uri;
+	final String[] paramNames = new String[MAX_PARAMS];
+	final String[] paramValues = new String[MAX_PARAMS];
+	int paramCount;
+	int paramsOmitted;
+
+	void fill(HttpServletRequest request, String ip, String requestCode, int status, long nanos) {
+		this.timeMillis = System.currentTimeMillis();
+		this.nanos = nanos;
+		this.status = status;
+		this.ip = ip;
+		this.requestCode = requestCode;
+		this.method = request.getMethod();
+		this.uri = request.getRequestURI();
+		int count = 0;
+		int omitted = 0;
+		Enumeration<String> names = request.getParameterNames();
+		while (names.hasMoreElements()) {
+			String name = names.nextElement();
+			if (count < MAX_PARAMS) {
+				paramNames[count] = name;
+				//同原来的日志，多值参数只取第一个
+				paramValues[count] = SecretMask.isSecret(name) ? SecretMask.MASK : request.getParameter(name);
+				count++;
+			} else {
+				omitted++;
+			}
+		}
+		this.paramCount = count;
+		this.paramsOmitted = omitted;
+	}
+
+	/**
+	 * 格式化后清空引用，槽在下一轮之前不再持有请求的内容
+	 */
+	void clear() {
+		ip = null;
+		requestCode = null;
+		method = null;
+		uri = null;
+		for (int i = 0; i < paramCount; i++) {
+			paramNames[i] = null;
+			paramValues[i] = null;
+		}
+		paramCount = 0;
+	}
+}
@@ -0,0 +1,298 @@
+package com.jingsky.customer.util.accesslog;
+
+import com.jingsky.customer.util.base.NamedThreadFactory;
+import com.jingsky.customer.util.metrics.Counter;
+import com.jingsky.customer.util.metrics.Metrics;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 决定一个请求是否写入{@link AccessLog}：出错(失败或状态不小于errorStatus)和慢(不少于slowMillis)的请求总是记录，
+ * 其余按uri的采样比例抽取，抽中的再受每秒行数上限限制(令牌桶，可突发一秒的量)。<br/>
+ * 规则来自properties文件，每{@value #RELOAD_SECONDS}秒检查一次，修改后自动重新加载，格式有误时保留原规则；
+ * 文件在jar中时只加载一次。键：
+ * <ul>
+ * <li>sample.default：没有匹配的sample.uri时的比例，0到1，默认1</li>
+ * <li>sample.uri：该uri的比例，uri以*结尾时为前缀，精确匹配优先，其次最长的前缀，如sample./me=0.01</li>
+ * <li>slowMillis：默认0，不按耗时</li>
+ * <li>errorStatus：默认500</li>
+ * <li>maxLinesPerSecond：默认0，不限制；出错和慢的请求不受限制</li>
+ * </ul>
+ * 未记录的请求计入access_log_skipped_total，reason为sampled或rate_limited。
+ */
+public class AccessLogPolicy {
+
+	private static final Logger logger = Logger.getLogger(AccessLogPolicy.class);
+
+	public static final String CLASSPATH_PREFIX = "classpath:";
+
+	private static final int RELOAD_SECONDS = 5;
+
+	private static final Counter SKIPPED = Metrics.get().register(new Counter("access_log_skipped_total",
+			"Requests left out of the access log by its policy", "reason"));
+
+	private final String location;
+	private final File file;
+	private final LongAdder sampled = SKIPPED.labels("sampled");
+	private final LongAdder rateLimited = SKIPPED.labels("rate_limited");
+	/**
+	 * 令牌桶：下一行最早可写的时间，超出当前时间一秒以上时拒绝
+	 */
+	private final AtomicLong nextLineNanos = new AtomicLong(System.nanoTime());
+	private volatile Rules rules;
+	private long lastModified;
+	private long length;
+	private ScheduledExecutorService reloader;
+
+	private AccessLogPolicy(String location, File file, Rules rules) {
+		this.location = location;
+		this.file = file;
+		this.rules = rules;
+	}
+
+	/**
+	 * @param location 文件路径，或classpath:开头的资源
+	 * @throws IllegalArgumentException 找不到或格式有误
+	 */
+	public static AccessLogPolicy load(String location) {
+		File file;
+		if (location.startsWith(CLASSPATH_PREFIX)) {
+			String resource = location.substring(CLASSPATH_PREFIX.length());
+			URL url = AccessLogPolicy.class.getClassLoader().getResource(resource.startsWith("/") ? resource.substring(1) : resource);
+			if (url == null) {
+				throw new IllegalArgumentException("access log policy " + location + " not found");
+			}
+			if (!"file".equals(url.getProtocol())) {
+				try (InputStream in = url.openStream()) {
+					return new AccessLogPolicy(location, null, Rules.parse(in, location));
+				} catch (IOException e) {
+					throw new IllegalArgumentException("can not read access log policy " + location, e);
+				}
+			}
+			try {
+				file = new File(url.toURI());
+			} catch (URISyntaxException e) {
+				throw new IllegalArgumentException("access log policy " + location + " is not a file: " + url, e);
+			}
+		} else {
+			file = new File(location);
+		}
+		AccessLogPolicy policy = new AccessLogPolicy(location, file, null);
+		policy.rules = policy.read();
+		return policy;
+	}
+
+	/**
+	 * 开始检查文件修改
+	 */
+	public void start() {
+		if (file == null) {
+			return;
+		}
+		reloader = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("access-log-policy"));
+		reloader.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				reloadIfModified();
+			}
+		}, RELOAD_SECONDS, RELOAD_SECONDS, TimeUnit.SECONDS);
+	}
+
+	public void stop() {
+		if (reloader != null) {
+			reloader.shutdownNow();
+			reloader = null;
+		}
+	}
+
+	/**
+	 * 在请求线程上调用
+	 * @param status http状态
+	 * @param nanos 请求耗时
+	 * @param failed 请求失败，如异常已被处理成错误页、状态不一定是错误状态时
+	 */
+	public boolean shouldLog(String uri, int status, long nanos, boolean failed) {
+		Rules rules = this.rules;
+		if (failed || status >= rules.errorStatus || rules.slowNanos > 0 && nanos >= rules.slowNanos) {
+			return true;
+		}
+		double rate = rules.rate(uri);
+		if (rate < 1 && (rate <= 0 || ThreadLocalRandom.current().nextDouble() >= rate)) {
+			sampled.increment();
+			return false;
+		}
+		if (rules.lineIntervalNanos > 0 && !acquireLine(rules.lineIntervalNanos)) {
+			rateLimited.increment();
+			return false;
+		}
+		return true;
+	}
+
+	private boolean acquireLine(long intervalNanos) {
+		long now = System.nanoTime();
+		while (true) {
+			long next = nextLineNanos.get();
+			long after = Math.max(next, now) + intervalNanos;
+			if (after - now > TimeUnit.SECONDS.toNanos(1)) {
+				return false;
+			}
+			if (nextLineNanos.compareAndSet(next, after)) {
+				return true;
+			}
+		}
+	}
+
+	private void reloadIfModified() {
+		if (file.lastModified() == lastModified && file.length() == length) {
+			return;
+		}
+		try {
+			rules = read();
+			logger.info("access log policy reloaded from " + file + ": " + rules);
+		} catch (RuntimeException e) {
+			logger.warn("access log policy " + file + " not reloaded, keeping " + rules, e);
+		}
+	}
+
+	/**
+	 * 读文件，同时记下修改时间和大小，格式有误时也不再重复读同一版本
+	 */
+	private Rules read() {
+		lastModified = file.lastModified();
+		length = file.length();
+		try (InputStream in = new FileInputStream(file)) {
+			return Rules.parse(in, location);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("can not read access log policy " + file, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return location + " " + rules;
+	}
+
+	/**
+	 * 一个版本的规则，加载后不再修改
+	 */
+	static final class Rules {
+
+		private static final String SAMPLE_PREFIX = "sample.";
+
+		private final double defaultRate;
+		private final Map<String, Double> exact;
+		private final String[] prefixes;
+		private final double[] prefixRates;
+		private final long slowNanos;
+		private final int errorStatus;
+		private final long lineIntervalNanos;
+		private final String text;
+
+		private Rules(double defaultRate, Map<String, Double> exact, List<Map.Entry<String, Double>> prefixes,
+					  long slowMillis, int errorStatus, int maxLinesPerSecond) {
+			this.defaultRate = defaultRate;
+			this.exact = exact;
+			this.prefixes = new String[prefixes.size()];
+			this.prefixRates = new double[prefixes.size()];
+			for (int i = 0; i < prefixes.size(); i++) {
+				this.prefixes[i] = prefixes.get(i).getKey();
+				this.prefixRates[i] = prefixes.get(i).getValue();
+			}
+			this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+			this.errorStatus = errorStatus;
+			this.lineIntervalNanos = maxLinesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxLinesPerSecond : 0;
+			this.text = "sample.default=" + defaultRate + " exact=" + exact + " prefixes=" + prefixes + " slowMillis="
+					+ slowMillis + " errorStatus=" + errorStatus + " maxLinesPerSecond=" + maxLinesPerSecond;
+		}
+
+		static Rules parse(InputStream in, String location) throws IOException {
+			Properties properties = new Properties();
+			properties.load(in);
+			double defaultRate = 1;
+			Map<String, Double> exact = new HashMap<String, Double>();
+			List<Map.Entry<String, Double>> prefixes = new ArrayList<Map.Entry<String, Double>>();
+			long slowMillis = 0;
+			int errorStatus = 500;
+			int maxLinesPerSecond = 0;
+			for (String key : properties.stringPropertyNames()) {
+				String value = properties.getProperty(key).trim();
+				try {
+					if (key.equals(SAMPLE_PREFIX + "default")) {
+						defaultRate = parseRate(value);
+					} else if (key.startsWith(SAMPLE_PREFIX)) {
+						String uri = key.substring(SAMPLE_PREFIX.length());
+						if (uri.endsWith("*")) {
+							prefixes.add(new AbstractMap.SimpleImmutableEntry<String, Double>(uri.substring(0, uri.length() - 1), parseRate(value)));
+						} else {
+							exact.put(uri, parseRate(value));
+						}
+					} else if (key.equals("slowMillis")) {
+						slowMillis = Long.parseLong(value);
+					} else if (key.equals("errorStatus")) {
+						errorStatus = Integer.parseInt(value);
+					} else if (key.equals("maxLinesPerSecond")) {
+						maxLinesPerSecond = Integer.parseInt(value);
+					} else {
+						throw new IllegalArgumentException("unknown key");
+					}
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException(location + ": " + key + "=" + value + " " + e.getMessage(), e);
+				}
+			}
+			//最长的前缀优先
+			Collections.sort(prefixes, new Comparator<Map.Entry<String, Double>>() {
+				@Override
+				public int compare(Map.Entry<String, Double> o1, Map.Entry<String, Double> o2) {
+					return o2.getKey().length() - o1.getKey().length();
+				}
+			});
+			return new Rules(defaultRate, exact, prefixes, slowMillis, errorStatus, maxLinesPerSecond);
+		}
+
+		private static double parseRate(String value) {
+			double rate = Double.parseDouble(value);
+			if (!(rate >= 0 && rate <= 1)) {
+				throw new IllegalArgumentException("sample rate must be from 0 to 1");
+			}
+			return rate;
+		}
+
+		double rate(String uri) {
+			Double rate = exact.get(uri);
+			if (rate != null) {
+				return rate;
+			}
+			for (int i = 0; i < prefixes.length; i++) {
+				if (uri.startsWith(prefixes[i])) {
+					return prefixRates[i];
+				}
+			}
+			return defaultRate;
+		}
+
+		@Override
+		public String toString() {
+			return text;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package com.jingsky.customer.util.base;
+
+import com.jingsky.customer.util.deadline.Deadline;
+import com.jingsky.customer.util.trace.Trace;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在专用的有界线程池上执行同步IBaseService调用的异步实现。<br/>
+ * 队列满时不阻塞调用线程，返回以RejectedExecutionException结束的future。
+ * 调用线程上的{@link Deadline}以剩余时间带到执行线程，{@link Trace}也一并带过去，见{@link ContextTask}。
+ */
+public abstract class AsyncBaseService<T extends BaseEntity<PK, T>, PK extends Serializable> implements IAsyncBaseService<T, PK> {
+
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * @param name 线程名前缀
+	 * @param threads 线程数
+	 * @param queueSize 等待队列长度
+	 */
+	public AsyncBaseService(String name, int threads, int queueSize) {
+		this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(queueSize), new NamedThreadFactory(name),
+				new ThreadPoolExecutor.AbortPolicy());
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * 子类需要实现该方法，提供实际执行调用的同步service
+	 */
+	public abstract IBaseService<T, PK> getDelegate();
+
+	public CompletableFuture<T> get(final PK id) {
+		return submit(new Callable<T>() {
+			public T call() {
+				return getDelegate().get(id);
+			}
+		});
+	}
+
+	public CompletableFuture<List<T>> find(final Map<String, Object> params) {
+		return submit(new Callable<List<T>>() {
+			public List<T> call() {
+				return getDelegate().find(params);
+			}
+		});
+	}
+
+	public CompletableFuture<Long> count(final Map<String, Object> params) {
+		return submit(new Callable<Long>() {
+			public Long call() {
+				return getDelegate().count(params);
+			}
+		});
+	}
+
+	public CompletableFuture<Page<T>> page(final Map<String, Object> params) {
+		return submit(new Callable<Page<T>>() {
+			public Page<T> call() {
+				return getDelegate().page(params);
+			}
+		});
+	}
+
+	public CompletableFuture<T> findOne(final T entity) {
+		return submit(new Callable<T>() {
+			public T call() {
+				return getDelegate().findOne(entity);
+			}
+		});
+	}
+
+	public CompletableFuture<T> findOne(final Map<String, Object> params) {
+		return submit(new Callable<T>() {
+			public T call() {
+				return getDelegate().findOne(params);
+			}
+		});
+	}
+
+	public CompletableFuture<Integer> insert(final T entity) {
+		return submit(new Callable<Integer>() {
+			public Integer call() {
+				return getDelegate().insert(entity);
+			}
+		});
+	}
+
+	public CompletableFuture<Integer> updateByEntity(final T entity) {
+		return submit(new Callable<Integer>() {
+			public Integer call() {
+				return getDelegate().updateByEntity(entity);
+			}
+		});
+	}
+
+	protected <V> CompletableFuture<V> submit(Callable<V> task) {
+		final CompletableFuture<V> future = new CompletableFuture<V>();
+		final Callable<V> wrapped = ContextTask.wrap(task);
+		try {
+			executor.execute(new Runnable() {
+				public void run() {
+					try {
+						future.complete(wrapped.call());
+					} catch (Throwable e) {
+						future.completeExceptionally(e);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	public ThreadPoolExecutor getExecutor() {
+		return executor;
+	}
+
+	public void destroy() {
+		executor.shutdown();
+	}
+}
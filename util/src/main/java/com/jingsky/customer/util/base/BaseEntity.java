@@ -25,73 +25,96 @@ public abstract class BaseEntity<PK, T> extends ObjectSupport implements Seriali
     private static final long serialVersionUID = 1L;
 
     //protected PK id;
-    @JsonIgnore
-    protected boolean sqldecode=true;
-    @JsonIgnore
-    protected Integer pageIndex;
-    @JsonIgnore
-    protected Integer pageSize = 10;
-    @JsonIgnore
-    protected Integer limitStart;
-    @JsonIgnore
-    protected Integer limitEnd;
-    @JsonIgnore
-    protected String orderBy;
-    @JsonIgnore
-    protected Page<T> page;
+    /**
+     * 按实体查询时的分页、排序参数，只在设置时创建；随实体经dubbo传输，未设置时只占一个null，不参与equals/hashCode。
+     * 跨进程的列表查询优先使用{@link QuerySpec}
+     */
+    private QueryState<T> query;
+
+    private QueryState<T> query() {
+        if (query == null) {
+            query = new QueryState<T>();
+        }
+        return query;
+    }
 
+    @JsonIgnore
     public Page<T> getPage() {
-        return page;
+        return query == null ? null : query.page;
     }
 
     public void setPage(Page<T> page) {
-        this.page = page;
+        query().page = page;
     }
     
+    @JsonIgnore
     public boolean isSqldecode() {
-		return sqldecode;
+		return query == null || query.sqldecode;
 	}
 
 	public void setSqldecode(boolean sqldecode) {
-		this.sqldecode = sqldecode;
+		query().sqldecode = sqldecode;
 	}
 
+    @JsonIgnore
 	public Integer getLimitStart() {
-        if (pageIndex != null && pageIndex >=1 && pageSize != null && pageSize > 0) {
-            limitStart = (pageIndex-1) * pageSize;
+        if (query == null) {
+            return null;
+        }
+        if (query.pageIndex != null && query.pageIndex >=1 && query.pageSize != null && query.pageSize > 0) {
+            query.limitStart = (query.pageIndex-1) * query.pageSize;
         }
-        return limitStart;
+        return query.limitStart;
     }
 
     public void setLimitStart(Integer limitStart) {
-        this.limitStart = limitStart;
+        query().limitStart = limitStart;
     }
 
+    @JsonIgnore
     public Integer getLimitEnd() {
-        if (pageIndex != null && pageIndex >= 0 && pageSize != null && pageSize > 0) {
-            limitEnd = pageSize;
+        if (query == null) {
+            return null;
+        }
+        if (query.pageIndex != null && query.pageIndex >= 0 && query.pageSize != null && query.pageSize > 0) {
+            query.limitEnd = query.pageSize;
         }
-        return limitEnd;
+        return query.limitEnd;
     }
 
+    @JsonIgnore
     public void setPageIndex(Integer pageIndex) {
-        this.pageIndex = pageIndex;
+        query().pageIndex = pageIndex;
     }
 
+    @JsonIgnore
     public void setPageSize(Integer pageSize) {
-        this.pageSize = pageSize;
+        query().pageSize = pageSize;
     }
 
     public void setLimitEnd(Integer limitEnd) {
-        this.limitEnd = limitEnd;
+        query().limitEnd = limitEnd;
     }
 
+    @JsonIgnore
     public String getOrderBy() {
-        return orderBy;
+        return query == null ? null : query.orderBy;
     }
 
     public void setOrderBy(String orderBy) {
-        this.orderBy = orderBy;
+        query().orderBy = orderBy;
+    }
+
+    @JsonIgnore
+    public String getAfterKey() {
+        return query == null ? null : query.afterKey;
+    }
+
+    /**
+     * 游标分页：只查询排序键大于该值的记录，取自上一页的Page.afterKey
+     */
+    public void setAfterKey(String afterKey) {
+        query().afterKey = afterKey;
     }
 
 //    public PK getId() {
@@ -102,4 +125,20 @@ public abstract class BaseEntity<PK, T> extends ObjectSupport implements Seriali
 //        this.id = id;
 //    }
 
+    /**
+     * 查询结果page只在本进程使用，不传输
+     */
+    private static final class QueryState<T> implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        boolean sqldecode = true;
+        Integer pageIndex;
+        Integer pageSize = 10;
+        Integer limitStart;
+        Integer limitEnd;
+        String orderBy;
+        transient Page<T> page;
+        String afterKey;
+    }
+
 }
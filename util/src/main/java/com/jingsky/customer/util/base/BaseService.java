@@ -6,9 +6,29 @@
  */
 package com.jingsky.customer.util.base;
 
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
 import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 
 /**
@@ -23,6 +43,9 @@ import java.util.Map;
  */
 public abstract class BaseService<T extends BaseEntity<PK , T>, PK extends Serializable> {
 
+	private static final ExecutorService PAGE_EXECUTOR = new ThreadPoolExecutor(0, 32, 60L, TimeUnit.SECONDS,
+			new SynchronousQueue<Runnable>(), new NamedThreadFactory("page-count"), new ThreadPoolExecutor.CallerRunsPolicy());
+
 	/**
 	 * 子类需要实现该方法，提供注入的dao
 	 */
@@ -40,6 +63,128 @@ public abstract class BaseService<T extends BaseEntity<PK , T>, PK extends Seria
 		return getEntityDao().insertBatch(list);
 	}
 
+	/**
+	 * 大批量写入：按chunkSize分块，每块在BATCH执行器的独立会话中逐条insert后一次性flush并提交。<br/>
+	 * 配合jdbc url上的rewriteBatchedStatements=true，驱动会把一块合并为少量多值语句，
+	 * 单条语句大小受块大小控制而不会超过max_allowed_packet。某块失败只回滚该块，结果中逐块报告。<br/>
+	 * chunkSize不大于0时使用{@link #getBatchChunkSize()}。不应在外层事务中调用。
+	 */
+	public List<ChunkResult> insertBatch(final List<T> list, int chunkSize) {
+		return writeChunks(list, chunkSize, BatchOp.INSERT);
+	}
+
+	/**
+	 * 批量按实体更新，列与条件同updateByEntity。按{@link #getBatchChunkSize()}分块，
+	 * 每块的update语句在BATCH执行器中一次发送并单独提交。
+	 */
+	public List<ChunkResult> updateBatch(final List<T> list) {
+		return writeChunks(list, getBatchChunkSize(), BatchOp.UPDATE);
+	}
+
+	/**
+	 * 批量插入或更新：每块一条insert ... on duplicate key update语句，单独提交。<br/>
+	 * mysql对新插入的行计1、被更新的行计2、值未变化的行计0，affected按此累加。
+	 */
+	public List<ChunkResult> upsertBatch(final List<T> list) {
+		return writeChunks(list, getBatchChunkSize(), BatchOp.UPSERT);
+	}
+
+	private enum BatchOp {
+		INSERT, UPDATE, UPSERT
+	}
+
+	private List<ChunkResult> writeChunks(List<T> list, int chunkSize, BatchOp op) {
+		List<ChunkResult> results = new ArrayList<ChunkResult>();
+		if (list == null || list.isEmpty()) {
+			return results;
+		}
+		if (chunkSize <= 0) {
+			chunkSize = getBatchChunkSize();
+		}
+		for (int from = 0; from < list.size(); from += chunkSize) {
+			int to = Math.min(from + chunkSize, list.size());
+			results.add(writeChunk(list.subList(from, to), from, op));
+		}
+		return results;
+	}
+
+	private ChunkResult writeChunk(List<T> chunk, int offset, BatchOp op) {
+		ChunkResult result = new ChunkResult(offset, chunk.size());
+		long start = System.currentTimeMillis();
+		SqlSession session = getSqlSessionFactory().openSession(ExecutorType.BATCH);
+		try {
+			Connection connection = session.getConnection();
+			boolean autoCommit = connection.getAutoCommit();
+			connection.setAutoCommit(false);
+			try {
+				MybatisDao<T, PK> dao = session.getMapper(getEntityDaoClass());
+				if (op == BatchOp.UPSERT) {
+					dao.upsertBatch(chunk);
+				} else {
+					for (T entity : chunk) {
+						if (op == BatchOp.INSERT) {
+							dao.insert(entity);
+						} else {
+							dao.updateByEntity(entity);
+						}
+					}
+				}
+				result.setAffected(affectedRows(session.flushStatements()));
+				connection.commit();
+				result.setSuccess(true);
+			} catch (Exception e) {
+				connection.rollback();
+				result.setError(rootMessage(e));
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+		} catch (SQLException e) {
+			result.setError(rootMessage(e));
+		} finally {
+			session.close();
+			result.setElapsedMillis(System.currentTimeMillis() - start);
+		}
+		return result;
+	}
+
+	private static String rootMessage(Throwable e) {
+		while (e.getCause() != null && e.getCause() != e) {
+			e = e.getCause();
+		}
+		return e.getMessage();
+	}
+
+	private static int affectedRows(List<BatchResult> batchResults) {
+		int affected = 0;
+		for (BatchResult batchResult : batchResults) {
+			for (int count : batchResult.getUpdateCounts()) {
+				if (count > 0) {
+					affected += count;
+				} else if (count == Statement.SUCCESS_NO_INFO) {
+					affected++;
+				}
+			}
+		}
+		return affected;
+	}
+
+	/**
+	 * 子类需要实现该方法，提供分块批量写入使用的会话工厂
+	 */
+	protected abstract SqlSessionFactory getSqlSessionFactory();
+
+	/**
+	 * 子类需要实现该方法，提供分块批量写入时从BATCH会话中取mapper用的dao接口
+	 */
+	protected abstract Class<? extends MybatisDao<T, PK>> getEntityDaoClass();
+
+	/**
+	 * 默认块大小，子类可覆盖
+	 */
+	protected int getBatchChunkSize() {
+		return 1000;
+	}
+
 	public int update(final Map<String, Object> params) {
 		return getEntityDao().update(params);
 	}
@@ -72,16 +217,154 @@ public abstract class BaseService<T extends BaseEntity<PK , T>, PK extends Seria
 		return getEntityDao().findByEntity(entity);
 	}
 
+	/**
+	 * 分页查询，默认依次执行count与find。<br/>
+	 * params中{@link MagicConstants#TOTAL_COUNT}有值时直接使用该总数；<br/>
+	 * {@link MagicConstants#PAGE_MODE}为hasNext时不执行count，多取一行判断是否有下一页，总数为-1；<br/>
+	 * 为parallel时count在另一线程(另一连接)上与find同时执行。
+	 */
 	public Page<T> page(Map<String, Object> params) {
-		long count = getEntityDao().count(params);
 		int limitStart = Objects.strToInt(params.get(MagicConstants.LIMIT_START).toString(), 0);
 		int limitEnd = Objects.strToInt(params.get(MagicConstants.LIMIT_END).toString(), 0);
 		Page<T> dPageTest = new Page<T>(limitStart, limitEnd);
+		Object pageMode = params.get(MagicConstants.PAGE_MODE);
+		Object totalCount = params.get(MagicConstants.TOTAL_COUNT);
+
+		if (MagicConstants.PAGE_MODE_HAS_NEXT.equals(pageMode)) {
+			Map<String, Object> query = new HashMap<String, Object>(params);
+			query.put(MagicConstants.LIMIT_END, limitEnd + 1);
+			List<T> datas = getEntityDao().find(query);
+			boolean hasNext = datas.size() > limitEnd;
+			dPageTest.setData(hasNext ? new ArrayList<T>(datas.subList(0, limitEnd)) : datas);
+			dPageTest.setHasNext(hasNext);
+			dPageTest.setTotalCount(totalCount == null ? -1 : Objects.strToLong(totalCount.toString(), -1));
+			return dPageTest;
+		}
+		if (totalCount != null) {
+			dPageTest.setData(getEntityDao().find(params));
+			dPageTest.setTotalCount(Objects.strToLong(totalCount.toString(), -1));
+			return dPageTest;
+		}
+		if (MagicConstants.PAGE_MODE_PARALLEL.equals(pageMode)) {
+			final Map<String, Object> countParams = new HashMap<String, Object>(params);
+			//count也受请求的截止时间限制，sql记在同一个trace下
+			Future<Long> count = getPageExecutor().submit(ContextTask.wrap(new Callable<Long>() {
+				public Long call() {
+					return getEntityDao().count(countParams);
+				}
+			}));
+			try {
+				dPageTest.setData(getEntityDao().find(params));
+				dPageTest.setTotalCount(waitFor(count));
+			} finally {
+				//find失败时不再等count，已完成时无作用
+				count.cancel(true);
+			}
+			return dPageTest;
+		}
+
+		long count = getEntityDao().count(params);
 		dPageTest.setData(getEntityDao().find(params));
 		dPageTest.setTotalCount(count);
 		return dPageTest;
 	}
 
+	/**
+	 * 游标(keyset)分页，params中afterKey为上一页返回的Page.afterKey，首页不传。<br/>
+	 * 按排序键定位而不是跳过offset行，任意一页的代价都与第一页相同；不执行count，总数为-1。
+	 * @throws IllegalArgumentException limitEnd不大于0，这样的页没有afterKey，按hasNext翻页的调用方会停不下来
+	 */
+	public Page<T> pageAfter(Map<String, Object> params) {
+		int limitEnd = Objects.strToInt(String.valueOf(params.get(MagicConstants.LIMIT_END)), 0);
+		if (limitEnd <= 0) {
+			throw new IllegalArgumentException("pageAfter needs a positive " + MagicConstants.LIMIT_END + ": " + params.get(MagicConstants.LIMIT_END));
+		}
+		Map<String, Object> query = new HashMap<String, Object>(params);
+		query.put(MagicConstants.LIMIT_END, limitEnd + 1);
+		List<T> datas = getEntityDao().findAfter(query);
+		boolean hasNext = datas.size() > limitEnd;
+		if (hasNext) {
+			datas = new ArrayList<T>(datas.subList(0, limitEnd));
+		}
+		Page<T> dPageTest = new Page<T>(limitEnd);
+		dPageTest.setData(datas);
+		dPageTest.setHasNext(hasNext);
+		dPageTest.setTotalCount(-1);
+		if (hasNext) {
+			dPageTest.setAfterKey(getSeekKey(datas.get(limitEnd - 1)));
+		}
+		return dPageTest;
+	}
+
+	public List<T> findAfter(final Map<String, Object> params) {
+		return getEntityDao().findAfter(params);
+	}
+
+	public List<T> findByEntityAfter(final T entity) {
+		return getEntityDao().findByEntityAfter(entity);
+	}
+
+	/**
+	 * 流式查询，逐行回调consumer，整个结果集不会同时留在内存中。<br/>
+	 * 依赖同一连接上的游标，只能在service所在进程内调用，不能经dubbo暴露。
+	 */
+	public void stream(final Map<String, Object> params, final Consumer<? super T> consumer) {
+		getEntityDao().stream(params, new ResultHandler() {
+			@SuppressWarnings("unchecked")
+			public void handleResult(ResultContext context) {
+				consumer.accept((T) context.getResultObject());
+			}
+		});
+	}
+
+	/**
+	 * 子类需要实现该方法，提供游标分页的排序键，需与mapper中findAfter的order by列一致
+	 */
+	protected abstract String getSeekKey(T entity);
+
+	/**
+	 * 并行分页时执行count的线程池，线程用尽时由调用线程执行即退化为顺序执行。子类可覆盖。
+	 */
+	protected ExecutorService getPageExecutor() {
+		return PAGE_EXECUTOR;
+	}
+
+	private static <V> V waitFor(Future<V> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while waiting for count", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	public List<T> find(final QuerySpec spec) {
+		return getEntityDao().find(spec.toParams());
+	}
+
+	public long count(final QuerySpec spec) {
+		return getEntityDao().count(spec.toParams());
+	}
+
+	public Page<T> page(final QuerySpec spec) {
+		return page(spec.toPageParams());
+	}
+
+	public T findOne(final QuerySpec spec) {
+		return findOne(spec.toParams());
+	}
+
+	public Page<T> pageAfter(final QuerySpec spec) {
+		return pageAfter(spec.toPageParams());
+	}
+
 	public T findOne(final T entity) {
 		entity.setLimitStart(0);
 		entity.setLimitEnd(1);
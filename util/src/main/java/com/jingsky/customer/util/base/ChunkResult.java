@@ -0,0 +1,97 @@
+package com.jingsky.customer.util.base;
+
+import java.io.Serializable;
+
+/**
+ * 分块批量写入时单个块的结果，每块单独提交，失败的块已回滚，不影响其他块
+ */
+public class ChunkResult implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 本块第一条记录在原列表中的下标
+	 */
+	private int offset;
+
+	/**
+	 * 本块记录数
+	 */
+	private int size;
+
+	/**
+	 * 影响行数，驱动合并批量语句时无法给出逐行结果，按每条1行计
+	 */
+	private int affected;
+
+	private boolean success;
+
+	/**
+	 * 失败原因，成功时为null
+	 */
+	private String error;
+
+	private long elapsedMillis;
+
+	public ChunkResult() {
+	}
+
+	public ChunkResult(int offset, int size) {
+		this.offset = offset;
+		this.size = size;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public void setOffset(int offset) {
+		this.offset = offset;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public int getAffected() {
+		return affected;
+	}
+
+	public void setAffected(int affected) {
+		this.affected = affected;
+	}
+
+	public boolean isSuccess() {
+		return success;
+	}
+
+	public void setSuccess(boolean success) {
+		this.success = success;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "ChunkResult[offset=" + offset + ",size=" + size + ",affected=" + affected + ",success=" + success
+				+ (error == null ? "" : ",error=" + error) + ",elapsedMillis=" + elapsedMillis + "]";
+	}
+}
@@ -0,0 +1,51 @@
+package com.jingsky.customer.util.base;
+
+import com.jingsky.customer.util.deadline.Deadline;
+import com.jingsky.customer.util.trace.Trace;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把调用线程上的{@link Deadline}以剩余时间(排队的时间也算在内)、{@link Trace}原样带到执行线程的任务包装，
+ * 执行完后在执行线程上清除。线程池用尽、由调用线程自己执行时直接执行，不改动调用线程的设置。
+ */
+final class ContextTask {
+
+	private ContextTask() {
+	}
+
+	/**
+	 * 须在调用线程上包装
+	 */
+	static <V> Callable<V> wrap(final Callable<V> task) {
+		final Thread caller = Thread.currentThread();
+		final boolean deadline = Deadline.isSet();
+		final long submitted = System.nanoTime();
+		final long remainingMillis = Deadline.remainingMillis();
+		final Trace trace = Trace.current();
+		return new Callable<V>() {
+			public V call() throws Exception {
+				if (Thread.currentThread() == caller) {
+					return task.call();
+				}
+				if (deadline) {
+					Deadline.start(remainingMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitted));
+				}
+				if (trace != null) {
+					Trace.attach(trace);
+				}
+				try {
+					return task.call();
+				} finally {
+					if (deadline) {
+						Deadline.clear();
+					}
+					if (trace != null) {
+						Trace.detach();
+					}
+				}
+			}
+		};
+	}
+}
@@ -0,0 +1,29 @@
+package com.jingsky.customer.util.base;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * IBaseService 的异步版本，方法与同步接口一一对应，结果通过CompletableFuture返回。<br/>
+ * CompletableFuture不能经dubbo序列化，本接口只在进程内使用。
+ */
+public interface IAsyncBaseService<T extends BaseEntity<PK, T>, PK extends Serializable> {
+
+    public CompletableFuture<T> get(final PK id);
+
+    public CompletableFuture<List<T>> find(final Map<String, Object> params);
+
+    public CompletableFuture<Long> count(final Map<String, Object> params);
+
+    public CompletableFuture<Page<T>> page(Map<String, Object> params);
+
+    public CompletableFuture<T> findOne(final T entity);
+
+    public CompletableFuture<T> findOne(Map<String, Object> params);
+
+    public CompletableFuture<Integer> insert(final T entity);
+
+    public CompletableFuture<Integer> updateByEntity(final T entity);
+}
@@ -16,6 +16,21 @@ public interface IBaseService <T extends BaseEntity<PK , T>, PK extends Serializ
 
     public int insertBatch(final List<T> list);
 
+    /**
+     * 分块批量写入，每块单独提交，chunkSize不大于0时使用服务端配置的块大小
+     */
+    public List<ChunkResult> insertBatch(final List<T> list, int chunkSize);
+
+    /**
+     * 批量按实体更新，一次调用完成，按块提交
+     */
+    public List<ChunkResult> updateBatch(final List<T> list);
+
+    /**
+     * 批量插入或按主键更新，一次调用完成，按块提交
+     */
+    public List<ChunkResult> upsertBatch(final List<T> list);
+
     public int update(final Map<String, Object> params);
 
     public int remove(final Map<String, Object> params);
@@ -37,4 +52,29 @@ public interface IBaseService <T extends BaseEntity<PK , T>, PK extends Serializ
     public T findOne(final T entity);
 
     public T findOne(Map<String, Object> params) ;
+
+    public List<T> findAfter(final Map<String, Object> params);
+
+    public List<T> findByEntityAfter(final T entity);
+
+    public Page<T> pageAfter(Map<String, Object> params);
+
+    /**
+     * 按QuerySpec查询，分页、排序参数随spec传输，实体只携带数据列
+     */
+    public List<T> find(final QuerySpec spec);
+
+    public long count(final QuerySpec spec);
+
+    /**
+     * 同page(Map)，spec未指定分页时取第一页
+     */
+    public Page<T> page(final QuerySpec spec);
+
+    public T findOne(final QuerySpec spec);
+
+    /**
+     * 同pageAfter(Map)，每页条数取spec.limit，游标取spec.after
+     */
+    public Page<T> pageAfter(final QuerySpec spec);
 }
@@ -0,0 +1,17 @@
+package com.jingsky.customer.util.base;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记参与{@link ObjectSupport}的equals/hashCode/toString的字段。<br/>
+ * 类及其父类中只要有一个字段带此注解，就只比较带注解的字段；都没有时比较全部非static、非transient的字段，BaseEntity的分页、排序参数不参与。
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface IdentityField {
+}
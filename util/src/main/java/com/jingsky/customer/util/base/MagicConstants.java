@@ -15,6 +15,21 @@ public class MagicConstants {
 	public static final String LIMIT_START = "limitStart";
 	public static final String LIMIT_END = "limitEnd";
 	public static final String ORDER_BY = "orderBy";
+
+	/**
+	 * page()的查询方式：parallel 并行执行count与find；hasNext 不执行count，多取一行判断是否有下一页
+	 */
+	public static final String PAGE_MODE = "pageMode";
+	public static final String PAGE_MODE_PARALLEL = "parallel";
+	public static final String PAGE_MODE_HAS_NEXT = "hasNext";
+	/**
+	 * 调用方已知(缓存或估算)的总记录数，传入时page()不再执行count
+	 */
+	public static final String TOTAL_COUNT = "totalCount";
+	/**
+	 * 游标分页的游标：上一页最后一条记录的排序键，对调用方不透明
+	 */
+	public static final String AFTER_KEY = "afterKey";
 	
 	public static final String SESSION_USER = "SESSION_USER";
 	
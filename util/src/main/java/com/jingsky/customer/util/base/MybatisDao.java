@@ -6,6 +6,8 @@
  */
 package com.jingsky.customer.util.base;
 
+import org.apache.ibatis.session.ResultHandler;
+
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +30,11 @@ public interface MybatisDao<T  extends BaseEntity<PK, T>, PK extends Serializabl
 
 	int insertBatch(final List<T> list);
 
+	/**
+	 * 多行insert ... on duplicate key update
+	 */
+	int upsertBatch(final List<T> list);
+
 	int update(final Map<String, Object> params);
 
 	int remove(final Map<String, Object> params);
@@ -44,4 +51,19 @@ public interface MybatisDao<T  extends BaseEntity<PK, T>, PK extends Serializabl
 	
 	List<T> findByEntity(final T entity);
 
+	/**
+	 * 游标分页：按排序键升序取params中afterKey之后的limitEnd条记录
+	 */
+	List<T> findAfter(final Map<String, Object> params);
+
+	/**
+	 * 游标分页：按排序键升序取entity中afterKey之后的limitEnd条记录
+	 */
+	List<T> findByEntityAfter(final T entity);
+
+	/**
+	 * 流式查询：结果逐行交给handler，不组装成List
+	 */
+	void stream(final Map<String, Object> params, ResultHandler handler);
+
 }
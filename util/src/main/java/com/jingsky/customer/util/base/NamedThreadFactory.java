@@ -0,0 +1,30 @@
+package com.jingsky.customer.util.base;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按前缀命名线程的ThreadFactory，便于在线程dump中识别线程池。
+ */
+public class NamedThreadFactory implements ThreadFactory {
+
+	private final String prefix;
+	private final boolean daemon;
+	private final AtomicInteger sequence = new AtomicInteger(1);
+
+	public NamedThreadFactory(String prefix) {
+		this(prefix, true);
+	}
+
+	public NamedThreadFactory(String prefix, boolean daemon) {
+		this.prefix = prefix;
+		this.daemon = daemon;
+	}
+
+	@Override
+	public Thread newThread(Runnable r) {
+		Thread thread = new Thread(r, prefix + "-" + sequence.getAndIncrement());
+		thread.setDaemon(daemon);
+		return thread;
+	}
+}
@@ -0,0 +1,136 @@
+package com.jingsky.customer.util.base;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按类生成的equals/hashCode/toString实现。<br/>
+ * 每个类第一次使用时解析一次字段，生成字段的MethodHandle读取器并按类缓存，之后不再走反射。
+ * 参与比较的字段见{@link IdentityField}。
+ */
+public final class ObjectMethods {
+
+	private static final int INITIAL_HASH = 17;
+	private static final int MULTIPLIER = 31;
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final ClassValue<ObjectMethods> METHODS = new ClassValue<ObjectMethods>() {
+		@Override
+		protected ObjectMethods computeValue(Class<?> type) {
+			return new ObjectMethods(type);
+		}
+	};
+
+	private final String simpleName;
+	private final String[] names;
+	private final MethodHandle[] getters;
+
+	private ObjectMethods(Class<?> type) {
+		List<Field> fields = identityFields(type);
+		this.simpleName = type.getSimpleName();
+		this.names = new String[fields.size()];
+		this.getters = new MethodHandle[fields.size()];
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		for (int i = 0; i < fields.size(); i++) {
+			Field field = fields.get(i);
+			field.setAccessible(true);
+			names[i] = field.getName();
+			try {
+				getters[i] = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException("can not access " + type.getName() + "." + field.getName(), e);
+			}
+		}
+	}
+
+	/**
+	 * @return type对应的实现，每个类只生成一次
+	 */
+	public static ObjectMethods of(Class<?> type) {
+		return METHODS.get(type);
+	}
+
+	/**
+	 * 两者类型相同且各字段nullSafeEquals时相等，数组按元素比较
+	 */
+	public boolean equals(Object self, Object other) {
+		if (self == other) {
+			return true;
+		}
+		if (other == null || self.getClass() != other.getClass()) {
+			return false;
+		}
+		for (MethodHandle getter : getters) {
+			if (!Objects.nullSafeEquals(get(getter, self), get(getter, other))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int hashCode(Object self) {
+		int hash = INITIAL_HASH;
+		for (MethodHandle getter : getters) {
+			hash = MULTIPLIER * hash + Objects.nullSafeHashCode(get(getter, self));
+		}
+		return hash;
+	}
+
+	/**
+	 * 格式：类名[字段=值,字段=值]
+	 */
+	public String toString(Object self) {
+		StringBuilder sb = new StringBuilder(simpleName.length() + 16 * getters.length);
+		sb.append(simpleName).append('[');
+		for (int i = 0; i < getters.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(names[i]).append('=').append(Objects.nullSafeToString(get(getters[i], self)));
+		}
+		return sb.append(']').toString();
+	}
+
+	private static Object get(MethodHandle getter, Object target) {
+		try {
+			return (Object) getter.invokeExact(target);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 从最上层父类开始按声明顺序收集字段，有IdentityField时只取带注解的字段；BaseEntity中的查询参数不算
+	 */
+	private static List<Field> identityFields(Class<?> type) {
+		List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+		for (Class<?> c = type; c != null && c != Object.class && c != ObjectSupport.class && c != BaseEntity.class; c = c.getSuperclass()) {
+			hierarchy.add(0, c);
+		}
+		List<Field> all = new ArrayList<Field>();
+		List<Field> annotated = new ArrayList<Field>();
+		for (Class<?> c : hierarchy) {
+			for (Field field : c.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+					continue;
+				}
+				all.add(field);
+				if (field.isAnnotationPresent(IdentityField.class)) {
+					annotated.add(field);
+				}
+			}
+		}
+		return annotated.isEmpty() ? all : annotated;
+	}
+}
@@ -1,25 +1,23 @@
 package com.jingsky.customer.util.base;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.ToStringBuilder;
-import org.apache.commons.lang3.builder.ToStringStyle;
-
+/**
+ * 按字段实现equals/hashCode/toString，实现由{@link ObjectMethods}按类生成并缓存，参与的字段见{@link IdentityField}。
+ */
 public abstract class ObjectSupport {
 
 	@Override
 	public boolean equals(Object obj) {
-		return EqualsBuilder.reflectionEquals(this, obj);
+		return ObjectMethods.of(getClass()).equals(this, obj);
 	}
 
 	@Override
 	public int hashCode() {
-		return HashCodeBuilder.reflectionHashCode(this);
+		return ObjectMethods.of(getClass()).hashCode(this);
 	}
 
 	@Override
 	public String toString() {
-		return ToStringBuilder.reflectionToString(this, ToStringStyle.MULTI_LINE_STYLE);
+		return ObjectMethods.of(getClass()).toString(this);
 	}
 
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.jingsky.customer.util.base;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,12 +12,16 @@ import java.util.List;
  * @param <T>
  *            Page中记录的类型.
  */
-public class Page<T> {
+public class Page<T> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	protected int pageStart = 1;
 	protected int pageSize = 0;
 	protected List<T> data =new ArrayList<T>();
 	protected long totalCount = 0;
+	protected Boolean hasNext;
+	protected String afterKey;
 
 	public Page() {
 	}
@@ -108,14 +113,35 @@ public class Page<T> {
 	}
 
 	/**
-	 * 是否还有下一页.
+	 * 是否还有下一页. 未统计总数时以查询时直接得出的结果为准.
 	 *
 	 * @return boolean
 	 */
 	public boolean isHasNext() {
+		if (hasNext != null) {
+			return hasNext;
+		}
 		return (pageStart + 1 <= getTotalPages());
 	}
 
+	/**
+	 * 直接设置是否还有下一页,用于不执行count的分页查询.
+	 */
+	public void setHasNext(final Boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+	/**
+	 * 游标分页时取下一页用的游标,原样传回即可,没有下一页时为null.
+	 */
+	public String getAfterKey() {
+		return afterKey;
+	}
+
+	public void setAfterKey(final String afterKey) {
+		this.afterKey = afterKey;
+	}
+
 	/**
 	 * 取得下页的页号, 序号从1开始. 当前页为尾页时仍返回尾页序号.
 	 */
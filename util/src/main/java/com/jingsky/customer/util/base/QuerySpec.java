@@ -0,0 +1,156 @@
+package com.jingsky.customer.util.base;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 查询条件、分页与排序，作为{@link IBaseService}中列表查询的参数经dubbo传输，实体本身不再携带分页状态。<br/>
+ * 条件的键与mapper中whereConditions的参数名一致，如name、nameLK、ageGT；页号从1开始。<br/>
+ * 如：new QuerySpec().where("ageGT", 18).page(2, 20).orderBy("name")
+ */
+public class QuerySpec implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 分页查询未指定每页条数时的默认值，与BaseEntity一致
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 10;
+
+	private Map<String, Object> criteria = new LinkedHashMap<String, Object>();
+	private Integer pageIndex;
+	private Integer pageSize;
+	private String orderBy;
+	private String afterKey;
+	private String pageMode;
+	private Long totalCount;
+
+	public QuerySpec() {
+	}
+
+	/**
+	 * 增加一个查询条件，value为null时忽略
+	 */
+	public QuerySpec where(String key, Object value) {
+		if (value != null) {
+			criteria.put(key, value);
+		}
+		return this;
+	}
+
+	/**
+	 * @param pageIndex 页号，从1开始
+	 * @param pageSize 每页条数
+	 */
+	public QuerySpec page(int pageIndex, int pageSize) {
+		this.pageIndex = pageIndex;
+		this.pageSize = pageSize;
+		return this;
+	}
+
+	/**
+	 * 只取前size条，游标分页时为每页条数
+	 */
+	public QuerySpec limit(int size) {
+		return page(1, size);
+	}
+
+	public QuerySpec orderBy(String orderBy) {
+		this.orderBy = orderBy;
+		return this;
+	}
+
+	/**
+	 * 游标分页：上一页返回的{@link Page#getAfterKey()}，首页不设置
+	 */
+	public QuerySpec after(String afterKey) {
+		this.afterKey = afterKey;
+		return this;
+	}
+
+	/**
+	 * 取值见{@link MagicConstants#PAGE_MODE}
+	 */
+	public QuerySpec pageMode(String pageMode) {
+		this.pageMode = pageMode;
+		return this;
+	}
+
+	/**
+	 * 调用方已知的总记录数，分页时不再执行count
+	 */
+	public QuerySpec totalCount(long totalCount) {
+		this.totalCount = totalCount;
+		return this;
+	}
+
+	/**
+	 * 转换为mapper使用的参数map，每次返回新的map
+	 */
+	public Map<String, Object> toParams() {
+		Map<String, Object> params = new HashMap<String, Object>(criteria);
+		if (pageIndex != null && pageSize != null && pageSize > 0) {
+			params.put(MagicConstants.LIMIT_START, (Math.max(pageIndex, 1) - 1) * pageSize);
+			params.put(MagicConstants.LIMIT_END, pageSize);
+		}
+		putIfNotNull(params, MagicConstants.ORDER_BY, orderBy);
+		putIfNotNull(params, MagicConstants.AFTER_KEY, afterKey);
+		putIfNotNull(params, MagicConstants.PAGE_MODE, pageMode);
+		putIfNotNull(params, MagicConstants.TOTAL_COUNT, totalCount);
+		return params;
+	}
+
+	/**
+	 * 同toParams，未指定分页时按第一页、{@link #DEFAULT_PAGE_SIZE}条
+	 */
+	Map<String, Object> toPageParams() {
+		Map<String, Object> params = toParams();
+		if (!params.containsKey(MagicConstants.LIMIT_END)) {
+			params.put(MagicConstants.LIMIT_START, 0);
+			params.put(MagicConstants.LIMIT_END, DEFAULT_PAGE_SIZE);
+		}
+		return params;
+	}
+
+	private static void putIfNotNull(Map<String, Object> params, String key, Object value) {
+		if (value != null) {
+			params.put(key, value);
+		}
+	}
+
+	public Map<String, Object> getCriteria() {
+		return criteria;
+	}
+
+	public Integer getPageIndex() {
+		return pageIndex;
+	}
+
+	public Integer getPageSize() {
+		return pageSize;
+	}
+
+	public String getOrderBy() {
+		return orderBy;
+	}
+
+	public String getAfterKey() {
+		return afterKey;
+	}
+
+	public String getPageMode() {
+		return pageMode;
+	}
+
+	public Long getTotalCount() {
+		return totalCount;
+	}
+
+	@Override
+	public String toString() {
+		return "QuerySpec[criteria=" + criteria + ",pageIndex=" + pageIndex + ",pageSize=" + pageSize + ",orderBy="
+				+ orderBy + ",afterKey=" + afterKey + ",pageMode=" + pageMode + ",totalCount=" + totalCount + "]";
+	}
+}
@@ -0,0 +1,317 @@
+package com.jingsky.customer.util.cache;
+
+import org.apache.log4j.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 进程内的有界缓存，按近似的最近最少使用(LRU)及存活时间(TTL)两种方式淘汰。<br/>
+ * 读取不加锁，只记下访问时间；超出上限时由一个put线程按访问时间淘汰到上限的15/16，其它put不等待，
+ * 因此并发put时条目数可能短暂超出上限。<br/>
+ * 从数据库读出后放入缓存的，先取{@link #stamp}，再以{@link #put(Object, Object, long)}放入，
+ * 读取期间发生的invalidate会使这次放入作废，更新前读到的旧值不会放回缓存。<br/>
+ * 不缓存null值；命中、未命中、淘汰次数可通过JMX查看。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LocalCache<K, V> implements LocalCacheMBean {
+
+	private static final Logger log = Logger.getLogger(LocalCache.class);
+
+	/**
+	 * invalidate版本号的分段数，同一分段的key共用版本号
+	 */
+	private static final int STRIPES = 64;
+
+	private final String name;
+	private final int maxSize;
+	private final long ttlMillis;
+	private final ConcurrentHashMap<K, Entry<V>> map;
+	private final AtomicLongArray stamps = new AtomicLongArray(STRIPES);
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder evictionCount = new LongAdder();
+
+	/**
+	 * @param name 缓存名称，用于JMX注册
+	 * @param maxSize 最大条目数，超出后淘汰最久未访问的条目
+	 * @param ttlMillis 条目存活毫秒数，小于等于0表示不按时间淘汰
+	 */
+	public LocalCache(String name, int maxSize, long ttlMillis) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+		}
+		this.name = name;
+		this.maxSize = maxSize;
+		this.ttlMillis = ttlMillis;
+		this.map = new ConcurrentHashMap<K, Entry<V>>(Math.min(maxSize, 1024));
+	}
+
+	/**
+	 * 读取缓存，过期条目视为未命中并被淘汰。
+	 * @return 缓存值，未命中返回null
+	 */
+	public V get(K key) {
+		if (key == null) {
+			return null;
+		}
+		Entry<V> entry = map.get(key);
+		long now = System.currentTimeMillis();
+		if (entry != null && entry.isExpired(now)) {
+			if (map.remove(key, entry)) {
+				evictionCount.increment();
+			}
+			entry = null;
+		}
+		if (entry == null) {
+			missCount.increment();
+			return null;
+		}
+		//同一毫秒内不重复写，热点key不在各cpu间来回同步
+		if (entry.accessed != now) {
+			entry.accessed = now;
+		}
+		hitCount.increment();
+		return entry.value;
+	}
+
+	/**
+	 * 直接放入，值不是从可能被并发修改的数据源读出时使用
+	 */
+	public void put(K key, V value) {
+		if (key == null || value == null) {
+			return;
+		}
+		map.put(key, newEntry(value));
+		evictIfNeeded();
+	}
+
+	/**
+	 * 读数据源之前取得，用于{@link #put(Object, Object, long)}
+	 */
+	public long stamp(K key) {
+		return stamps.get(stripe(key));
+	}
+
+	/**
+	 * 放入取得stamp之后读出的值，其间key(或同一分段的其它key)被invalidate过时不放入。
+	 * @return 是否已放入
+	 */
+	public boolean put(K key, V value, long stamp) {
+		if (key == null || value == null) {
+			return false;
+		}
+		int stripe = stripe(key);
+		if (stamps.get(stripe) != stamp) {
+			return false;
+		}
+		Entry<V> entry = newEntry(value);
+		map.put(key, entry);
+		//检查之后、放入之前的invalidate可能已先执行了remove，放入后再检查一次
+		if (stamps.get(stripe) != stamp) {
+			map.remove(key, entry);
+			return false;
+		}
+		evictIfNeeded();
+		return true;
+	}
+
+	public void invalidate(K key) {
+		if (key == null) {
+			return;
+		}
+		//先改版本号再删除，与put的检查顺序相反，两者交错时总有一方去掉旧值
+		stamps.incrementAndGet(stripe(key));
+		map.remove(key);
+	}
+
+	public void invalidateAll() {
+		for (int i = 0; i < STRIPES; i++) {
+			stamps.incrementAndGet(i);
+		}
+		map.clear();
+	}
+
+	/**
+	 * 清理所有已过期的条目
+	 */
+	public void cleanUp() {
+		long now = System.currentTimeMillis();
+		Iterator<Entry<V>> it = map.values().iterator();
+		while (it.hasNext()) {
+			if (it.next().isExpired(now)) {
+				it.remove();
+				evictionCount.increment();
+			}
+		}
+	}
+
+	private Entry<V> newEntry(V value) {
+		long now = System.currentTimeMillis();
+		return new Entry<V>(value, ttlMillis > 0 ? now + ttlMillis : Long.MAX_VALUE, now);
+	}
+
+	private static int stripe(Object key) {
+		int h = key.hashCode();
+		return (h ^ (h >>> 16)) & (STRIPES - 1);
+	}
+
+	/**
+	 * 超出上限时先去掉过期条目，再按访问时间淘汰到上限的15/16，每次排序的开销分摊到其后的多次put
+	 */
+	private void evictIfNeeded() {
+		if (map.size() <= maxSize || !evictionLock.tryLock()) {
+			return;
+		}
+		try {
+			if (map.size() <= maxSize) {
+				return;
+			}
+			long now = System.currentTimeMillis();
+			List<Candidate<K, V>> candidates = new ArrayList<Candidate<K, V>>(map.size());
+			for (Map.Entry<K, Entry<V>> e : map.entrySet()) {
+				Entry<V> entry = e.getValue();
+				if (entry.isExpired(now)) {
+					if (map.remove(e.getKey(), entry)) {
+						evictionCount.increment();
+					}
+				} else {
+					//访问时间先取出来，排序期间不再变化
+					candidates.add(new Candidate<K, V>(e.getKey(), entry, entry.accessed));
+				}
+			}
+			int excess = candidates.size() - (maxSize - maxSize / 16);
+			if (excess <= 0) {
+				return;
+			}
+			Collections.sort(candidates, new Comparator<Candidate<K, V>>() {
+				@Override
+				public int compare(Candidate<K, V> o1, Candidate<K, V> o2) {
+					return Long.compare(o1.accessed, o2.accessed);
+				}
+			});
+			for (int i = 0; i < excess; i++) {
+				Candidate<K, V> candidate = candidates.get(i);
+				if (map.remove(candidate.key, candidate.entry)) {
+					evictionCount.increment();
+				}
+			}
+		} finally {
+			evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * 以 com.jingsky.customer:type=LocalCache,name=缓存名 注册到平台MBeanServer，
+	 * 注册失败只记录日志，不影响缓存使用。
+	 */
+	public LocalCache<K, V> registerMBean() {
+		try {
+			ObjectName objectName = new ObjectName("com.jingsky.customer:type=LocalCache,name=" + name);
+			if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			}
+		} catch (Exception e) {
+			log.warn("register cache mbean " + name + " failed", e);
+		}
+		return this;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	@Override
+	public long getTtlMillis() {
+		return ttlMillis;
+	}
+
+	@Override
+	public int getSize() {
+		return map.size();
+	}
+
+	@Override
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	@Override
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	@Override
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	@Override
+	public double getHitRate() {
+		long hits = hitCount.sum();
+		long total = hits + missCount.sum();
+		return total == 0 ? 0D : (double) hits / total;
+	}
+
+	@Override
+	public void clear() {
+		invalidateAll();
+	}
+
+	@Override
+	public String toString() {
+		return "LocalCache[" + name + ",size=" + getSize() + ",hit=" + getHitCount() + ",miss=" + getMissCount()
+				+ ",eviction=" + getEvictionCount() + "]";
+	}
+
+	private static final class Entry<V> {
+		final V value;
+		final long expireAt;
+		/**
+		 * 最近一次读取的时间，近似LRU用，并发写入时谁覆盖谁都可以
+		 */
+		volatile long accessed;
+
+		Entry(V value, long expireAt, long accessed) {
+			this.value = value;
+			this.expireAt = expireAt;
+			this.accessed = accessed;
+		}
+
+		boolean isExpired(long now) {
+			return now >= expireAt;
+		}
+	}
+
+	private static final class Candidate<K, V> {
+		final K key;
+		final Entry<V> entry;
+		final long accessed;
+
+		Candidate(K key, Entry<V> entry, long accessed) {
+			this.key = key;
+			this.entry = entry;
+			this.accessed = accessed;
+		}
+	}
+}
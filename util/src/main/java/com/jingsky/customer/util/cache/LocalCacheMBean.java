@@ -0,0 +1,25 @@
+package com.jingsky.customer.util.cache;
+
+/**
+ * LocalCache 的JMX视图
+ */
+public interface LocalCacheMBean {
+
+	String getName();
+
+	int getMaxSize();
+
+	long getTtlMillis();
+
+	int getSize();
+
+	long getHitCount();
+
+	long getMissCount();
+
+	long getEvictionCount();
+
+	double getHitRate();
+
+	void clear();
+}
@@ -0,0 +1,131 @@
+package com.jingsky.customer.util.cache;
+
+import org.apache.log4j.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 纯函数结果的有界并发缓存，适合取值范围小且反复出现的键，如列名、属性名。<br/>
+ * 读取不加锁，命中时不创建任何对象；条目数达到上限后不再加入新条目，也不淘汰旧条目，
+ * 未缓存的键每次直接计算并计入溢出次数，避免不可控的输入把常用条目挤掉。<br/>
+ * 命中、未命中、溢出次数可通过JMX查看。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class MemoCache<K, V> implements MemoCacheMBean {
+
+	private static final Logger log = Logger.getLogger(MemoCache.class);
+
+	private final String name;
+	private final int maxSize;
+	private final ConcurrentHashMap<K, V> map;
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder overflowCount = new LongAdder();
+
+	/**
+	 * @param name 缓存名称，用于JMX注册
+	 * @param maxSize 最大条目数，并发加入时可能略微超出
+	 */
+	public MemoCache(String name, int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+		}
+		this.name = name;
+		this.maxSize = maxSize;
+		this.map = new ConcurrentHashMap<K, V>(Math.min(maxSize, 256));
+	}
+
+	/**
+	 * 读取key对应的值，未命中时用function计算，未满时放入缓存。
+	 * @param function 同一个key必须总是得到相同的结果，不能返回null
+	 */
+	public V get(K key, Function<? super K, ? extends V> function) {
+		V value = map.get(key);
+		if (value != null) {
+			hitCount.increment();
+			return value;
+		}
+		missCount.increment();
+		value = function.apply(key);
+		if (map.size() < maxSize) {
+			map.putIfAbsent(key, value);
+		} else {
+			overflowCount.increment();
+		}
+		return value;
+	}
+
+	/**
+	 * 以 com.jingsky.customer:type=MemoCache,name=缓存名 注册到平台MBeanServer，
+	 * 注册失败只记录日志，不影响缓存使用。
+	 */
+	public MemoCache<K, V> registerMBean() {
+		try {
+			ObjectName objectName = new ObjectName("com.jingsky.customer:type=MemoCache,name=" + name);
+			if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			}
+		} catch (Exception e) {
+			log.warn("register cache mbean " + name + " failed", e);
+		}
+		return this;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	@Override
+	public int getSize() {
+		return map.size();
+	}
+
+	@Override
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	@Override
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * 缓存已满而未能加入的次数，持续增长说明maxSize偏小或键不是固定的词汇
+	 */
+	@Override
+	public long getOverflowCount() {
+		return overflowCount.sum();
+	}
+
+	@Override
+	public double getHitRate() {
+		long hits = hitCount.sum();
+		long total = hits + missCount.sum();
+		return total == 0 ? 0D : (double) hits / total;
+	}
+
+	@Override
+	public void clear() {
+		map.clear();
+	}
+
+	@Override
+	public String toString() {
+		return "MemoCache[" + name + ",size=" + getSize() + ",hit=" + getHitCount() + ",miss=" + getMissCount()
+				+ ",overflow=" + getOverflowCount() + "]";
+	}
+}
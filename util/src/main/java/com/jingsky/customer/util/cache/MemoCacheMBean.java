@@ -0,0 +1,23 @@
+package com.jingsky.customer.util.cache;
+
+/**
+ * MemoCache 的JMX视图
+ */
+public interface MemoCacheMBean {
+
+	String getName();
+
+	int getMaxSize();
+
+	int getSize();
+
+	long getHitCount();
+
+	long getMissCount();
+
+	long getOverflowCount();
+
+	double getHitRate();
+
+	void clear();
+}
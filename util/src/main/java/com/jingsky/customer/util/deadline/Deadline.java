@@ -0,0 +1,57 @@
+package com.jingsky.customer.util.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 当前线程上请求的截止时间。web按接口设置，经dubbo附件以剩余毫秒数传给服务端，服务端再据此限制每条sql的执行时间，
+ * 每经过一跳剩余时间都只会变少。<br/>
+ * 未设置时不做任何限制；设置后必须在finally中{@link #clear()}，线程会被复用。
+ */
+public final class Deadline {
+
+	/**
+	 * dubbo附件名，值为发出调用时剩余的毫秒数。不传绝对时间，两端时钟不必一致
+	 */
+	public static final String ATTACHMENT_KEY = "deadline.remaining";
+
+	private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<Long>();
+
+	private Deadline() {
+	}
+
+	/**
+	 * 从现在起timeoutMillis毫秒后截止，覆盖之前的设置
+	 */
+	public static void start(long timeoutMillis) {
+		DEADLINE.set(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+	}
+
+	public static boolean isSet() {
+		return DEADLINE.get() != null;
+	}
+
+	/**
+	 * 剩余毫秒数，已超时时不大于0，未设置时为Long.MAX_VALUE
+	 */
+	public static long remainingMillis() {
+		Long deadline = DEADLINE.get();
+		if (deadline == null) {
+			return Long.MAX_VALUE;
+		}
+		return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+	}
+
+	/**
+	 * 已设置且已超时时抛出{@link DeadlineExceededException}
+	 * @param what 超时时正要做的事，写入异常信息
+	 */
+	public static void check(String what) {
+		if (isSet() && remainingMillis() <= 0) {
+			throw new DeadlineExceededException("deadline exceeded before " + what);
+		}
+	}
+
+	public static void clear() {
+		DEADLINE.remove();
+	}
+}
@@ -0,0 +1,33 @@
+package com.jingsky.customer.util.deadline;
+
+import java.sql.SQLTimeoutException;
+
+/**
+ * 请求在截止时间内未完成，错误码见error-code.properties
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final int CODE = -1002;
+
+	public DeadlineExceededException(String message) {
+		super(message);
+	}
+
+	public int getCode() {
+		return CODE;
+	}
+
+	/**
+	 * 异常链中是否有截止时间导致的失败：本异常，或jdbc驱动因查询超时取消语句
+	 */
+	public static boolean isCausedBy(Throwable e) {
+		for (Throwable t = e; t != null; t = t.getCause() == t ? null : t.getCause()) {
+			if (t instanceof DeadlineExceededException || t instanceof SQLTimeoutException) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
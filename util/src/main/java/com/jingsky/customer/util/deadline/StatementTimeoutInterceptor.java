@@ -0,0 +1,48 @@
+package com.jingsky.customer.util.deadline;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * mybatis插件：当前线程设置了{@link Deadline}时，已超时则不再执行sql，否则把语句的查询超时缩短到剩余时间(向上取整到秒)。<br/>
+ * 须同时配置defaultStatementTimeout，mybatis才会在每次prepare时重设超时，连接池缓存的语句不会沿用上次缩短的值。
+ */
+@Intercepts({@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class})})
+public class StatementTimeoutInterceptor implements Interceptor {
+
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		if (!Deadline.isSet()) {
+			return invocation.proceed();
+		}
+		//sql只在已超时时取出拼接，正常执行的语句不多做字符串操作
+		if (Deadline.remainingMillis() <= 0) {
+			StatementHandler handler = (StatementHandler) invocation.getTarget();
+			Deadline.check("executing " + handler.getBoundSql().getSql());
+		}
+		Statement statement = (Statement) invocation.proceed();
+		long seconds = Math.max(1, (Deadline.remainingMillis() + 999) / 1000);
+		int current = statement.getQueryTimeout();
+		if (current == 0 || seconds < current) {
+			statement.setQueryTimeout((int) seconds);
+		}
+		return statement;
+	}
+
+	@Override
+	public Object plugin(Object target) {
+		return Plugin.wrap(target, this);
+	}
+
+	@Override
+	public void setProperties(Properties properties) {
+	}
+}
@@ -0,0 +1,10 @@
+package com.jingsky.customer.util.metrics;
+
+/**
+ * 一组指标的来源，每次抓取时由{@link Metrics}调用，把当前值写出。<br/>
+ * 在抓取线程上执行，实现只读取计数，不应阻塞。
+ */
+public interface Collector {
+
+	void collect(MetricWriter writer);
+}
@@ -0,0 +1,71 @@
+package com.jingsky.customer.util.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 只增不减的计数，可带一个标签，与{@link Histogram}配合记录次数类指标，如出错次数。
+ */
+public class Counter implements Collector {
+
+	private final String name;
+	private final String help;
+	private final String labelName;
+	private final ConcurrentMap<String, LongAdder> children = new ConcurrentHashMap<String, LongAdder>();
+	private final LongAdder unlabeled;
+
+	/**
+	 * @param name 以_total结尾
+	 * @param labelName 标签名，null表示不带标签
+	 */
+	public Counter(String name, String help, String labelName) {
+		this.name = name;
+		this.help = help;
+		this.labelName = labelName;
+		this.unlabeled = labelName == null ? new LongAdder() : null;
+	}
+
+	public LongAdder labels(String value) {
+		if (labelName == null) {
+			throw new IllegalStateException(name + " has no label");
+		}
+		LongAdder child = children.get(value);
+		if (child == null) {
+			LongAdder created = new LongAdder();
+			child = children.putIfAbsent(value, created);
+			if (child == null) {
+				child = created;
+			}
+		}
+		return child;
+	}
+
+	public void increment() {
+		add(1);
+	}
+
+	public void add(long n) {
+		if (unlabeled == null) {
+			throw new IllegalStateException(name + " needs a " + labelName + " label");
+		}
+		unlabeled.add(n);
+	}
+
+	public void clear() {
+		children.clear();
+	}
+
+	@Override
+	public void collect(MetricWriter writer) {
+		writer.family(name, help, "counter");
+		if (unlabeled != null) {
+			writer.sample(name, unlabeled.sum());
+		} else {
+			for (Map.Entry<String, LongAdder> entry : children.entrySet()) {
+				writer.sample(name, entry.getValue().sum(), labelName, entry.getKey());
+			}
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package com.jingsky.customer.util.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图，可带一个标签，每个标签值一组桶。<br/>
+ * 记录时只做一次桶查找和几次LongAdder累加，不分配对象；按秒为单位输出为Prometheus的histogram。
+ * 如：new Histogram("sql_duration_seconds", "...", "statement").labels(id).observeNanos(nanos)
+ */
+public class Histogram implements Collector {
+
+	/**
+	 * 默认桶上界(秒)，从0.5ms到10s
+	 */
+	public static final double[] DEFAULT_BUCKETS = {0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5,
+			1, 2.5, 5, 10};
+
+	private final String name;
+	private final String help;
+	private final String labelName;
+	private final double[] buckets;
+	private final long[] bucketNanos;
+	private final ConcurrentMap<String, Child> children = new ConcurrentHashMap<String, Child>();
+	private final Child unlabeled;
+
+	/**
+	 * @param labelName 标签名，null表示不带标签
+	 */
+	public Histogram(String name, String help, String labelName) {
+		this(name, help, labelName, DEFAULT_BUCKETS);
+	}
+
+	/**
+	 * @param buckets 递增的桶上界(秒)，不含+Inf
+	 */
+	public Histogram(String name, String help, String labelName, double[] buckets) {
+		this.name = name;
+		this.help = help;
+		this.labelName = labelName;
+		this.buckets = buckets.clone();
+		this.bucketNanos = new long[buckets.length];
+		for (int i = 0; i < buckets.length; i++) {
+			if (i > 0 && buckets[i] <= buckets[i - 1]) {
+				throw new IllegalArgumentException("buckets must increase: " + buckets[i]);
+			}
+			bucketNanos[i] = (long) (buckets[i] * TimeUnit.SECONDS.toNanos(1));
+		}
+		this.unlabeled = labelName == null ? new Child(buckets.length) : null;
+	}
+
+	/**
+	 * 标签值对应的一组桶，首次使用时创建
+	 */
+	public Child labels(String value) {
+		if (labelName == null) {
+			throw new IllegalStateException(name + " has no label");
+		}
+		Child child = children.get(value);
+		if (child == null) {
+			Child created = new Child(buckets.length);
+			child = children.putIfAbsent(value, created);
+			if (child == null) {
+				child = created;
+			}
+		}
+		return child;
+	}
+
+	/**
+	 * 不带标签时记录一次耗时
+	 */
+	public void observeNanos(long nanos) {
+		if (unlabeled == null) {
+			throw new IllegalStateException(name + " needs a " + labelName + " label");
+		}
+		unlabeled.observeNanos(nanos);
+	}
+
+	public void clear() {
+		children.clear();
+	}
+
+	@Override
+	public void collect(MetricWriter writer) {
+		writer.family(name, help, "histogram");
+		if (unlabeled != null) {
+			unlabeled.collect(writer, null);
+		} else {
+			for (Map.Entry<String, Child> entry : children.entrySet()) {
+				entry.getValue().collect(writer, entry.getKey());
+			}
+		}
+	}
+
+	public class Child {
+
+		/**
+		 * 各桶自身的计数，输出时累加；最后一个为+Inf
+		 */
+		private final LongAdder[] counts;
+		private final LongAdder sumNanos = new LongAdder();
+
+		private Child(int bucketCount) {
+			counts = new LongAdder[bucketCount + 1];
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = new LongAdder();
+			}
+		}
+
+		public void observeNanos(long nanos) {
+			int i = 0;
+			while (i < bucketNanos.length && nanos > bucketNanos[i]) {
+				i++;
+			}
+			counts[i].increment();
+			sumNanos.add(nanos);
+		}
+
+		public long getCount() {
+			long count = 0;
+			for (LongAdder adder : counts) {
+				count += adder.sum();
+			}
+			return count;
+		}
+
+		public long getSumNanos() {
+			return sumNanos.sum();
+		}
+
+		private void collect(MetricWriter writer, String labelValue) {
+			long cumulative = 0;
+			for (int i = 0; i < counts.length; i++) {
+				cumulative += counts[i].sum();
+				String le = i < buckets.length ? Double.toString(buckets[i]) : "+Inf";
+				if (labelValue == null) {
+					writer.sample(name + "_bucket", cumulative, "le", le);
+				} else {
+					writer.sample(name + "_bucket", cumulative, labelName, labelValue, "le", le);
+				}
+			}
+			double sumSeconds = sumNanos.sum() / 1e9;
+			if (labelValue == null) {
+				writer.sample(name + "_sum", sumSeconds);
+				writer.sample(name + "_count", cumulative);
+			} else {
+				writer.sample(name + "_sum", sumSeconds, labelName, labelValue);
+				writer.sample(name + "_count", cumulative, labelName, labelValue);
+			}
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.jingsky.customer.util.metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * 堆内存、线程数及各垃圾收集器的次数和耗时。
+ */
+public class JvmCollector implements Collector {
+
+	@Override
+	public void collect(MetricWriter writer) {
+		MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		writer.family("jvm_memory_heap_used_bytes", "Used heap", "gauge")
+				.sample("jvm_memory_heap_used_bytes", heap.getUsed());
+		writer.family("jvm_memory_heap_max_bytes", "Max heap,-1 when undefined", "gauge")
+				.sample("jvm_memory_heap_max_bytes", heap.getMax());
+
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		writer.family("jvm_threads_live", "Live threads", "gauge")
+				.sample("jvm_threads_live", threads.getThreadCount());
+
+		writer.family("jvm_gc_collections_total", "Collections per collector", "counter");
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			writer.sample("jvm_gc_collections_total", gc.getCollectionCount(), "gc", gc.getName());
+		}
+		writer.family("jvm_gc_collection_seconds_total", "Time spent in collections per collector", "counter");
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			writer.sample("jvm_gc_collection_seconds_total", gc.getCollectionTime() / 1000d, "gc", gc.getName());
+		}
+	}
+}
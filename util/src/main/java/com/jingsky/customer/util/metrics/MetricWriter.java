@@ -0,0 +1,84 @@
+package com.jingsky.customer.util.metrics;
+
+/**
+ * 按Prometheus文本格式(0.0.4)写出指标。<br/>
+ * 每个指标先写{@link #family}，再写它的各个样本；标签以名、值交替给出，如sample("x_total", 3, "pool", "main")。
+ */
+public class MetricWriter {
+
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private final StringBuilder out;
+
+	public MetricWriter(StringBuilder out) {
+		this.out = out;
+	}
+
+	/**
+	 * @param type counter、gauge、histogram之一
+	 */
+	public MetricWriter family(String name, String help, String type) {
+		out.append("# HELP ").append(name).append(' ');
+		for (int i = 0; i < help.length(); i++) {
+			char c = help.charAt(i);
+			if (c == '\\') {
+				out.append("\\\\");
+			} else if (c == '\n') {
+				out.append("\\n");
+			} else {
+				out.append(c);
+			}
+		}
+		out.append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+		return this;
+	}
+
+	public MetricWriter sample(String name, double value, String... labels) {
+		out.append(name);
+		if (labels.length > 0) {
+			out.append('{');
+			for (int i = 0; i + 1 < labels.length; i += 2) {
+				if (i > 0) {
+					out.append(',');
+				}
+				out.append(labels[i]).append("=\"");
+				appendLabelValue(labels[i + 1]);
+				out.append('"');
+			}
+			out.append('}');
+		}
+		out.append(' ');
+		appendValue(value);
+		out.append('\n');
+		return this;
+	}
+
+	private void appendLabelValue(String value) {
+		if (value == null) {
+			return;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' || c == '"') {
+				out.append('\\').append(c);
+			} else if (c == '\n') {
+				out.append("\\n");
+			} else {
+				out.append(c);
+			}
+		}
+	}
+
+	private void appendValue(double value) {
+		if (Double.isNaN(value)) {
+			out.append("NaN");
+		} else if (Double.isInfinite(value)) {
+			out.append(value > 0 ? "+Inf" : "-Inf");
+		} else if (value == (long) value) {
+			out.append((long) value);
+		} else {
+			out.append(value);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.jingsky.customer.util.metrics;
+
+import org.apache.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * 进程内的指标注册表，{@link MetricsHttpServer}抓取时依次调用所有{@link Collector}，
+ * 并按路径提供其它文本内容，如语句明细。<br/>
+ * 每个类加载器一个实例，默认已注册{@link JvmCollector}。
+ */
+public final class Metrics {
+
+	private static final Logger logger = Logger.getLogger(Metrics.class);
+
+	private static final Metrics INSTANCE = new Metrics();
+
+	private final List<Collector> collectors = new CopyOnWriteArrayList<Collector>();
+	private final Map<String, Supplier<String>> endpoints = new ConcurrentHashMap<String, Supplier<String>>();
+
+	private Metrics() {
+		collectors.add(new JvmCollector());
+	}
+
+	public static Metrics get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * 注册collector，已注册的不重复添加
+	 * @return collector本身
+	 */
+	public <C extends Collector> C register(C collector) {
+		if (!collectors.contains(collector)) {
+			collectors.add(collector);
+		}
+		return collector;
+	}
+
+	public void unregister(Collector collector) {
+		collectors.remove(collector);
+	}
+
+	/**
+	 * 在{@link MetricsHttpServer}上以path提供content生成的纯文本，同一path后注册的覆盖之前的
+	 * @param path 以/开头，不能是/metrics
+	 */
+	public void registerEndpoint(String path, Supplier<String> content) {
+		endpoints.put(path, content);
+	}
+
+	/**
+	 * path对应的内容，未注册时为null
+	 */
+	Supplier<String> endpoint(String path) {
+		return endpoints.get(path);
+	}
+
+	/**
+	 * 以文本格式写出所有指标，单个collector出错时跳过它
+	 */
+	public String scrape() {
+		StringBuilder out = new StringBuilder(8192);
+		MetricWriter writer = new MetricWriter(out);
+		for (Collector collector : collectors) {
+			int length = out.length();
+			try {
+				collector.collect(writer);
+			} catch (RuntimeException e) {
+				out.setLength(length);
+				logger.warn("collect metrics of " + collector.getClass().getName() + " failed", e);
+			}
+		}
+		return out.toString();
+	}
+}
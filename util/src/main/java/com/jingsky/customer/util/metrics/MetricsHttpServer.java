@@ -0,0 +1,120 @@
+package com.jingsky.customer.util.metrics;
+
+import com.jingsky.customer.util.base.NamedThreadFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 以jdk自带的HttpServer在单独端口上提供GET /metrics，返回{@link Metrics}的文本格式，不依赖servlet容器；
+ * 其它路径为{@link Metrics#registerEndpoint}注册的文本，如/statements。<br/>
+ * 单线程处理请求；端口不大于0时不启动，端口被占用时只记录警告，不影响应用启动。<br/>
+ * 没有鉴权，默认只监听127.0.0.1，由本机的采集程序或代理访问；host为0.0.0.0时监听所有网卡。
+ */
+public class MetricsHttpServer {
+
+	private static final Logger logger = Logger.getLogger(MetricsHttpServer.class);
+
+	private static final String TEXT = "text/plain; charset=utf-8";
+
+	public static final String DEFAULT_HOST = "127.0.0.1";
+
+	private final String host;
+	private final int port;
+	private HttpServer server;
+	private ExecutorService executor;
+
+	/**
+	 * 只监听127.0.0.1
+	 */
+	public MetricsHttpServer(int port) {
+		this(DEFAULT_HOST, port);
+	}
+
+	/**
+	 * @param host 监听的地址，为空时同{@link #DEFAULT_HOST}
+	 */
+	public MetricsHttpServer(String host, int port) {
+		this.host = host == null || host.trim().isEmpty() ? DEFAULT_HOST : host.trim();
+		this.port = port;
+	}
+
+	public void start() {
+		if (port <= 0) {
+			logger.info("metrics endpoint disabled");
+			return;
+		}
+		try {
+			server = HttpServer.create(new InetSocketAddress(host, port), 0);
+		} catch (IOException e) {
+			logger.warn("metrics endpoint not started, " + host + ":" + port + " is not available", e);
+			return;
+		}
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				String path = exchange.getRequestURI().getPath();
+				if ("/metrics".equals(path)) {
+					respond(exchange, 200, MetricWriter.CONTENT_TYPE, Metrics.get().scrape());
+					return;
+				}
+				Supplier<String> endpoint = Metrics.get().endpoint(path);
+				if (endpoint == null) {
+					respond(exchange, 404, TEXT, "not found: " + path + "\n");
+				} else {
+					respond(exchange, 200, TEXT, endpoint.get());
+				}
+			}
+		});
+		executor = Executors.newSingleThreadExecutor(new NamedThreadFactory("metrics-http"));
+		server.setExecutor(executor);
+		server.start();
+		logger.info("metrics endpoint on http://" + host + ":" + getPort() + "/metrics");
+	}
+
+	public void stop() {
+		if (server != null) {
+			server.stop(0);
+			executor.shutdownNow();
+			server = null;
+		}
+	}
+
+	/**
+	 * 实际监听的端口，未启动时为-1
+	 */
+	public int getPort() {
+		return server == null ? -1 : server.getAddress().getPort();
+	}
+
+	private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+		try {
+			String method = exchange.getRequestMethod();
+			if (!"GET".equals(method) && !"HEAD".equals(method)) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", contentType);
+			if ("HEAD".equals(method)) {
+				exchange.sendResponseHeaders(status, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(status, bytes.length);
+			OutputStream out = exchange.getResponseBody();
+			out.write(bytes);
+			out.close();
+		} finally {
+			exchange.close();
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.jingsky.customer.util.metrics;
+
+import com.jingsky.customer.util.trace.Span;
+import com.jingsky.customer.util.trace.Trace;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * mybatis插件：按mapper语句id(如com.jingsky.customer.dao.CustomerDao.find)记录耗时、行数和出错次数，
+ * 超过slowMillis(默认{@link StatementStats#DEFAULT_SLOW_MILLIS})的记为慢查询样本，见{@link StatementStats}；
+ * 线程上有{@link Trace}时同时记为sql span。<br/>
+ * 拦截Executor，耗时包含取连接、执行及结果映射；BATCH执行器的update只是加入批次，不含执行时间，行数未知。
+ * 正常路径上只有一次map查找和几次计数累加，sql和参数只在慢查询时才生成。
+ */
+@Intercepts({
+		@Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+		@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})})
+public class StatementMetricsInterceptor implements Interceptor {
+
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		Object[] args = invocation.getArgs();
+		MappedStatement ms = (MappedStatement) args[0];
+		CountingResultHandler counting = null;
+		if (args.length == 4 && args[3] != null) {
+			//流式查询的结果交给handler，返回的list为空，数一下handler收到的行
+			counting = new CountingResultHandler((ResultHandler) args[3]);
+			args[3] = counting;
+		}
+		StatementStats stats = StatementStats.get();
+		Object result = null;
+		Throwable error = null;
+		long start = System.nanoTime();
+		try {
+			result = invocation.proceed();
+			return result;
+		} catch (Throwable e) {
+			//proceed以反射调用，异常包在InvocationTargetException中
+			error = ExceptionUtil.unwrapThrowable(e);
+			throw e;
+		} finally {
+			long nanos = System.nanoTime() - start;
+			long rows = counting != null ? counting.count : rows(result);
+			stats.stat(ms.getId()).record(nanos, rows, error != null);
+			Trace trace = Trace.current();
+			if (trace != null) {
+				trace.span(Span.Kind.SQL, ms.getId(), rows < 0 ? null : "rows=" + rows, start, nanos,
+						error == null ? null : error.getClass().getSimpleName());
+			}
+			if (stats.isSlow(nanos)) {
+				stats.slow(ms, args[1], nanos, rows, error);
+			}
+		}
+	}
+
+	/**
+	 * select返回的条数或update影响的行数，未知时为-1
+	 */
+	private static long rows(Object result) {
+		if (result instanceof List) {
+			return ((List<?>) result).size();
+		}
+		if (result instanceof Integer) {
+			int rows = (Integer) result;
+			//BATCH执行器返回负的占位值
+			return rows < 0 ? -1 : rows;
+		}
+		return -1;
+	}
+
+	@Override
+	public Object plugin(Object target) {
+		return target instanceof Executor ? Plugin.wrap(target, this) : target;
+	}
+
+	/**
+	 * 可配置slowMillis
+	 */
+	@Override
+	public void setProperties(Properties properties) {
+		String slowMillis = properties.getProperty("slowMillis");
+		if (slowMillis != null) {
+			StatementStats.get().setSlowMillis(Long.parseLong(slowMillis.trim()));
+		}
+	}
+
+	private static final class CountingResultHandler implements ResultHandler {
+
+		private final ResultHandler delegate;
+		private long count;
+
+		CountingResultHandler(ResultHandler delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void handleResult(ResultContext context) {
+			count++;
+			delegate.handleResult(context);
+		}
+	}
+}
@@ -0,0 +1,298 @@
+package com.jingsky.customer.util.metrics;
+
+import com.jingsky.customer.util.trace.Trace;
+import com.jingsky.customer.util.util.SecretMask;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.log4j.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 按mapper语句id汇总的执行统计：耗时直方图、返回或影响的行数、出错次数，以及最近的慢查询样本。<br/>
+ * 慢查询样本带绑定参数，参数名含password、secret等时以***代替，见{@link SecretMask}；有{@link Trace}时带其id，可到/traces对照。
+ * 每个类加载器一个实例，注册为JMX的com.jingsky.customer:type=MybatisStatements，
+ * 指标经{@link Metrics}输出，明细见{@link MetricsHttpServer}的/statements。
+ */
+public class StatementStats implements StatementStatsMBean {
+
+	private static final Logger logger = Logger.getLogger(StatementStats.class);
+
+	public static final long DEFAULT_SLOW_MILLIS = 200;
+
+	private static final int SLOW_SAMPLES = 100;
+	private static final int MAX_SQL_LENGTH = 2000;
+	private static final int MAX_PARAMS = 50;
+	private static final int MAX_VALUE_LENGTH = 100;
+
+	private static final StatementStats INSTANCE = new StatementStats().registerMBean();
+
+	private final Histogram duration = Metrics.get().register(new Histogram("mybatis_statement_duration_seconds",
+			"Mapper statement latency including connection borrow and result mapping", "statement"));
+	private final Counter rows = Metrics.get().register(new Counter("mybatis_statement_rows_total",
+			"Rows returned by selects,affected by inserts,updates and deletes", "statement"));
+	private final Counter errors = Metrics.get().register(new Counter("mybatis_statement_errors_total",
+			"Mapper statements that threw", "statement"));
+
+	private final ConcurrentMap<String, Stat> stats = new ConcurrentHashMap<String, Stat>();
+	private final AtomicReferenceArray<SlowQuery> slowQueries = new AtomicReferenceArray<SlowQuery>(SLOW_SAMPLES);
+	private final AtomicLong slowQueryCount = new AtomicLong();
+	private volatile long slowNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_MILLIS);
+
+	private StatementStats() {
+		Metrics.get().registerEndpoint("/statements", new Supplier<String>() {
+			@Override
+			public String get() {
+				return dump();
+			}
+		});
+	}
+
+	public static StatementStats get() {
+		return INSTANCE;
+	}
+
+	/**
+	 * 语句id对应的统计，首次使用时创建
+	 */
+	Stat stat(String id) {
+		Stat stat = stats.get(id);
+		if (stat == null) {
+			Stat created = new Stat(id);
+			stat = stats.putIfAbsent(id, created);
+			if (stat == null) {
+				stat = created;
+			}
+		}
+		return stat;
+	}
+
+	boolean isSlow(long nanos) {
+		return nanos >= slowNanos;
+	}
+
+	/**
+	 * 记录一条慢查询，只在慢路径上调用，此时才生成sql和参数文本
+	 * @param rows 行数，未知时为-1
+	 */
+	void slow(MappedStatement ms, Object parameter, long nanos, long rows, Throwable error) {
+		String sql;
+		String params;
+		try {
+			BoundSql boundSql = ms.getBoundSql(parameter);
+			sql = boundSql.getSql().replaceAll("\\s+", " ").trim();
+			if (sql.length() > MAX_SQL_LENGTH) {
+				sql = sql.substring(0, MAX_SQL_LENGTH) + "...";
+			}
+			params = params(ms.getConfiguration(), boundSql, parameter);
+		} catch (RuntimeException e) {
+			sql = "?";
+			params = "not available: " + e;
+		}
+		Trace trace = Trace.current();
+		SlowQuery query = new SlowQuery(System.currentTimeMillis(), trace == null ? null : trace.getId(), ms.getId(), nanos, rows,
+				error == null ? null : error.getClass().getSimpleName(), sql, params);
+		slowQueries.set((int) (slowQueryCount.getAndIncrement() % SLOW_SAMPLES), query);
+	}
+
+	/**
+	 * 按DefaultParameterHandler的方式取出各参数值
+	 */
+	private static String params(Configuration configuration, BoundSql boundSql, Object parameter) {
+		List<ParameterMapping> mappings = boundSql.getParameterMappings();
+		StringBuilder out = new StringBuilder();
+		MetaObject metaObject = null;
+		for (int i = 0; i < mappings.size(); i++) {
+			if (i == MAX_PARAMS) {
+				out.append(", ...").append(mappings.size() - MAX_PARAMS).append(" more");
+				break;
+			}
+			ParameterMapping mapping = mappings.get(i);
+			if (mapping.getMode() == ParameterMode.OUT) {
+				continue;
+			}
+			String name = mapping.getProperty();
+			Object value;
+			if (boundSql.hasAdditionalParameter(name)) {
+				value = boundSql.getAdditionalParameter(name);
+			} else if (parameter == null) {
+				value = null;
+			} else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+				value = parameter;
+			} else {
+				if (metaObject == null) {
+					metaObject = configuration.newMetaObject(parameter);
+				}
+				value = metaObject.getValue(name);
+			}
+			if (out.length() > 0) {
+				out.append(", ");
+			}
+			out.append(name).append('=');
+			if (SecretMask.isSecret(name)) {
+				out.append(SecretMask.MASK);
+			} else {
+				String text = String.valueOf(value);
+				out.append(text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text);
+			}
+		}
+		return out.toString();
+	}
+
+	private StatementStats registerMBean() {
+		try {
+			ObjectName objectName = new ObjectName("com.jingsky.customer:type=MybatisStatements");
+			if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			}
+		} catch (Exception e) {
+			logger.warn("register statement stats mbean failed", e);
+		}
+		return this;
+	}
+
+	@Override
+	public String[] getStatements() {
+		List<String> lines = new ArrayList<String>(stats.size());
+		for (Map.Entry<String, Stat> entry : stats.entrySet()) {
+			lines.add(entry.getKey() + " " + entry.getValue());
+		}
+		return lines.toArray(new String[lines.size()]);
+	}
+
+	@Override
+	public String[] getSlowQueries() {
+		List<String> lines = new ArrayList<String>(SLOW_SAMPLES);
+		long count = slowQueryCount.get();
+		for (long i = count - 1; i >= 0 && i >= count - SLOW_SAMPLES; i--) {
+			SlowQuery query = slowQueries.get((int) (i % SLOW_SAMPLES));
+			if (query != null) {
+				lines.add(query.toString());
+			}
+		}
+		return lines.toArray(new String[lines.size()]);
+	}
+
+	@Override
+	public long getSlowMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(slowNanos);
+	}
+
+	@Override
+	public void setSlowMillis(long slowMillis) {
+		this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+	}
+
+	@Override
+	public void reset() {
+		stats.clear();
+		duration.clear();
+		rows.clear();
+		errors.clear();
+		for (int i = 0; i < SLOW_SAMPLES; i++) {
+			slowQueries.set(i, null);
+		}
+	}
+
+	/**
+	 * /statements的内容：各语句统计，其后为慢查询
+	 */
+	String dump() {
+		StringBuilder out = new StringBuilder(4096);
+		out.append("# statements\n");
+		for (String line : getStatements()) {
+			out.append(line).append('\n');
+		}
+		out.append("\n# slow queries over ").append(getSlowMillis()).append("ms, newest first\n");
+		for (String line : getSlowQueries()) {
+			out.append(line).append('\n');
+		}
+		return out.toString();
+	}
+
+	final class Stat {
+
+		private final Histogram.Child duration;
+		private final LongAdder rows;
+		private final LongAdder errors;
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+		private final LongAccumulator maxRows = new LongAccumulator(Math::max, 0);
+
+		private Stat(String id) {
+			this.duration = StatementStats.this.duration.labels(id);
+			this.rows = StatementStats.this.rows.labels(id);
+			this.errors = StatementStats.this.errors.labels(id);
+		}
+
+		/**
+		 * @param rows 行数，未知时为-1
+		 */
+		void record(long nanos, long rows, boolean error) {
+			duration.observeNanos(nanos);
+			maxNanos.accumulate(nanos);
+			if (rows > 0) {
+				this.rows.add(rows);
+				maxRows.accumulate(rows);
+			}
+			if (error) {
+				errors.increment();
+			}
+		}
+
+		@Override
+		public String toString() {
+			long n = duration.getCount();
+			return "count=" + n + " errors=" + errors.sum() + " rows=" + rows.sum() + " maxRows=" + maxRows.get()
+					+ " avgMs=" + String.format("%.3f", n == 0 ? 0d : duration.getSumNanos() / 1e6 / n)
+					+ " maxMs=" + String.format("%.3f", maxNanos.get() / 1e6);
+		}
+	}
+
+	private static final class SlowQuery {
+
+		private final long timestamp;
+		private final String traceId;
+		private final String id;
+		private final long nanos;
+		private final long rows;
+		private final String error;
+		private final String sql;
+		private final String params;
+
+		SlowQuery(long timestamp, String traceId, String id, long nanos, long rows, String error, String sql, String params) {
+			this.timestamp = timestamp;
+			this.traceId = traceId;
+			this.id = id;
+			this.nanos = nanos;
+			this.rows = rows;
+			this.error = error;
+			this.sql = sql;
+			this.params = params;
+		}
+
+		@Override
+		public String toString() {
+			return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(timestamp)) + " " + id + " "
+					+ String.format("%.3f", nanos / 1e6) + "ms rows=" + (rows < 0 ? "?" : String.valueOf(rows))
+					+ (error == null ? "" : " error=" + error) + (traceId == null ? "" : " trace=" + traceId) + " sql=[" + sql + "] params=[" + params + "]";
+		}
+	}
+}
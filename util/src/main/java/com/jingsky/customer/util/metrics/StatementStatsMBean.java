@@ -0,0 +1,23 @@
+package com.jingsky.customer.util.metrics;
+
+/**
+ * mapper语句统计的JMX接口，见{@link StatementStats}
+ */
+public interface StatementStatsMBean {
+
+	/**
+	 * 每条语句一行：次数、出错、行数、平均及最大耗时
+	 */
+	String[] getStatements();
+
+	/**
+	 * 最近的慢查询，新的在前
+	 */
+	String[] getSlowQueries();
+
+	long getSlowMillis();
+
+	void setSlowMillis(long slowMillis);
+
+	void reset();
+}
@@ -0,0 +1,95 @@
+package com.jingsky.customer.util.trace;
+
+/**
+ * 一次请求中某一层的一段耗时，由{@link Trace#span}记录，创建后不再修改。
+ */
+public final class Span {
+
+	/**
+	 * 所在的层
+	 */
+	public enum Kind {
+		/**
+		 * web收到的http请求，AllFilter记录
+		 */
+		SERVLET("servlet"),
+		/**
+		 * web发出的dubbo调用，每个提供者一次，重试时有多个
+		 */
+		RPC_CLIENT("rpc-client"),
+		/**
+		 * 提供者执行dubbo调用
+		 */
+		RPC_SERVER("rpc-server"),
+		/**
+		 * mybatis执行的一条语句，含取连接与结果映射
+		 */
+		SQL("sql");
+
+		private final String label;
+
+		Kind(String label) {
+			this.label = label;
+		}
+
+		@Override
+		public String toString() {
+			return label;
+		}
+	}
+
+	private final Kind kind;
+	private final String name;
+	private final String detail;
+	private final long offsetNanos;
+	private final long nanos;
+	private final String error;
+
+	Span(Kind kind, String name, String detail, long offsetNanos, long nanos, String error) {
+		this.kind = kind;
+		this.name = name;
+		this.detail = detail;
+		this.offsetNanos = offsetNanos;
+		this.nanos = nanos;
+		this.error = error;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 附加信息，如调用的提供者地址、sql行数，可为null
+	 */
+	public String getDetail() {
+		return detail;
+	}
+
+	/**
+	 * 相对所属trace开始的时间
+	 */
+	public long getOffsetNanos() {
+		return offsetNanos;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	/**
+	 * 失败时为异常类名或http状态，成功时为null
+	 */
+	public String getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return "+" + String.format("%.3f", offsetNanos / 1e6) + "ms " + String.format("%.3f", nanos / 1e6) + "ms "
+				+ kind + " " + name + (detail == null ? "" : " " + detail) + (error == null ? "" : " error=" + error);
+	}
+}
@@ -0,0 +1,219 @@
+package com.jingsky.customer.util.trace;
+
+import org.apache.log4j.MDC;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 当前线程上的请求跟踪：web的AllFilter按请求生成id并开始，经dubbo附件传给服务端，服务端以同一id开始自己的trace，
+ * 各层把耗时记为{@link Span}，结束时交给{@link TraceRecorder}，两端按id对照即可看出慢在哪一层。<br/>
+ * id同时放在log4j的MDC中(键为requestCode)，日志可以%X{requestCode}输出。
+ * 开始后必须在finally中{@link #finish}，带到其它线程的须{@link #detach()}，线程会被复用。
+ * 一个trace可由多个线程同时记录span，不加锁。
+ */
+public final class Trace {
+
+	/**
+	 * dubbo附件名，值为trace id
+	 */
+	public static final String ATTACHMENT_KEY = "trace.id";
+
+	/**
+	 * http请求与响应头，调用方可传入自己的id
+	 */
+	public static final String HEADER = "X-Request-Id";
+
+	/**
+	 * MDC的键，与request的requestCode属性同名
+	 */
+	public static final String MDC_KEY = "requestCode";
+
+	private static final int MAX_SPANS = 128;
+	private static final int MAX_ID_LENGTH = 64;
+
+	private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<Trace>();
+
+	private final String id;
+	private final Span.Kind kind;
+	private final String name;
+	private final long startMillis;
+	private final long startNanos;
+	private final AtomicReferenceArray<Span> spans = new AtomicReferenceArray<Span>(MAX_SPANS);
+	private final AtomicInteger spanCount = new AtomicInteger();
+	private volatile String error;
+	private volatile Span root;
+
+	private Trace(String id, Span.Kind kind, String name) {
+		this.id = id;
+		this.kind = kind;
+		this.name = name;
+		this.startMillis = System.currentTimeMillis();
+		this.startNanos = System.nanoTime();
+	}
+
+	/**
+	 * 在当前线程开始一个trace，覆盖之前的
+	 * @param kind 根span所在的层
+	 * @param name 根span的名称，如GET /customer/list
+	 */
+	public static Trace start(String id, Span.Kind kind, String name) {
+		Trace trace = new Trace(id, kind, name);
+		attach(trace);
+		return trace;
+	}
+
+	/**
+	 * 当前线程的trace，没有时为null
+	 */
+	public static Trace current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * 把其它线程开始的trace带到当前线程，如AsyncBaseService的执行线程，用完后{@link #detach()}
+	 */
+	public static void attach(Trace trace) {
+		CURRENT.set(trace);
+		MDC.put(MDC_KEY, trace.id);
+	}
+
+	public static void detach() {
+		CURRENT.remove();
+		MDC.remove(MDC_KEY);
+	}
+
+	/**
+	 * 16位十六进制的随机id
+	 */
+	public static String newId() {
+		//最高位置1，总是16位，不必补0
+		return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+	}
+
+	/**
+	 * 外部传入的id只接受不超过64位的字母、数字及-_.，以免写进日志的内容不受控制
+	 */
+	public static boolean isValidId(String id) {
+		if (id == null || id.isEmpty() || id.length() > MAX_ID_LENGTH) {
+			return false;
+		}
+		for (int i = 0; i < id.length(); i++) {
+			char c = id.charAt(i);
+			if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_' || c == '.')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 记录一个子span，超过{@value #MAX_SPANS}个后只计数
+	 * @param startNanos 开始时的System.nanoTime()
+	 * @param detail 附加信息，可为null
+	 * @param error 失败时为异常类名等，成功时为null
+	 */
+	public void span(Span.Kind kind, String name, String detail, long startNanos, long nanos, String error) {
+		int index = spanCount.getAndIncrement();
+		if (index < MAX_SPANS) {
+			spans.set(index, new Span(kind, name, detail, startNanos - this.startNanos, nanos, error));
+		}
+	}
+
+	/**
+	 * 标记失败，如异常已被处理、不会传到开始trace的地方时；finish未给出error时使用
+	 */
+	public void error(String error) {
+		this.error = error;
+	}
+
+	/**
+	 * 结束trace并交给{@link TraceRecorder}，当前线程上是此trace时一并清除
+	 * @param error 失败时为异常类名或http状态，成功时为null
+	 */
+	public void finish(String error) {
+		root = new Span(kind, name, null, 0, System.nanoTime() - startNanos, error != null ? error : this.error);
+		if (CURRENT.get() == this) {
+			detach();
+		}
+		TraceRecorder.get().record(this);
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public long getStartMillis() {
+		return startMillis;
+	}
+
+	/**
+	 * 总耗时，未结束时为0
+	 */
+	public long getNanos() {
+		Span root = this.root;
+		return root == null ? 0 : root.getNanos();
+	}
+
+	/**
+	 * 结束时生成的根span，未结束时为null
+	 */
+	public Span getRoot() {
+		return root;
+	}
+
+	/**
+	 * 已记录的子span，按开始时间排序
+	 */
+	public List<Span> getSpans() {
+		int count = Math.min(spanCount.get(), MAX_SPANS);
+		List<Span> list = new ArrayList<Span>(count);
+		for (int i = 0; i < count; i++) {
+			Span span = spans.get(i);
+			//序号已取到但还没写入
+			if (span != null) {
+				list.add(span);
+			}
+		}
+		Collections.sort(list, new Comparator<Span>() {
+			@Override
+			public int compare(Span o1, Span o2) {
+				return Long.compare(o1.getOffsetNanos(), o2.getOffsetNanos());
+			}
+		});
+		return list;
+	}
+
+	/**
+	 * 超过上限未记录的span数
+	 */
+	public int getDroppedSpans() {
+		return Math.max(0, spanCount.get() - MAX_SPANS);
+	}
+
+	/**
+	 * 第一行为id、开始时间及根span，其后每个子span一行
+	 */
+	List<String> toLines() {
+		List<String> lines = new ArrayList<String>();
+		Span root = this.root;
+		lines.add(id + " " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(startMillis)) + " "
+				+ (root == null ? "unfinished " + kind + " " + name : String.format("%.3f", root.getNanos() / 1e6) + "ms "
+				+ kind + " " + name + (root.getError() == null ? "" : " error=" + root.getError())));
+		for (Span span : getSpans()) {
+			lines.add("  " + span);
+		}
+		int dropped = getDroppedSpans();
+		if (dropped > 0) {
+			lines.add("  ..." + dropped + " more spans not recorded");
+		}
+		return lines;
+	}
+}
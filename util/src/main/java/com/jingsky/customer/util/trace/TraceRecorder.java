@@ -0,0 +1,139 @@
+package com.jingsky.customer.util.trace;
+
+import com.jingsky.customer.util.metrics.Metrics;
+import com.jingsky.customer.util.metrics.MetricsHttpServer;
+import org.apache.log4j.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * 保留最近结束的{@value #CAPACITY}个{@link Trace}的环，写入只有一次计数自增和一次数组写，不加锁；
+ * 最慢的几个在取的时候才排序。<br/>
+ * 每个类加载器一个实例，注册为JMX的com.jingsky.customer:type=Traces，
+ * 最慢的{@value #DEFAULT_SLOWEST}个见{@link MetricsHttpServer}的/traces，其它个数用JMX的slowest。
+ */
+public class TraceRecorder implements TraceRecorderMBean {
+
+	private static final Logger logger = Logger.getLogger(TraceRecorder.class);
+
+	public static final int DEFAULT_SLOWEST = 20;
+
+	private static final int CAPACITY = 2048;
+
+	private static final TraceRecorder INSTANCE = new TraceRecorder().registerMBean();
+
+	private final AtomicReferenceArray<Trace> traces = new AtomicReferenceArray<Trace>(CAPACITY);
+	private final AtomicLong recorded = new AtomicLong();
+	private volatile long minNanos;
+
+	private TraceRecorder() {
+		Metrics.get().registerEndpoint("/traces", new Supplier<String>() {
+			@Override
+			public String get() {
+				return dump(DEFAULT_SLOWEST);
+			}
+		});
+	}
+
+	public static TraceRecorder get() {
+		return INSTANCE;
+	}
+
+	void record(Trace trace) {
+		if (trace.getNanos() >= minNanos) {
+			traces.set((int) (recorded.getAndIncrement() % CAPACITY), trace);
+		}
+	}
+
+	/**
+	 * 环中最慢的n个trace，最慢的在前
+	 */
+	public List<Trace> slowestTraces(int n) {
+		List<Trace> list = new ArrayList<Trace>(CAPACITY);
+		for (int i = 0; i < CAPACITY; i++) {
+			Trace trace = traces.get(i);
+			if (trace != null) {
+				list.add(trace);
+			}
+		}
+		Collections.sort(list, new Comparator<Trace>() {
+			@Override
+			public int compare(Trace o1, Trace o2) {
+				return Long.compare(o2.getNanos(), o1.getNanos());
+			}
+		});
+		return list.size() > n ? list.subList(0, Math.max(n, 0)) : list;
+	}
+
+	@Override
+	public String[] slowest(int n) {
+		List<String> lines = new ArrayList<String>();
+		for (Trace trace : slowestTraces(n)) {
+			lines.addAll(trace.toLines());
+		}
+		return lines.toArray(new String[lines.size()]);
+	}
+
+	@Override
+	public long getRecorded() {
+		return recorded.get();
+	}
+
+	@Override
+	public long getMinMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(minNanos);
+	}
+
+	@Override
+	public void setMinMillis(long minMillis) {
+		this.minNanos = TimeUnit.MILLISECONDS.toNanos(minMillis);
+	}
+
+	@Override
+	public void reset() {
+		for (int i = 0; i < CAPACITY; i++) {
+			traces.set(i, null);
+		}
+	}
+
+	private TraceRecorder registerMBean() {
+		try {
+			ObjectName objectName = new ObjectName("com.jingsky.customer:type=Traces");
+			if (!ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+				ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			}
+		} catch (Exception e) {
+			logger.warn("register trace recorder mbean failed", e);
+		}
+		return this;
+	}
+
+	/**
+	 * /traces的内容，trace之间空一行
+	 */
+	String dump(int n) {
+		List<Trace> slowest = slowestTraces(n);
+		StringBuilder out = new StringBuilder(4096);
+		out.append("# slowest ").append(slowest.size()).append(" of up to ").append(CAPACITY).append(" recent traces");
+		if (minNanos > 0) {
+			out.append(" over ").append(getMinMillis()).append("ms");
+		}
+		out.append(", ").append(recorded.get()).append(" recorded\n");
+		for (Trace trace : slowest) {
+			out.append('\n');
+			for (String line : trace.toLines()) {
+				out.append(line).append('\n');
+			}
+		}
+		return out.toString();
+	}
+}
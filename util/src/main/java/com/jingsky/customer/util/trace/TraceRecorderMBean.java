@@ -0,0 +1,26 @@
+package com.jingsky.customer.util.trace;
+
+/**
+ * 请求跟踪的JMX接口，见{@link TraceRecorder}
+ */
+public interface TraceRecorderMBean {
+
+	/**
+	 * 最近保留的trace中最慢的n个，每个trace一行标题，其后每个span一行
+	 */
+	String[] slowest(int n);
+
+	/**
+	 * 累计记录的trace数，含已被覆盖的
+	 */
+	long getRecorded();
+
+	/**
+	 * 总耗时不到此毫秒数的trace不保留，默认0即全部保留；调大可让环中保留更长时间段的慢请求
+	 */
+	long getMinMillis();
+
+	void setMinMillis(long minMillis);
+
+	void reset();
+}
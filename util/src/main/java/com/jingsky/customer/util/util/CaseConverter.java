@@ -0,0 +1,154 @@
+package com.jingsky.customer.util.util;
+
+import com.jingsky.customer.util.cache.MemoCache;
+
+import java.util.function.Function;
+
+/**
+ * 下划线与驼峰式命名互转，逐字符扫描，不使用正则。<br/>
+ * 列名、属性名的取值范围很小且反复出现，toCamel/toUnderline的结果缓存在有界的{@link MemoCache}中，
+ * 稳定后每次转换只是一次无锁查表，不创建对象；命中情况可在JMX的 com.jingsky.customer:type=MemoCache 下查看。
+ */
+public final class CaseConverter {
+
+	/**
+	 * 每个方向最多缓存的条目数
+	 */
+	private static final int CACHE_SIZE = 4096;
+
+	/**
+	 * 超过此长度的字符串不是标识符，不进缓存
+	 */
+	private static final int MAX_CACHED_LENGTH = 64;
+
+	private static final MemoCache<String, String> TO_CAMEL =
+			new MemoCache<String, String>("underlineToJavaString", CACHE_SIZE).registerMBean();
+
+	private static final MemoCache<String, String> TO_UNDERLINE =
+			new MemoCache<String, String>("javaStringToUnderline", CACHE_SIZE).registerMBean();
+
+	private static final Function<String, String> UNDERLINE_TO_CAMEL = new Function<String, String>() {
+		@Override
+		public String apply(String source) {
+			return underlineToCamel(source);
+		}
+	};
+
+	private static final Function<String, String> CAMEL_TO_UNDERLINE = new Function<String, String>() {
+		@Override
+		public String apply(String source) {
+			return camelToUnderline(source);
+		}
+	};
+
+	private CaseConverter() {
+	}
+
+	/**
+	 * 带缓存的{@link #underlineToCamel(CharSequence)}
+	 */
+	public static String toCamel(String source) {
+		if (source.length() > MAX_CACHED_LENGTH) {
+			return underlineToCamel(source);
+		}
+		return TO_CAMEL.get(source, UNDERLINE_TO_CAMEL);
+	}
+
+	/**
+	 * 带缓存的{@link #camelToUnderline(CharSequence)}
+	 */
+	public static String toUnderline(String source) {
+		if (source.length() > MAX_CACHED_LENGTH) {
+			return camelToUnderline(source);
+		}
+		return TO_UNDERLINE.get(source, CAMEL_TO_UNDERLINE);
+	}
+
+	/**
+	 * 去掉下划线并把其后的一个字符转为大写，如：good_boy->goodBoy。<br/>
+	 * 与原来按正则"_."替换的结果一致：连续两个下划线一起去掉，末尾的下划线及后面是换行符(\n \r \u0085 \u2028 \u2029)
+	 * 的下划线保留，下划线后的增补字符按整个码点转大写，非ASCII字符按默认locale的String.toUpperCase。
+	 * @return 没有下划线时返回原串
+	 */
+	public static String underlineToCamel(CharSequence source) {
+		int length = source.length();
+		int first = indexOf(source, '_');
+		if (first < 0 || first == length - 1) {
+			return source.toString();
+		}
+		StringBuilder sb = new StringBuilder(length);
+		sb.append(source, 0, first);
+		int i = first;
+		while (i < length) {
+			char ch = source.charAt(i);
+			if (ch != '_' || i + 1 == length || isLineTerminator(source.charAt(i + 1))) {
+				sb.append(ch);
+				i++;
+				continue;
+			}
+			int next = Character.codePointAt(source, i + 1);
+			if (next >= 'a' && next <= 'z') {
+				sb.append((char) (next - ('a' - 'A')));
+			} else if (next >= 0x80) {
+				sb.append(new String(Character.toChars(next)).toUpperCase());
+			} else if (next != '_') {
+				sb.append((char) next);
+			}
+			i += 1 + Character.charCount(next);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 正则的"."不匹配的字符
+	 */
+	private static boolean isLineTerminator(char ch) {
+		return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+	}
+
+	/**
+	 * 把大写字母A~Z转为下划线加小写，如：goodBoy->good_boy，开头的一个下划线去掉，如：GoodBoy->good_boy。
+	 * @return 不需要转换时返回原串
+	 */
+	public static String camelToUnderline(CharSequence source) {
+		int length = source.length();
+		int first = -1;
+		for (int i = 0; i < length; i++) {
+			if (isUpper(source.charAt(i))) {
+				first = i;
+				break;
+			}
+		}
+		if (first < 0) {
+			//没有大写字母，只需去掉开头的下划线
+			return length > 0 && source.charAt(0) == '_' ? source.subSequence(1, length).toString() : source.toString();
+		}
+		StringBuilder sb = new StringBuilder(length + 4);
+		sb.append(source, 0, first);
+		for (int i = first; i < length; i++) {
+			char ch = source.charAt(i);
+			if (isUpper(ch)) {
+				sb.append('_').append((char) (ch + ('a' - 'A')));
+			} else {
+				sb.append(ch);
+			}
+		}
+		if (sb.charAt(0) == '_') {
+			sb.deleteCharAt(0);
+		}
+		return sb.toString();
+	}
+
+	private static boolean isUpper(char ch) {
+		return ch >= 'A' && ch <= 'Z';
+	}
+
+	private static int indexOf(CharSequence source, char ch) {
+		for (int i = 0, length = source.length(); i < length; i++) {
+			if (source.charAt(i) == ch) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
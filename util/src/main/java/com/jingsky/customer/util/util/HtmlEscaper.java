@@ -0,0 +1,234 @@
+package com.jingsky.customer.util.util;
+
+import java.io.IOException;
+
+/**
+ * html特殊字符的转义与反转义。<br/>
+ * 单遍扫描、查表替换，不使用正则；输入中没有需要处理的字符时直接返回原串，不产生新对象。<br/>
+ * 可写入调用方提供的Appendable/StringBuilder，渲染时可直接写到输出流，不生成中间字符串。
+ */
+public final class HtmlEscaper {
+
+	/**
+	 * 转义全部五个字符
+	 */
+	public static final int QUOTES_BOTH = 0;
+
+	/**
+	 * 不转义单引号
+	 */
+	public static final int QUOTES_DOUBLE_ONLY = 1;
+
+	/**
+	 * 不转义双引号
+	 */
+	public static final int QUOTES_SINGLE_ONLY = 2;
+
+	/**
+	 * 单引号、双引号都不转义
+	 */
+	public static final int QUOTES_NONE = 3;
+
+	/**
+	 * 按quotes取值下标，每张表以字符为下标，null表示不需转义
+	 */
+	private static final String[][] TABLES = new String[4][];
+
+	/**
+	 * 反转义识别的实体及对应字符，&#39;与&apos;是单引号的常见写法，一并识别
+	 */
+	private static final String[] ENTITIES = {"&lt;", "&gt;", "&quot;", "&#039;", "&#39;", "&apos;", "&amp;"};
+	private static final char[] ENTITY_CHARS = {'<', '>', '"', '\'', '\'', '\'', '&'};
+
+	static {
+		for (int quotes = 0; quotes < TABLES.length; quotes++) {
+			String[] table = new String['>' + 1];
+			table['<'] = "&lt;";
+			table['>'] = "&gt;";
+			table['&'] = "&amp;";
+			if (quotes == QUOTES_BOTH || quotes == QUOTES_DOUBLE_ONLY) {
+				table['"'] = "&quot;";
+			}
+			if (quotes == QUOTES_BOTH || quotes == QUOTES_SINGLE_ONLY) {
+				table['\''] = "&#039;";
+			}
+			TABLES[quotes] = table;
+		}
+	}
+
+	private HtmlEscaper() {
+	}
+
+	/**
+	 * 转义 &lt; &gt; &amp; " '
+	 * @param src 源字符串，不能为null
+	 * @return 没有需要转义的字符时返回原串(src为String时是同一个对象)
+	 */
+	public static String escape(CharSequence src) {
+		return escape(src, QUOTES_BOTH);
+	}
+
+	/**
+	 * @param quotes 取值同{@link StringUtil#htmlEncode(String, int)}：0全转义，1不转单引号，2不转双引号，其他值都不转
+	 */
+	public static String escape(CharSequence src, int quotes) {
+		String[] table = table(quotes);
+		int first = indexOfEscape(src, 0, table);
+		if (first < 0) {
+			return src.toString();
+		}
+		StringBuilder out = new StringBuilder(src.length() + 16);
+		out.append(src, 0, first);
+		appendEscaped(src, first, table, out);
+		return out.toString();
+	}
+
+	/**
+	 * 转义后追加到out
+	 */
+	public static StringBuilder escape(CharSequence src, StringBuilder out) {
+		return escape(src, QUOTES_BOTH, out);
+	}
+
+	public static StringBuilder escape(CharSequence src, int quotes, StringBuilder out) {
+		appendEscaped(src, 0, table(quotes), out);
+		return out;
+	}
+
+	/**
+	 * 转义后写到out，如Writer，连续不需转义的片段整段写出
+	 */
+	public static void escape(CharSequence src, Appendable out) throws IOException {
+		escape(src, QUOTES_BOTH, out);
+	}
+
+	public static void escape(CharSequence src, int quotes, Appendable out) throws IOException {
+		String[] table = table(quotes);
+		int length = src.length();
+		int start = 0;
+		for (int i = indexOfEscape(src, 0, table); i >= 0; i = indexOfEscape(src, start, table)) {
+			if (i > start) {
+				out.append(src, start, i);
+			}
+			out.append(table[src.charAt(i)]);
+			start = i + 1;
+		}
+		if (start < length) {
+			out.append(src, start, length);
+		}
+	}
+
+	/**
+	 * 还原 &amp;lt; &amp;gt; &amp;quot; &amp;#039; &amp;amp; 等实体，单遍扫描，&amp;amp;lt;只还原一层为&amp;lt;
+	 * @return 没有'&amp;'时返回原串
+	 */
+	public static String unescape(CharSequence src) {
+		int first = indexOf(src, '&', 0);
+		if (first < 0) {
+			return src.toString();
+		}
+		StringBuilder out = new StringBuilder(src.length());
+		out.append(src, 0, first);
+		appendUnescaped(src, first, out);
+		return out.toString();
+	}
+
+	public static StringBuilder unescape(CharSequence src, StringBuilder out) {
+		appendUnescaped(src, 0, out);
+		return out;
+	}
+
+	public static void unescape(CharSequence src, Appendable out) throws IOException {
+		int length = src.length();
+		int start = 0;
+		int i = indexOf(src, '&', 0);
+		while (i >= 0) {
+			int entity = entityAt(src, i);
+			if (entity < 0) {
+				i = indexOf(src, '&', i + 1);
+				continue;
+			}
+			if (i > start) {
+				out.append(src, start, i);
+			}
+			out.append(ENTITY_CHARS[entity]);
+			start = i + ENTITIES[entity].length();
+			i = indexOf(src, '&', start);
+		}
+		if (start < length) {
+			out.append(src, start, length);
+		}
+	}
+
+	private static void appendEscaped(CharSequence src, int from, String[] table, StringBuilder out) {
+		int length = src.length();
+		int start = from;
+		for (int i = indexOfEscape(src, from, table); i >= 0; i = indexOfEscape(src, start, table)) {
+			out.append(src, start, i).append(table[src.charAt(i)]);
+			start = i + 1;
+		}
+		out.append(src, start, length);
+	}
+
+	private static void appendUnescaped(CharSequence src, int from, StringBuilder out) {
+		int length = src.length();
+		int start = from;
+		int i = indexOf(src, '&', from);
+		while (i >= 0) {
+			int entity = entityAt(src, i);
+			if (entity < 0) {
+				i = indexOf(src, '&', i + 1);
+				continue;
+			}
+			out.append(src, start, i).append(ENTITY_CHARS[entity]);
+			start = i + ENTITIES[entity].length();
+			i = indexOf(src, '&', start);
+		}
+		out.append(src, start, length);
+	}
+
+	private static int indexOfEscape(CharSequence src, int from, String[] table) {
+		for (int i = from, length = src.length(); i < length; i++) {
+			char ch = src.charAt(i);
+			if (ch < table.length && table[ch] != null) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int indexOf(CharSequence src, char ch, int from) {
+		for (int i = from, length = src.length(); i < length; i++) {
+			if (src.charAt(i) == ch) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return at处开始的实体在ENTITIES中的下标，不是已知实体返回-1
+	 */
+	private static int entityAt(CharSequence src, int at) {
+		for (int e = 0; e < ENTITIES.length; e++) {
+			String entity = ENTITIES[e];
+			int end = at + entity.length();
+			if (end > src.length()) {
+				continue;
+			}
+			int k = 1;
+			while (k < entity.length() && src.charAt(at + k) == entity.charAt(k)) {
+				k++;
+			}
+			if (k == entity.length()) {
+				return e;
+			}
+		}
+		return -1;
+	}
+
+	private static String[] table(int quotes) {
+		//同原htmlEncode(String,int)：0、1、2以外的取值都不转义引号
+		return quotes >= 0 && quotes < TABLES.length ? TABLES[quotes] : TABLES[QUOTES_NONE];
+	}
+}
@@ -0,0 +1,29 @@
+package com.jingsky.customer.util.util;
+
+/**
+ * 日志、慢查询样本中按参数名遮盖敏感值：名称含password、passwd、pwd、secret、token(不分大小写)的参数以{@link #MASK}代替。<br/>
+ * 在请求线程上调用，比较时不创建对象。
+ */
+public final class SecretMask {
+
+	public static final String MASK = "***";
+
+	private static final String[] SECRET_NAMES = {"password", "passwd", "pwd", "secret", "token"};
+
+	private SecretMask() {
+	}
+
+	public static boolean isSecret(String name) {
+		if (name == null) {
+			return false;
+		}
+		for (String secret : SECRET_NAMES) {
+			for (int i = 0, last = name.length() - secret.length(); i <= last; i++) {
+				if (name.regionMatches(true, i, secret, 0, secret.length())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
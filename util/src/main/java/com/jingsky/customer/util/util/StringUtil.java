@@ -1,8 +1,6 @@
 package com.jingsky.customer.util.util;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * 字符串辅助工具类。
@@ -25,18 +23,7 @@ public class StringUtil {
      * @return String
      */
     public static String underlineToJavaString(String sourceStr){
-    	//匹配下划线和后面的一个字符
-    	String regexStr = "_.";  
-    	Matcher matcher = Pattern.compile(regexStr).matcher(sourceStr);  
-    	StringBuffer sb = new StringBuffer();  
-    	while (matcher.find()) {  
-    	    String g = matcher.group();  
-    	    //去掉下划线
-    	    g=g.replace("_","");
-    	    matcher.appendReplacement(sb, g.toUpperCase());  
-    	}  
-    	matcher.appendTail(sb);  
-    	return sb.toString();
+    	return CaseConverter.toCamel(sourceStr);
     }
     
     /**
@@ -46,18 +33,7 @@ public class StringUtil {
      * @return String
      */
     public static String javaStringToUnderline(String sourceStr){
-    	String regexStr = "[A-Z]";  
-    	Matcher matcher = Pattern.compile(regexStr).matcher(sourceStr);  
-    	StringBuffer sb = new StringBuffer();  
-    	while (matcher.find()) {  
-    	    String g = matcher.group();  
-    	    matcher.appendReplacement(sb, "_" + g.toLowerCase());  
-    	}  
-    	matcher.appendTail(sb);  
-    	if (sb.charAt(0) == '_') {  
-    	    sb.delete(0, 1);  
-    	}  
-    	return sb.toString();
+    	return CaseConverter.toUnderline(sourceStr);
     }
     
     /**
@@ -71,13 +47,7 @@ public class StringUtil {
     public static String htmlEncode(String strSrc) {
         if (strSrc == null)
             return "";
-        
-        //需要进行和转移以后对应的Map
-        Map<String,String> coverMap=getHtmlCoverMap();
-        for(String key : coverMap.keySet()){
-        	strSrc = strSrc.replaceAll(key,coverMap.get(key));
-        }
-        return strSrc;
+        return HtmlEscaper.escape(strSrc);
     }
 
     /**
@@ -92,31 +62,7 @@ public class StringUtil {
     public static String htmlEncode(String strSrc, int quotes) {
         if (strSrc == null)
             return "";
-        if (quotes == 0) {
-            return htmlEncode(strSrc);
-        }
-
-        char[] arr_cSrc = strSrc.toCharArray();
-        StringBuffer buf = new StringBuffer(arr_cSrc.length);
-        char ch;
-
-        for (int i = 0; i < arr_cSrc.length; i++) {
-            ch = arr_cSrc[i];
-            if (ch == '<')
-                buf.append("&lt;");
-            else if (ch == '>')
-                buf.append("&gt;");
-            else if (ch == '"' && quotes == 1)
-                buf.append("&quot;");
-            else if (ch == '\'' && quotes == 2)
-                buf.append("&#039;");
-            else if (ch == '&')
-                buf.append("&amp;");
-            else
-                buf.append(ch);
-        }
-
-        return buf.toString();
+        return HtmlEscaper.escape(strSrc, quotes);
     }
 
     /**
@@ -129,27 +75,7 @@ public class StringUtil {
     public static String htmlDecode(String strSrc) {
         if (strSrc == null)
             return "";
-        //需要进行和转移以后对应的Map
-        Map<String,String> coverMap=getHtmlCoverMap();
-        
-        for(String key : coverMap.keySet()){
-        	strSrc = strSrc.replaceAll(coverMap.get(key), key);
-        }
-        return strSrc;
-    }
-    
-    /**
-     * 生成html转移的键值对应map
-     * @return Map<String,String>
-     */
-    private static Map<String,String> getHtmlCoverMap(){
-    	 Map<String,String> coverMap=new HashMap<String,String>();
-         coverMap.put("<", "&lt;");
-         coverMap.put(">", "&gt;");
-         coverMap.put("\"", "&quot;");
-         coverMap.put("'", "&#039;");
-         coverMap.put("&", "&amp;");
-         return coverMap;
+        return HtmlEscaper.unescape(strSrc);
     }
 	
 	/**
@@ -160,20 +86,7 @@ public class StringUtil {
      * @return String
      */
 	public static String changeToHalf(String str) {
-		String[] decode = {"1","2","3","4","5","6","7","8","9","0","!","@","#","$","%","^","&","*","(",")","a","b","c","d","e","f","g","h","i","j","k","l"
-				,"m","n","o","p","q","r","s","t","u","v","w","x","y","z","A","B","C","D","E","F","G","H","I","J","K","L","M","N","O","P","Q","R","S","T","U"
-				,"V","W","X","Y","Z","-","_","=","+","\\","|","[","]",";",":","'","\"",",","<",".",">","/","?"};
-		String source= "１２３４５６７８９０！＠＃＄％︿＆＊（）ａｂｃｄｅｆｇｈｉｊｋｌｍｎｏｐｑｒｓｔｕｖｗｘｙｚＡＢＣＤＥＦＧＨＩＪＫＬＭＮＯＰＱＲＳＴＵＶＷＸＹＺ－＿＝＋＼｜【】；：'\\，〈。〉／？";
-		String result = "";
-		for (int i = 0; i < str.length(); i++) {
-			int pos = source.indexOf(str.charAt(i));
-			if (pos != -1) {
-				result += decode[pos];
-			} else {
-				result += str.charAt(i);
-			}
-		}
-		return result;
+		return WidthConverter.toHalf(str);
 	}
     
     /**
@@ -184,25 +97,7 @@ public class StringUtil {
      * @return String
      */
 	public static String changeToFull(String str) {
-		String source = "1234567890!@#$%^&*()abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ-_=+\\|[];:'\",<.>/?";
-		String[] decode = { "１", "２", "３", "４", "５", "６", "７", "８", "９", "０",
-				"！", "＠", "＃", "＄", "％", "︿", "＆", "＊", "（", "）", "ａ", "ｂ",
-				"ｃ", "ｄ", "ｅ", "ｆ", "ｇ", "ｈ", "ｉ", "ｊ", "ｋ", "ｌ", "ｍ", "ｎ",
-				"ｏ", "ｐ", "ｑ", "ｒ", "ｓ", "ｔ", "ｕ", "ｖ", "ｗ", "ｘ", "ｙ", "ｚ",
-				"Ａ", "Ｂ", "Ｃ", "Ｄ", "Ｅ", "Ｆ", "Ｇ", "Ｈ", "Ｉ", "Ｊ", "Ｋ", "Ｌ",
-				"Ｍ", "Ｎ", "Ｏ", "Ｐ", "Ｑ", "Ｒ", "Ｓ", "Ｔ", "Ｕ", "Ｖ", "Ｗ", "Ｘ",
-				"Ｙ", "Ｚ", "－", "＿", "＝", "＋", "＼", "｜", "【", "】", "；", "：",
-				"'", "\"", "，", "〈", "。", "〉", "／", "？" };
-		String result = "";
-		for (int i = 0; i < str.length(); i++) {
-			int pos = source.indexOf(str.charAt(i));
-			if (pos != -1) {
-				result += decode[pos];
-			} else {
-				result += str.charAt(i);
-			}
-		}
-		return result;
+		return WidthConverter.toFull(str);
 	}
     
     /**
@@ -0,0 +1,160 @@
+package com.jingsky.customer.util.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * 全角、半角字符互转。<br/>
+ * 全角ASCII区U+FF01~U+FF5E与半角0x21~0x7E相差固定的0xFEE0，全角转半角按区间减去偏移，
+ * 中文标点区U+3000~U+3011查一张18个字符的表，半角转全角查以半角字符为下标的表，单遍扫描。<br/>
+ * 另保留原StringUtil中的中文标点对应：︿ ^、【 [、】 ]、〈 &lt;、〉 &gt;、。 .，全角空格转为半角空格；
+ * 半角转全角时空格、单引号、双引号保持不变。
+ */
+public final class WidthConverter {
+
+	private static final char FULL_FIRST = 0xFF01;
+	private static final char FULL_LAST = 0xFF5E;
+	private static final int OFFSET = 0xFEE0;
+
+	private static final char CJK_FIRST = 0x3000;
+
+	/**
+	 * 中文标点区U+3000~U+3011的全角转半角表，下标为字符减去U+3000，0表示不转换
+	 */
+	private static final char[] CJK_TO_HALF = new char['】' - CJK_FIRST + 1];
+
+	/**
+	 * 半角转全角表，以半角字符为下标，0表示不转换
+	 */
+	private static final char[] TO_FULL = new char[0x7E + 1];
+
+	private static final int BUFFER_SIZE = 8192;
+
+	static {
+		for (char half = 0x21; half <= 0x7E; half++) {
+			TO_FULL[half] = (char) (half + OFFSET);
+		}
+		//全角空格U+3000
+		CJK_TO_HALF[0] = ' ';
+		//输入法常见的中文标点，全角转半角时与标准全角形式都能识别，半角转全角时沿用原来的输出
+		CJK_TO_HALF['【' - CJK_FIRST] = '[';
+		CJK_TO_HALF['】' - CJK_FIRST] = ']';
+		CJK_TO_HALF['〈' - CJK_FIRST] = '<';
+		CJK_TO_HALF['〉' - CJK_FIRST] = '>';
+		CJK_TO_HALF['。' - CJK_FIRST] = '.';
+		TO_FULL['^'] = '︿';
+		TO_FULL['['] = '【';
+		TO_FULL[']'] = '】';
+		TO_FULL['<'] = '〈';
+		TO_FULL['>'] = '〉';
+		TO_FULL['.'] = '。';
+		TO_FULL['\''] = 0;
+		TO_FULL['"'] = 0;
+	}
+
+	private WidthConverter() {
+	}
+
+	/**
+	 * 全角转半角
+	 * @param src 源字符串，不能为null
+	 * @return 没有需要转换的字符时返回原串(src为String时是同一个对象)
+	 */
+	public static String toHalf(CharSequence src) {
+		return convert(src, true);
+	}
+
+	/**
+	 * 半角转全角
+	 * @param src 源字符串，不能为null
+	 * @return 没有需要转换的字符时返回原串(src为String时是同一个对象)
+	 */
+	public static String toFull(CharSequence src) {
+		return convert(src, false);
+	}
+
+	/**
+	 * 全角转半角，从in读到末尾并写入out，适合导入文件等大量文本，两个流都不关闭
+	 * @return 读取的字符数
+	 */
+	public static long toHalf(Reader in, Writer out) throws IOException {
+		return convert(in, out, true);
+	}
+
+	/**
+	 * 半角转全角，从in读到末尾并写入out，两个流都不关闭
+	 * @return 读取的字符数
+	 */
+	public static long toFull(Reader in, Writer out) throws IOException {
+		return convert(in, out, false);
+	}
+
+	private static String convert(CharSequence src, boolean half) {
+		int length = src.length();
+		int first = indexOfMapped(src, half);
+		if (first < 0) {
+			return src.toString();
+		}
+		char[] out = new char[length];
+		for (int i = 0; i < first; i++) {
+			out[i] = src.charAt(i);
+		}
+		for (int i = first; i < length; i++) {
+			char ch = src.charAt(i);
+			out[i] = half ? half(ch) : full(ch);
+		}
+		return new String(out);
+	}
+
+	private static long convert(Reader in, Writer out, boolean half) throws IOException {
+		char[] buffer = new char[BUFFER_SIZE];
+		long count = 0;
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			for (int i = 0; i < read; i++) {
+				buffer[i] = half ? half(buffer[i]) : full(buffer[i]);
+			}
+			out.write(buffer, 0, read);
+			count += read;
+		}
+		return count;
+	}
+
+	private static int indexOfMapped(CharSequence src, boolean half) {
+		for (int i = 0, length = src.length(); i < length; i++) {
+			char ch = src.charAt(i);
+			if ((half ? half(ch) : full(ch)) != ch) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 汉字(U+4E00起)走前两个比较即返回
+	 */
+	private static char half(char ch) {
+		if (ch >= FULL_FIRST) {
+			return ch <= FULL_LAST ? (char) (ch - OFFSET) : ch;
+		}
+		if (ch < CJK_FIRST) {
+			return ch;
+		}
+		if (ch < CJK_FIRST + CJK_TO_HALF.length) {
+			char mapped = CJK_TO_HALF[ch - CJK_FIRST];
+			return mapped != 0 ? mapped : ch;
+		}
+		return ch == '︿' ? '^' : ch;
+	}
+
+	private static char full(char ch) {
+		if (ch < TO_FULL.length) {
+			char mapped = TO_FULL[ch];
+			if (mapped != 0) {
+				return mapped;
+			}
+		}
+		return ch;
+	}
+}
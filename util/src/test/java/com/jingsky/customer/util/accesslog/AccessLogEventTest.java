@@ -0,0 +1,72 @@
+package com.jingsky.customer.util.accesslog;
+
+import com.jingsky.customer.util.util.SecretMask;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AccessLogEventTest {
+
+	@Test
+	public void secretParametersAreMasked() {
+		Map<String, String> params = new LinkedHashMap<String, String>();
+		params.put("name", "tom");
+		params.put("password", "p4ss");
+		params.put("newPassword", "n3w");
+		params.put("a_token", "abc");
+		params.put("clientSecret", "s3c");
+		params.put("age", "18");
+		AccessLogEvent event = new AccessLogEvent();
+		event.fill(request(params), "127.0.0.1", "code", 200, 1000);
+		assertEquals(6, event.paramCount);
+		assertEquals("tom", event.paramValues[0]);
+		assertEquals(SecretMask.MASK, event.paramValues[1]);
+		assertEquals(SecretMask.MASK, event.paramValues[2]);
+		assertEquals(SecretMask.MASK, event.paramValues[3]);
+		assertEquals(SecretMask.MASK, event.paramValues[4]);
+		assertEquals("18", event.paramValues[5]);
+	}
+
+	@Test
+	public void secretNamesIgnoreCase() {
+		assertTrue(SecretMask.isSecret("PASSWORD"));
+		assertTrue(SecretMask.isSecret("userPwd"));
+		assertTrue(SecretMask.isSecret("User_Token"));
+		assertTrue(SecretMask.isSecret("passwd"));
+		assertFalse(SecretMask.isSecret("name"));
+		assertFalse(SecretMask.isSecret("tok"));
+		assertFalse(SecretMask.isSecret(""));
+		assertFalse(SecretMask.isSecret(null));
+	}
+
+	private static HttpServletRequest request(final Map<String, String> params) {
+		return (HttpServletRequest) Proxy.newProxyInstance(AccessLogEventTest.class.getClassLoader(),
+				new Class<?>[]{HttpServletRequest.class}, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						switch (method.getName()) {
+							case "getMethod":
+								return "POST";
+							case "getRequestURI":
+								return "/login";
+							case "getParameterNames":
+								return Collections.enumeration(params.keySet());
+							case "getParameter":
+								return params.get(args[0]);
+							default:
+								return null;
+						}
+					}
+				});
+	}
+}
@@ -0,0 +1,71 @@
+package com.jingsky.customer.util.accesslog;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AccessLogPolicyTest {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(300);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void errorsAndSlowRequestsBypassSampling() throws IOException {
+		AccessLogPolicy policy = policy("sample./me=0\nslowMillis=200\n");
+		assertFalse(policy.shouldLog("/me", 200, FAST, false));
+		assertTrue(policy.shouldLog("/me", 500, FAST, false));
+		assertTrue(policy.shouldLog("/me", 503, FAST, false));
+		//an exception resolved to the error page,whatever status it left
+		assertTrue(policy.shouldLog("/me", 200, FAST, true));
+		assertTrue(policy.shouldLog("/me", 200, SLOW, false));
+		assertTrue(policy.shouldLog("/login", 200, FAST, false));
+	}
+
+	@Test
+	public void errorsAndSlowRequestsBypassTheRateLimit() throws IOException {
+		AccessLogPolicy policy = policy("maxLinesPerSecond=1\nslowMillis=200\n");
+		int logged = 0;
+		for (int i = 0; i < 100; i++) {
+			if (policy.shouldLog("/me", 200, FAST, false)) {
+				logged++;
+			}
+		}
+		//one second of burst,a slow test run may add a line
+		assertTrue(String.valueOf(logged), logged >= 1 && logged <= 3);
+		for (int i = 0; i < 100; i++) {
+			assertTrue(policy.shouldLog("/me", 500, FAST, false));
+			assertTrue(policy.shouldLog("/me", 200, FAST, true));
+			assertTrue(policy.shouldLog("/me", 200, SLOW, false));
+		}
+	}
+
+	@Test
+	public void exactUriBeforeLongestPrefix() throws IOException {
+		AccessLogPolicy policy = policy("sample.default=0\nsample./customers/*=1\nsample./customers/export/*=0\nsample./customers/export/all=1\n");
+		assertTrue(policy.shouldLog("/customers/1", 200, FAST, false));
+		assertFalse(policy.shouldLog("/customers/export/csv", 200, FAST, false));
+		assertTrue(policy.shouldLog("/customers/export/all", 200, FAST, false));
+		assertFalse(policy.shouldLog("/me", 200, FAST, false));
+	}
+
+	private AccessLogPolicy policy(String text) throws IOException {
+		File file = folder.newFile("access-log-policy.properties");
+		try (OutputStream out = new FileOutputStream(file)) {
+			out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+		}
+		return AccessLogPolicy.load(file.getPath());
+	}
+}
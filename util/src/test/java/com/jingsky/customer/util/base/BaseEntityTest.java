@@ -0,0 +1,89 @@
+package com.jingsky.customer.util.base;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 按实体分页的参数须随实体经dubbo传到服务端，否则findByEntity、findByEntityAfter会返回全部记录
+ */
+public class BaseEntityTest {
+
+	@Test
+	public void pagingSurvivesSerialization() throws Exception {
+		Item item = new Item("tom");
+		item.setPageIndex(3);
+		item.setPageSize(20);
+		item.setOrderBy("name desc");
+		item.setAfterKey("jack");
+		item.setSqldecode(false);
+		item.setPage(new Page<Item>());
+
+		Item copy = roundTrip(item);
+		assertEquals(Integer.valueOf(40), copy.getLimitStart());
+		assertEquals(Integer.valueOf(20), copy.getLimitEnd());
+		assertEquals("name desc", copy.getOrderBy());
+		assertEquals("jack", copy.getAfterKey());
+		assertFalse(copy.isSqldecode());
+		assertNull(copy.getPage());
+	}
+
+	@Test
+	public void limitsSurviveSerialization() throws Exception {
+		Item item = new Item("tom");
+		item.setLimitStart(0);
+		item.setLimitEnd(1);
+		Item copy = roundTrip(item);
+		assertEquals(Integer.valueOf(0), copy.getLimitStart());
+		assertEquals(Integer.valueOf(1), copy.getLimitEnd());
+	}
+
+	@Test
+	public void unsetPagingStaysNull() throws Exception {
+		Item copy = roundTrip(new Item("tom"));
+		assertNull(copy.getLimitStart());
+		assertNull(copy.getLimitEnd());
+		assertNull(copy.getOrderBy());
+		assertTrue(copy.isSqldecode());
+	}
+
+	@Test
+	public void pagingIsNotPartOfEquality() {
+		Item paged = new Item("tom");
+		paged.setPageIndex(2);
+		paged.setOrderBy("name");
+		Item plain = new Item("tom");
+		assertEquals(plain, paged);
+		assertEquals(plain.hashCode(), paged.hashCode());
+		assertEquals("Item[name=tom]", paged.toString());
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E> E roundTrip(E value) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(value);
+		out.close();
+		return (E) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+	}
+
+	private static final class Item extends BaseEntity<String, Item> {
+
+		private static final long serialVersionUID = 1L;
+
+		private String name;
+
+		Item(String name) {
+			this.name = name;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.jingsky.customer.util.util;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 与原StringUtil.underlineToJavaString/javaStringToUnderline的实现逐一对照，原实现复制在{@link Legacy}中。
+ */
+public class CaseConverterTest {
+
+	private static final String[] EDGE = {"", "_", "a", "a_", "_a", "__", "___", "a__b", "a___b", "_\n", "a_\nb", "_\r\n",
+			"_\u0085", "_\u2028", "_\u2029", "__\n", "_😀", "a_😀b", "_\uD83D", "_\uDE00", "\uD83D_", "_ß", "_é", "_ǆ",
+			"_1", "_-", "good_boy", "user_name_", "_user_name", "A", "_A", "AB", "goodBoy", "GoodBoy", "_GoodBoy",
+			"__Good", "a1B2", "中文_abc", "ÀÉ", "a\nB", "😀A"};
+
+	private static final String[] TOKENS = {"_", "a", "z", "A", "Z", "0", "-", " ", "\n", "\r", "\u2028", "中", "ß", "é",
+			"😀", "\uD83D", "\uDE00"};
+
+	@Test
+	public void underlineToCamelMatchesLegacy() {
+		for (String src : inputs()) {
+			assertEquals(escape(src), Legacy.underlineToJavaString(src), CaseConverter.underlineToCamel(src));
+			assertEquals(escape(src), Legacy.underlineToJavaString(src), StringUtil.underlineToJavaString(src));
+		}
+	}
+
+	@Test
+	public void camelToUnderlineMatchesLegacy() {
+		for (String src : inputs()) {
+			if (src.isEmpty()) {
+				continue;
+			}
+			assertEquals(escape(src), Legacy.javaStringToUnderline(src), CaseConverter.camelToUnderline(src));
+			assertEquals(escape(src), Legacy.javaStringToUnderline(src), StringUtil.javaStringToUnderline(src));
+		}
+	}
+
+	/**
+	 * 原实现把"_$"、"_\"交给appendReplacement，抛出异常，空串转下划线时也抛出异常
+	 */
+	@Test
+	public void convertsInputsLegacyRejected() {
+		assertEquals("a$b", CaseConverter.underlineToCamel("a_$b"));
+		assertEquals("a\\b", CaseConverter.underlineToCamel("a_\\b"));
+		assertEquals("", CaseConverter.camelToUnderline(""));
+	}
+
+	@Test
+	public void returnsSameStringWhenNothingChanges() {
+		String camel = "goodBoy";
+		assertSame(camel, CaseConverter.underlineToCamel(camel));
+		String underline = "good_boy";
+		assertSame(underline, CaseConverter.camelToUnderline(underline));
+		String trailing = "good_";
+		assertSame(trailing, CaseConverter.underlineToCamel(trailing));
+	}
+
+	private static String[] inputs() {
+		Random random = new Random(42);
+		String[] inputs = new String[EDGE.length + 20000];
+		System.arraycopy(EDGE, 0, inputs, 0, EDGE.length);
+		for (int i = EDGE.length; i < inputs.length; i++) {
+			StringBuilder sb = new StringBuilder();
+			for (int n = random.nextInt(10); n > 0; n--) {
+				sb.append(TOKENS[random.nextInt(TOKENS.length)]);
+			}
+			inputs[i] = sb.toString();
+		}
+		return inputs;
+	}
+
+	private static String escape(String src) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < src.length(); i++) {
+			char ch = src.charAt(i);
+			if (ch < 0x20 || ch > 0x7e) {
+				sb.append(String.format("\\u%04x", (int) ch));
+			} else {
+				sb.append(ch);
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 基线版本StringUtil中的实现
+	 */
+	private static final class Legacy {
+
+		static String underlineToJavaString(String sourceStr) {
+			String regexStr = "_.";
+			Matcher matcher = Pattern.compile(regexStr).matcher(sourceStr);
+			StringBuffer sb = new StringBuffer();
+			while (matcher.find()) {
+				String g = matcher.group();
+				g = g.replace("_", "");
+				matcher.appendReplacement(sb, g.toUpperCase());
+			}
+			matcher.appendTail(sb);
+			return sb.toString();
+		}
+
+		static String javaStringToUnderline(String sourceStr) {
+			String regexStr = "[A-Z]";
+			Matcher matcher = Pattern.compile(regexStr).matcher(sourceStr);
+			StringBuffer sb = new StringBuffer();
+			while (matcher.find()) {
+				String g = matcher.group();
+				matcher.appendReplacement(sb, "_" + g.toLowerCase());
+			}
+			matcher.appendTail(sb);
+			if (sb.charAt(0) == '_') {
+				sb.delete(0, 1);
+			}
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package com.jingsky.customer.util.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 与原StringUtil.htmlEncode/htmlDecode的实现逐一对照，原实现复制在{@link Legacy}中。
+ */
+public class HtmlEscaperTest {
+
+	private static final String[] EDGE = {"", "a", "<", ">", "&", "\"", "'", "&&", "<>", "a<b>c", "&lt;", "&amp;lt;",
+			"&#039;", "&#39;", "&apos;", "&quot;", "&", "&lt", "&;", "中文<b>", "😀<😀",
+			"\uD83D", "\uDE00&", "x\u0000<", "<<<<", "&&&&lt;lt;"};
+
+	private static final String[] TOKENS = {"a", "中", "😀", "\uDC00", " ", "\n", "<", ">", "&", "\"", "'",
+			"&lt;", "&gt;", "&quot;", "&#039;", "&amp;", "&#39;", "&apos;", "&x;", ";", "#"};
+
+	@Test
+	public void escapeWithQuotesMatchesLegacy() {
+		for (String src : inputs()) {
+			for (int quotes = 1; quotes <= 4; quotes++) {
+				assertEquals(src + " quotes=" + quotes, Legacy.htmlEncode(src, quotes), HtmlEscaper.escape(src, quotes));
+			}
+		}
+	}
+
+	/**
+	 * 原实现按HashMap的顺序逐个replaceAll，双引号先于&amp;替换，被转义两次；其余字符一致
+	 */
+	@Test
+	public void escapeMatchesLegacyExceptDoubleQuote() {
+		for (String src : inputs()) {
+			if (src.indexOf('"') < 0) {
+				assertEquals(src, Legacy.htmlEncode(src), HtmlEscaper.escape(src));
+			}
+		}
+		assertEquals("&amp;quot;", Legacy.htmlEncode("\""));
+		assertEquals("&quot;", HtmlEscaper.escape("\""));
+	}
+
+	/**
+	 * 原实现先还原&amp;amp;再还原其它实体，&amp;amp;lt;被还原两层；也不识别&amp;#39;和&amp;apos;
+	 */
+	@Test
+	public void unescapeMatchesLegacyExceptDoubleDecoding() {
+		for (String src : inputs()) {
+			if (!src.contains("&amp;") && !src.contains("&#39;") && !src.contains("&apos;")) {
+				assertEquals(src, Legacy.htmlDecode(src), HtmlEscaper.unescape(src));
+			}
+		}
+		assertEquals("<", Legacy.htmlDecode("&amp;lt;"));
+		assertEquals("&lt;", HtmlEscaper.unescape("&amp;lt;"));
+		assertEquals("''", HtmlEscaper.unescape("&#39;&apos;"));
+	}
+
+	@Test
+	public void unescapeReversesEscape() {
+		for (String src : inputs()) {
+			assertEquals(src, HtmlEscaper.unescape(HtmlEscaper.escape(src)));
+		}
+	}
+
+	@Test
+	public void appendVariantsMatchString() throws IOException {
+		for (String src : inputs()) {
+			for (int quotes = 0; quotes <= 3; quotes++) {
+				String expected = HtmlEscaper.escape(src, quotes);
+				assertEquals(expected, HtmlEscaper.escape(src, quotes, new StringBuilder()).toString());
+				StringWriter writer = new StringWriter();
+				HtmlEscaper.escape(src, quotes, writer);
+				assertEquals(expected, writer.toString());
+			}
+			String expected = HtmlEscaper.unescape(src);
+			assertEquals(expected, HtmlEscaper.unescape(src, new StringBuilder()).toString());
+			StringWriter writer = new StringWriter();
+			HtmlEscaper.unescape(src, writer);
+			assertEquals(expected, writer.toString());
+		}
+	}
+
+	@Test
+	public void returnsSameStringWhenNothingChanges() {
+		String src = "plain 中文 😀";
+		assertSame(src, HtmlEscaper.escape(src));
+		assertSame(src, HtmlEscaper.unescape(src));
+		String quoted = "say \"hi\", it's";
+		assertSame(quoted, HtmlEscaper.escape(quoted, HtmlEscaper.QUOTES_NONE));
+	}
+
+	@Test
+	public void stringUtilKeepsNullHandling() {
+		assertEquals("", StringUtil.htmlEncode(null));
+		assertEquals("", StringUtil.htmlEncode(null, 1));
+		assertEquals("", StringUtil.htmlDecode(null));
+	}
+
+	private static String[] inputs() {
+		Random random = new Random(42);
+		String[] inputs = new String[EDGE.length + 5000];
+		System.arraycopy(EDGE, 0, inputs, 0, EDGE.length);
+		for (int i = EDGE.length; i < inputs.length; i++) {
+			StringBuilder sb = new StringBuilder();
+			for (int n = random.nextInt(12); n > 0; n--) {
+				sb.append(TOKENS[random.nextInt(TOKENS.length)]);
+			}
+			inputs[i] = sb.toString();
+		}
+		return inputs;
+	}
+
+	/**
+	 * 基线版本StringUtil中的实现
+	 */
+	private static final class Legacy {
+
+		static String htmlEncode(String strSrc) {
+			Map<String, String> coverMap = getHtmlCoverMap();
+			for (String key : coverMap.keySet()) {
+				strSrc = strSrc.replaceAll(key, coverMap.get(key));
+			}
+			return strSrc;
+		}
+
+		static String htmlEncode(String strSrc, int quotes) {
+			if (quotes == 0) {
+				return htmlEncode(strSrc);
+			}
+			char[] arr_cSrc = strSrc.toCharArray();
+			StringBuffer buf = new StringBuffer(arr_cSrc.length);
+			char ch;
+			for (int i = 0; i < arr_cSrc.length; i++) {
+				ch = arr_cSrc[i];
+				if (ch == '<')
+					buf.append("&lt;");
+				else if (ch == '>')
+					buf.append("&gt;");
+				else if (ch == '"' && quotes == 1)
+					buf.append("&quot;");
+				else if (ch == '\'' && quotes == 2)
+					buf.append("&#039;");
+				else if (ch == '&')
+					buf.append("&amp;");
+				else
+					buf.append(ch);
+			}
+			return buf.toString();
+		}
+
+		static String htmlDecode(String strSrc) {
+			Map<String, String> coverMap = getHtmlCoverMap();
+			for (String key : coverMap.keySet()) {
+				strSrc = strSrc.replaceAll(coverMap.get(key), key);
+			}
+			return strSrc;
+		}
+
+		private static Map<String, String> getHtmlCoverMap() {
+			Map<String, String> coverMap = new HashMap<String, String>();
+			coverMap.put("<", "&lt;");
+			coverMap.put(">", "&gt;");
+			coverMap.put("\"", "&quot;");
+			coverMap.put("'", "&#039;");
+			coverMap.put("&", "&amp;");
+			return coverMap;
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package com.jingsky.customer.util.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 与原StringUtil.changeToHalf/changeToFull逐字符对照，原实现复制在{@link Legacy}中。
+ */
+public class WidthConverterTest {
+
+	@Test
+	public void toHalfDiffersFromLegacyOnlyWhereIntended() {
+		Set<Character> expected = new HashSet<Character>(Arrays.asList(
+				//原表错位，半角反斜杠被转成双引号
+				'\\',
+				//全角空格
+				'\u3000',
+				//原表缺少的标准全角形式
+				'＂', '＇', '．', '＜', '＞', '［', '］', '＾', '｀', '｛', '｝', '～'));
+		assertEquals(expected, differences(true));
+	}
+
+	@Test
+	public void toFullDiffersFromLegacyOnlyWhereIntended() {
+		assertEquals(new HashSet<Character>(Arrays.asList('`', '{', '}', '~')), differences(false));
+	}
+
+	@Test
+	public void fullWidthAsciiRange() {
+		for (char full = 0xFF01; full <= 0xFF5E; full++) {
+			assertEquals(String.valueOf((char) (full - 0xFEE0)), WidthConverter.toHalf(String.valueOf(full)));
+		}
+		assertEquals("\uFF00\uFF5F\uFFFF", WidthConverter.toHalf("\uFF00\uFF5F\uFFFF"));
+	}
+
+	@Test
+	public void halfWidthAsciiRange() {
+		for (char half = 0x21; half <= 0x7E; half++) {
+			String full = WidthConverter.toFull(String.valueOf(half));
+			if (half == '\'' || half == '"') {
+				assertEquals(String.valueOf(half), full);
+			} else if ("^[]<>.".indexOf(half) >= 0) {
+				assertEquals(Legacy.changeToFull(String.valueOf(half)), full);
+			} else {
+				assertEquals(String.valueOf((char) (half + 0xFEE0)), full);
+			}
+		}
+		assertEquals(" \u007F", WidthConverter.toFull(" \u007F"));
+	}
+
+	@Test
+	public void cjkPunctuationRange() {
+		assertEquals(" .<>[]^", WidthConverter.toHalf("\u3000。〈〉【】︿"));
+		for (char ch = 0x3001; ch <= 0x3011; ch++) {
+			if ("。〈〉【】".indexOf(ch) < 0) {
+				assertEquals(String.valueOf(ch), WidthConverter.toHalf(String.valueOf(ch)));
+			}
+		}
+		assertEquals("\u3012\u4E2D\uFE3E\uFE40", WidthConverter.toHalf("\u3012\u4E2D\uFE3E\uFE40"));
+	}
+
+	@Test
+	public void stringsAndEdges() throws IOException {
+		assertEquals("", WidthConverter.toHalf(""));
+		assertEquals("", WidthConverter.toFull(""));
+		String plain = "中文 😀 \uD83D";
+		assertSame(plain, WidthConverter.toHalf(plain));
+		String mixed = "ＡＢＣ１２３，中文😀\uDE00【ｘ】";
+		assertEquals(Legacy.changeToHalf(mixed), WidthConverter.toHalf(mixed));
+		assertEquals("ABC123,中文😀\uDE00[x]", WidthConverter.toHalf(mixed));
+		String half = "abc 123,😀\uD83D[x]";
+		assertEquals(Legacy.changeToFull(half), WidthConverter.toFull(half));
+
+		StringWriter out = new StringWriter();
+		assertEquals(mixed.length(), WidthConverter.toHalf(new StringReader(mixed), out));
+		assertEquals(WidthConverter.toHalf(mixed), out.toString());
+		out = new StringWriter();
+		WidthConverter.toFull(new StringReader(half), out);
+		assertEquals(WidthConverter.toFull(half), out.toString());
+	}
+
+	private static Set<Character> differences(boolean half) {
+		Set<Character> differences = new TreeSet<Character>();
+		for (int ch = 0; ch <= Character.MAX_VALUE; ch++) {
+			String src = String.valueOf((char) ch);
+			String legacy = half ? Legacy.changeToHalf(src) : Legacy.changeToFull(src);
+			String converted = half ? WidthConverter.toHalf(src) : WidthConverter.toFull(src);
+			if (!legacy.equals(converted)) {
+				differences.add((char) ch);
+			}
+		}
+		return differences;
+	}
+
+	/**
+	 * 基线版本StringUtil中的实现
+	 */
+	private static final class Legacy {
+
+		static String changeToHalf(String str) {
+			String[] decode = {"1","2","3","4","5","6","7","8","9","0","!","@","#","$","%","^","&","*","(",")","a","b","c","d","e","f","g","h","i","j","k","l"
+					,"m","n","o","p","q","r","s","t","u","v","w","x","y","z","A","B","C","D","E","F","G","H","I","J","K","L","M","N","O","P","Q","R","S","T","U"
+					,"V","W","X","Y","Z","-","_","=","+","\\","|","[","]",";",":","'","\"",",","<",".",">","/","?"};
+			String source= "１２３４５６７８９０！＠＃＄％︿＆＊（）ａｂｃｄｅｆｇｈｉｊｋｌｍｎｏｐｑｒｓｔｕｖｗｘｙｚＡＢＣＤＥＦＧＨＩＪＫＬＭＮＯＰＱＲＳＴＵＶＷＸＹＺ－＿＝＋＼｜【】；：'\\，〈。〉／？";
+			String result = "";
+			for (int i = 0; i < str.length(); i++) {
+				int pos = source.indexOf(str.charAt(i));
+				if (pos != -1) {
+					result += decode[pos];
+				} else {
+					result += str.charAt(i);
+				}
+			}
+			return result;
+		}
+
+		static String changeToFull(String str) {
+			String source = "1234567890!@#$%^&*()abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ-_=+\\|[];:'\",<.>/?";
+			String[] decode = { "１", "２", "３", "４", "５", "６", "７", "８", "９", "０",
+					"！", "＠", "＃", "＄", "％", "︿", "＆", "＊", "（", "）", "ａ", "ｂ",
+					"ｃ", "ｄ", "ｅ", "ｆ", "ｇ", "ｈ", "ｉ", "ｊ", "ｋ", "ｌ", "ｍ", "ｎ",
+					"ｏ", "ｐ", "ｑ", "ｒ", "ｓ", "ｔ", "ｕ", "ｖ", "ｗ", "ｘ", "ｙ", "ｚ",
+					"Ａ", "Ｂ", "Ｃ", "Ｄ", "Ｅ", "Ｆ", "Ｇ", "Ｈ", "Ｉ", "Ｊ", "Ｋ", "Ｌ",
+					"Ｍ", "Ｎ", "Ｏ", "Ｐ", "Ｑ", "Ｒ", "Ｓ", "Ｔ", "Ｕ", "Ｖ", "Ｗ", "Ｘ",
+					"Ｙ", "Ｚ", "－", "＿", "＝", "＋", "＼", "｜", "【", "】", "；", "：",
+					"'", "\"", "，", "〈", "。", "〉", "／", "？" };
+			String result = "";
+			for (int i = 0; i < str.length(); i++) {
+				int pos = source.indexOf(str.charAt(i));
+				if (pos != -1) {
+					result += decode[pos];
+				} else {
+					result += str.charAt(i);
+				}
+			}
+			return result;
+		}
+	}
+}
@@ -1,30 +1,61 @@
 package com.jingsky.customer.web.controller;
 
+import com.alibaba.fastjson.JSONObject;
 import com.jingsky.customer.entity.Customer;
+import com.jingsky.customer.iservice.IAsyncCustomerService;
 import com.jingsky.customer.iservice.ICustomerService;
+import com.jingsky.customer.util.base.Page;
+import com.jingsky.customer.util.base.QuerySpec;
+import com.jingsky.customer.util.deadline.Deadline;
+import com.jingsky.customer.util.deadline.DeadlineExceededException;
 import com.jingsky.customer.util.util.ResultMessage;
+import com.jingsky.customer.web.interceptor.RequestTimeout;
 import org.apache.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
 
 @Controller
 public class CustomerController {
 
 	private static final Logger logger=Logger.getLogger(CustomerController.class);
 
+	/**
+	 * rows fetched per keyset page while exporting, each page is written and flushed before the next is read
+	 */
+	private static final int EXPORT_CHUNK = 1000;
+
+	/**
+	 * time budget of reading one export page,the export as a whole is only bounded by the client
+	 */
+	private static final long EXPORT_CHUNK_TIMEOUT = 10000L;
+
 	@Autowired
 	private ICustomerService customerService;
 
+	@Autowired
+	private IAsyncCustomerService asyncCustomerService;
+
 	/**
 	 * update
 	 * @return
 	 */
 	@RequestMapping(value = "/update")
+	@RequestTimeout(5000)
 	@ResponseBody
 	public Object update(@RequestBody Customer customer, HttpServletRequest request) {
 		//read name from session
@@ -41,41 +72,69 @@ public class CustomerController {
 	}
 
 	/**
-	 * me
+	 * me,answered asynchronously so the servlet thread is not held during the rpc
 	 * @return
 	 */
 	@RequestMapping(value = "/me")
+	@RequestTimeout(3000)
 	@ResponseBody
-	public Object me(HttpServletRequest request) {
+	public DeferredResult<Object> me(HttpServletRequest request) {
 		//read name from session
 		String name=request.getSession().getAttribute("name").toString();
 		Customer customer=new Customer();
 		customer.setName(name);
 		//find
-		customer=customerService.findOne(customer);
-
-		return customer;
+		final DeferredResult<Object> deferredResult=deferredResult();
+		asyncCustomerService.findOne(customer).whenComplete(new BiConsumer<Customer, Throwable>() {
+			@Override
+			public void accept(Customer found, Throwable ex) {
+				if (ex != null) {
+					deferredResult.setErrorResult(unwrap(ex));
+				} else {
+					deferredResult.setResult(found);
+				}
+			}
+		});
+		return deferredResult;
 	}
 
 	/**
-	 * login
+	 * login,answered asynchronously so the servlet thread is not held during the rpc
 	 * @return
 	 */
 	@RequestMapping(value = "/login")
+	@RequestTimeout(3000)
 	@ResponseBody
-	public Object login(@RequestBody Customer customer, HttpServletRequest request) {
-		//return
-		ResultMessage resultMessage=new ResultMessage();
+	public DeferredResult<Object> login(@RequestBody Customer customer, HttpServletRequest request) {
+		final DeferredResult<Object> deferredResult=deferredResult();
+		//the callback runs on a dubbo thread,when the request may already have timed out and been recycled,
+		//so the session is looked up here on the container thread
+		final HttpSession session=request.getSession();
 		//find
-		customer=customerService.findOne(customer);
-		if(customer!=null){
-			//save to session
-			request.getSession().setAttribute("name",customer.getName());
-		}else{
-			resultMessage.put("status","failure");
-			resultMessage.put("msg","name or password error !");
-		}
-		return resultMessage;
+		asyncCustomerService.findOne(customer).whenComplete(new BiConsumer<Customer, Throwable>() {
+			@Override
+			public void accept(Customer found, Throwable ex) {
+				if (ex != null) {
+					deferredResult.setErrorResult(unwrap(ex));
+					return;
+				}
+				//the client was already told the login timed out
+				if (deferredResult.isSetOrExpired()) {
+					return;
+				}
+				//return
+				ResultMessage resultMessage=new ResultMessage();
+				if(found!=null){
+					//save to session
+					session.setAttribute("name",found.getName());
+				}else{
+					resultMessage.put("status","failure");
+					resultMessage.put("msg","name or password error !");
+				}
+				deferredResult.setResult(resultMessage);
+			}
+		});
+		return deferredResult;
 	}
 
 	/**
@@ -83,6 +142,7 @@ public class CustomerController {
 	 * @return
 	 */
 	@RequestMapping(value = "/register")
+	@RequestTimeout(5000)
 	@ResponseBody
 	public Object register(@RequestBody Customer customer) {
 		//return
@@ -106,4 +166,87 @@ public class CustomerController {
 		return resultMessage;
 	}
 
+	/**
+	 * export every customer as ndjson or csv(name,age; passwords are never exported).<br/>
+	 * rows are read in keyset pages ordered by name and streamed out page by page,
+	 * so neither jvm holds the whole table and the client sees data as soon as the first page is read.<br/>
+	 * only for the admins of customer.export.adminNames,see AdminInterceptor
+	 */
+	@RequestMapping(value = "/customers/export")
+	@RequestTimeout(EXPORT_CHUNK_TIMEOUT)
+	public void export(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+					   HttpServletResponse response) throws IOException {
+		boolean csv="csv".equalsIgnoreCase(format);
+		response.setCharacterEncoding("UTF-8");
+		if(csv){
+			response.setContentType("text/csv;charset=UTF-8");
+			response.setHeader("Content-Disposition","attachment; filename=customers.csv");
+		}else{
+			response.setContentType("application/x-ndjson;charset=UTF-8");
+		}
+		Writer writer=new BufferedWriter(new OutputStreamWriter(response.getOutputStream(),"UTF-8"));
+		if(csv){
+			writer.write("name,age\n");
+		}
+		QuerySpec spec=new QuerySpec().limit(EXPORT_CHUNK);
+		long rows=0;
+		Page<Customer> page;
+		do{
+			//every page gets a fresh budget,slow clients must not eat the time of the next read
+			Deadline.start(EXPORT_CHUNK_TIMEOUT);
+			page=customerService.pageAfter(spec);
+			for(Customer customer:page.getData()){
+				if(csv){
+					writer.write(csvField(customer.getName()));
+					writer.write(',');
+					writer.write(customer.getAge()==null?"":customer.getAge().toString());
+				}else{
+					JSONObject row=new JSONObject();
+					row.put("name",customer.getName());
+					row.put("age",customer.getAge());
+					writer.write(row.toJSONString());
+				}
+				writer.write('\n');
+			}
+			rows+=page.getData().size();
+			//push the page to the client before reading the next one
+			writer.flush();
+			spec.after(page.getAfterKey());
+		}while(page.getAfterKey()!=null);
+		logger.info("exported "+rows+" customers as "+(csv?"csv":"ndjson"));
+	}
+
+	private static String csvField(String value) {
+		if(value==null){
+			return "";
+		}
+		if(value.indexOf(',')<0 && value.indexOf('"')<0 && value.indexOf('\n')<0 && value.indexOf('\r')<0){
+			return value;
+		}
+		return '"'+value.replace("\"","\"\"")+'"';
+	}
+
+	/**
+	 * deferred result that fails with DeadlineExceededException when the request deadline passes,
+	 * for handlers whose dubbo call completes on another thread
+	 */
+	private static DeferredResult<Object> deferredResult() {
+		final long timeout=Math.max(1,Deadline.remainingMillis());
+		final DeferredResult<Object> deferredResult=new DeferredResult<Object>(timeout);
+		deferredResult.onTimeout(new Runnable() {
+			@Override
+			public void run() {
+				deferredResult.setErrorResult(new DeadlineExceededException("no response within "+timeout+"ms"));
+			}
+		});
+		return deferredResult;
+	}
+
+	/**
+	 * futures built with thenApply report failures wrapped in a CompletionException
+	 */
+	private static Throwable unwrap(Throwable ex) {
+		return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+	}
+
 }
\ No newline at end of file
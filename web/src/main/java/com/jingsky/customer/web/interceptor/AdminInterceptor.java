@@ -0,0 +1,61 @@
+package com.jingsky.customer.web.interceptor;
+
+import com.alibaba.fastjson.JSONObject;
+import org.apache.log4j.Logger;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Lets only the customers of adminNames through,for endpoints that expose other customers' data.
+ * Others get 403,also when logged in;no admin names:nobody passes.
+ */
+public class AdminInterceptor implements HandlerInterceptor {
+
+    private static final Logger LOGGER = Logger.getLogger(AdminInterceptor.class);
+
+    private Set<String> adminNames = Collections.emptySet();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        HttpSession session = request.getSession(false);
+        Object name = session == null ? null : session.getAttribute("name");
+        if (name != null && adminNames.contains(name.toString())) {
+            return true;
+        }
+        LOGGER.warn("forbidden " + request.getRequestURI() + " for " + name);
+        response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("status", "failure");
+        jsonObject.put("msg", "forbidden");
+        response.getWriter().print(jsonObject.toString());
+        return false;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+    }
+
+    /**
+     * @param adminNames ',' separated customer names
+     */
+    public void setAdminNames(String adminNames) {
+        Set<String> names = new HashSet<String>();
+        for (String name : adminNames.split(",")) {
+            if (!name.trim().isEmpty()) {
+                names.add(name.trim());
+            }
+        }
+        this.adminNames = names;
+    }
+}
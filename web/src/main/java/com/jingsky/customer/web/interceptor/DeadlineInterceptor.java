@@ -0,0 +1,44 @@
+package com.jingsky.customer.web.interceptor;
+
+import com.jingsky.customer.util.deadline.Deadline;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Starts the request {@link Deadline} from the handler's {@link RequestTimeout},
+ * and clears it when the servlet thread is done with the request,also when an async handler hands it over.
+ */
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    private long defaultTimeoutMillis = 10000L;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        RequestTimeout timeout = handler instanceof HandlerMethod
+                ? ((HandlerMethod) handler).getMethodAnnotation(RequestTimeout.class) : null;
+        Deadline.start(timeout != null ? timeout.value() : defaultTimeoutMillis);
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        Deadline.clear();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        Deadline.clear();
+    }
+
+    public void setDefaultTimeoutMillis(long defaultTimeoutMillis) {
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+}
@@ -0,0 +1,20 @@
+package com.jingsky.customer.web.interceptor;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Time budget of a handler method in milliseconds,started by {@link DeadlineInterceptor} before the handler runs
+ * and carried into the dubbo calls and sql it makes.
+ * Handlers without it get {@link DeadlineInterceptor#setDefaultTimeoutMillis(long)}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestTimeout {
+
+    long value();
+}
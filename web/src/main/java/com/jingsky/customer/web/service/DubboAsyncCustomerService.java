@@ -0,0 +1,203 @@
+package com.jingsky.customer.web.service;
+
+import com.alibaba.dubbo.remoting.exchange.ResponseCallback;
+import com.alibaba.dubbo.rpc.Result;
+import com.alibaba.dubbo.rpc.RpcContext;
+import com.alibaba.dubbo.rpc.protocol.dubbo.FutureAdapter;
+import com.jingsky.customer.entity.Customer;
+import com.jingsky.customer.iservice.IAsyncCustomerService;
+import com.jingsky.customer.iservice.ICustomerService;
+import com.jingsky.customer.service.deadline.ConsumerDeadlineFilter;
+import com.jingsky.customer.util.base.Page;
+import com.jingsky.customer.util.trace.Span;
+import com.jingsky.customer.util.trace.Trace;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Non-blocking customer service on top of an async="true" dubbo reference.
+ * Each call only sends the request; the future completes from dubbo's response callback,
+ * so no thread waits for the provider. findOne consults the near cache first when one is set.
+ * The request's rpc-client span is recorded from the callback,see ConsumerTraceFilter.
+ */
+public class DubboAsyncCustomerService implements IAsyncCustomerService {
+
+    private ICustomerService asyncReference;
+    private NearCacheCustomerService nearCache;
+
+    @Override
+    public CompletableFuture<Customer> get(final Long id) {
+        try {
+            asyncReference.get(id);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+        return this.<Customer>lastCall();
+    }
+
+    @Override
+    public CompletableFuture<List<Customer>> find(final Map<String, Object> params) {
+        try {
+            asyncReference.find(params);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+        return this.<List<Customer>>lastCall();
+    }
+
+    @Override
+    public CompletableFuture<Long> count(final Map<String, Object> params) {
+        try {
+            asyncReference.count(params);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+        return this.<Long>lastCall();
+    }
+
+    @Override
+    public CompletableFuture<Page<Customer>> page(Map<String, Object> params) {
+        try {
+            asyncReference.page(params);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+        return this.<Page<Customer>>lastCall();
+    }
+
+    @Override
+    public CompletableFuture<Customer> findOne(final Customer entity) {
+        final String name = entity.getName();
+        if (nearCache != null && name != null) {
+            Customer cached = nearCache.getCached(name);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        final long stamp = nearCache != null && name != null ? nearCache.stamp(name) : 0;
+        try {
+            asyncReference.findOne(entity);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+        CompletableFuture<Customer> future = lastCall();
+        if (nearCache == null || name == null) {
+            return future;
+        }
+        return future.thenApply(new Function<Customer, Customer>() {
+            @Override
+            public Customer apply(Customer customer) {
+                nearCache.putCached(name, customer, stamp);
+                return customer;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Customer> findOne(Map<String, Object> params) {
+        try {
+            asyncReference.findOne(params);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+        return this.<Customer>lastCall();
+    }
+
+    @Override
+    public CompletableFuture<Integer> insert(final Customer entity) {
+        try {
+            asyncReference.insert(entity);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+        return this.<Integer>invalidating(entity);
+    }
+
+    @Override
+    public CompletableFuture<Integer> updateByEntity(final Customer entity) {
+        try {
+            asyncReference.updateByEntity(entity);
+        } catch (RuntimeException e) {
+            return failed(e);
+        }
+        return this.<Integer>invalidating(entity);
+    }
+
+    private <V> CompletableFuture<V> invalidating(final Customer entity) {
+        CompletableFuture<V> future = lastCall();
+        if (nearCache == null) {
+            return future;
+        }
+        return future.whenComplete(new BiConsumer<V, Throwable>() {
+            @Override
+            public void accept(V result, Throwable ex) {
+                nearCache.invalidate(entity.getName());
+            }
+        });
+    }
+
+    /**
+     * adapt the future dubbo left in RpcContext by the call just made on this thread
+     */
+    @SuppressWarnings("unchecked")
+    private <V> CompletableFuture<V> lastCall() {
+        RpcContext context = RpcContext.getContext();
+        Future<?> rpcFuture = context.getFuture();
+        final CompletableFuture<V> future = new CompletableFuture<V>();
+        if (!(rpcFuture instanceof FutureAdapter)) {
+            future.completeExceptionally(new IllegalStateException("customerService reference is not async"));
+            return future;
+        }
+        //the request has just been sent
+        final long sent = System.nanoTime();
+        final Trace trace = Trace.current();
+        final String method = ICustomerService.class.getSimpleName() + "." + context.getMethodName();
+        final String address = context.getRemoteAddressString();
+        ((FutureAdapter<?>) rpcFuture).getFuture().setCallback(new ResponseCallback() {
+            @Override
+            public void done(Object response) {
+                Result result = (Result) response;
+                if (result.hasException()) {
+                    span(result.getException());
+                    future.completeExceptionally(ConsumerDeadlineFilter.translate(result.getException()));
+                } else {
+                    span(null);
+                    future.complete((V) result.getValue());
+                }
+            }
+
+            @Override
+            public void caught(Throwable exception) {
+                span(exception);
+                future.completeExceptionally(ConsumerDeadlineFilter.translate(exception));
+            }
+
+            private void span(Throwable error) {
+                if (trace != null) {
+                    trace.span(Span.Kind.RPC_CLIENT, method, address, sent, System.nanoTime() - sent,
+                            error == null ? null : error.getClass().getSimpleName());
+                }
+            }
+        });
+        return future;
+    }
+
+    private static <V> CompletableFuture<V> failed(Throwable e) {
+        CompletableFuture<V> future = new CompletableFuture<V>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    public void setAsyncReference(ICustomerService asyncReference) {
+        this.asyncReference = asyncReference;
+    }
+
+    public void setNearCache(NearCacheCustomerService nearCache) {
+        this.nearCache = nearCache;
+    }
+}
@@ -0,0 +1,372 @@
+package com.jingsky.customer.web.service;
+
+import com.jingsky.customer.entity.Customer;
+import com.jingsky.customer.iservice.CustomerChangeListener;
+import com.jingsky.customer.iservice.ICustomerChangeNotifier;
+import com.jingsky.customer.iservice.ICustomerService;
+import com.jingsky.customer.util.base.ChunkResult;
+import com.jingsky.customer.util.base.NamedThreadFactory;
+import com.jingsky.customer.util.base.Page;
+import com.jingsky.customer.util.base.QuerySpec;
+import com.jingsky.customer.util.cache.LocalCache;
+import org.apache.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side near cache in front of the dubbo customerService reference.
+ * findOne/get/count are answered locally for a short time; entries are dropped on local writes
+ * and when the provider broadcasts a change through {@link ICustomerChangeNotifier}.
+ * The subscription is repeated every resubscribeSeconds:a provider drops it after a failed callback or a restart,
+ * or it failed at startup;a provider that did not have it answers with an invalidate-all.
+ * When disabled every call goes straight to the target.
+ */
+public class NearCacheCustomerService implements ICustomerService {
+
+    private static final Logger logger = Logger.getLogger(NearCacheCustomerService.class);
+
+    private ICustomerService target;
+    private ICustomerChangeNotifier changeNotifier;
+    private boolean enabled;
+    private int maxSize = 10000;
+    private long ttlSeconds = 10;
+    private long countTtlSeconds = 5;
+    private long resubscribeSeconds = 5;
+
+    private LocalCache<String, Customer> entityCache;
+    private LocalCache<String, Long> countCache;
+    private final String subscribeKey = UUID.randomUUID().toString();
+    /**
+     * one instance for every subscription,dubbo exports a callback per listener instance
+     */
+    private final CustomerChangeListener listener = new CustomerChangeListener() {
+        @Override
+        public void changed(String name) {
+            invalidate(name);
+        }
+    };
+    private volatile boolean subscribed = true;
+    private ScheduledExecutorService resubscriber;
+
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        entityCache = new LocalCache<String, Customer>("nearCustomer", maxSize, ttlSeconds * 1000).registerMBean();
+        countCache = new LocalCache<String, Long>("nearCustomerCount", maxSize, countTtlSeconds * 1000).registerMBean();
+        if (changeNotifier != null) {
+            subscribe();
+            resubscriber = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("near-cache-subscribe"));
+            resubscriber.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    subscribe();
+                }
+            }, resubscribeSeconds, resubscribeSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * idempotent,logs only when the subscription starts or stops failing
+     */
+    void subscribe() {
+        try {
+            changeNotifier.subscribe(subscribeKey, listener);
+            if (!subscribed) {
+                logger.info("subscribed customer change events again");
+                subscribed = true;
+            }
+        } catch (Exception e) {
+            if (subscribed) {
+                //entries still expire by ttl
+                logger.warn("subscribe customer change events failed, near cache relies on ttl until it succeeds", e);
+                subscribed = false;
+            }
+        }
+    }
+
+    public void destroy() {
+        if (resubscriber != null) {
+            resubscriber.shutdownNow();
+        }
+        if (entityCache != null && changeNotifier != null) {
+            try {
+                changeNotifier.unsubscribe(subscribeKey);
+            } catch (Exception e) {
+                logger.warn("unsubscribe customer change events failed", e);
+            }
+        }
+    }
+
+    @Override
+    public Customer get(final Long id) {
+        if (entityCache == null || id == null) {
+            return target.get(id);
+        }
+        String key = String.valueOf(id);
+        //taken before the call,a change event arriving meanwhile keeps the row it returned out of the cache
+        long stamp = entityCache.stamp(key);
+        Customer customer = entityCache.get(key);
+        if (customer == null) {
+            customer = target.get(id);
+            entityCache.put(key, customer, stamp);
+        }
+        return customer == null ? null : customer.copy();
+    }
+
+    @Override
+    public Customer findOne(final Customer entity) {
+        if (entityCache == null || entity.getName() == null) {
+            return target.findOne(entity);
+        }
+        long stamp = entityCache.stamp(entity.getName());
+        Customer customer = entityCache.get(entity.getName());
+        if (customer == null) {
+            customer = target.findOne(entity);
+            entityCache.put(entity.getName(), customer, stamp);
+        }
+        return customer == null ? null : customer.copy();
+    }
+
+    @Override
+    public long count(final Map<String, Object> params) {
+        if (countCache == null) {
+            return target.count(params);
+        }
+        String key = new TreeMap<String, Object>(params).toString();
+        long stamp = countCache.stamp(key);
+        Long count = countCache.get(key);
+        if (count == null) {
+            count = target.count(params);
+            countCache.put(key, count, stamp);
+        }
+        return count;
+    }
+
+    @Override
+    public int insert(final Customer entity) {
+        try {
+            return target.insert(entity);
+        } finally {
+            invalidate(entity.getName());
+        }
+    }
+
+    @Override
+    public int insertBatch(final List<Customer> list) {
+        try {
+            return target.insertBatch(list);
+        } finally {
+            invalidate(null);
+        }
+    }
+
+    @Override
+    public List<ChunkResult> insertBatch(final List<Customer> list, int chunkSize) {
+        try {
+            return target.insertBatch(list, chunkSize);
+        } finally {
+            invalidate(null);
+        }
+    }
+
+    @Override
+    public List<ChunkResult> updateBatch(final List<Customer> list) {
+        try {
+            return target.updateBatch(list);
+        } finally {
+            invalidate(null);
+        }
+    }
+
+    @Override
+    public List<ChunkResult> upsertBatch(final List<Customer> list) {
+        try {
+            return target.upsertBatch(list);
+        } finally {
+            invalidate(null);
+        }
+    }
+
+    @Override
+    public int update(final Map<String, Object> params) {
+        try {
+            return target.update(params);
+        } finally {
+            invalidate(null);
+        }
+    }
+
+    @Override
+    public int remove(final Map<String, Object> params) {
+        try {
+            return target.remove(params);
+        } finally {
+            invalidate(null);
+        }
+    }
+
+    @Override
+    public int updateByEntity(final Customer entity) {
+        try {
+            return target.updateByEntity(entity);
+        } finally {
+            invalidate(entity.getName());
+        }
+    }
+
+    @Override
+    public int removeByEntity(final Customer entity) {
+        try {
+            return target.removeByEntity(entity);
+        } finally {
+            invalidate(entity.getName());
+        }
+    }
+
+    @Override
+    public List<Customer> find(final Map<String, Object> params) {
+        return target.find(params);
+    }
+
+    @Override
+    public long countByEntity(final Customer entity) {
+        return target.countByEntity(entity);
+    }
+
+    @Override
+    public List<Customer> findByEntity(final Customer entity) {
+        return target.findByEntity(entity);
+    }
+
+    @Override
+    public Page<Customer> page(Map<String, Object> params) {
+        return target.page(params);
+    }
+
+    @Override
+    public Customer findOne(Map<String, Object> params) {
+        return target.findOne(params);
+    }
+
+    @Override
+    public List<Customer> findAfter(final Map<String, Object> params) {
+        return target.findAfter(params);
+    }
+
+    @Override
+    public List<Customer> findByEntityAfter(final Customer entity) {
+        return target.findByEntityAfter(entity);
+    }
+
+    @Override
+    public Page<Customer> pageAfter(Map<String, Object> params) {
+        return target.pageAfter(params);
+    }
+
+    @Override
+    public List<Customer> find(final QuerySpec spec) {
+        return target.find(spec);
+    }
+
+    /**
+     * answered from the same count cache as count(Map), paging and sort do not change a count
+     */
+    @Override
+    public long count(final QuerySpec spec) {
+        return count(new HashMap<String, Object>(spec.getCriteria()));
+    }
+
+    @Override
+    public Page<Customer> page(final QuerySpec spec) {
+        return target.page(spec);
+    }
+
+    @Override
+    public Customer findOne(final QuerySpec spec) {
+        return target.findOne(spec);
+    }
+
+    @Override
+    public Page<Customer> pageAfter(final QuerySpec spec) {
+        return target.pageAfter(spec);
+    }
+
+    /**
+     * @return a copy of the cached row, null on a miss or when disabled
+     */
+    public Customer getCached(String name) {
+        if (entityCache == null) {
+            return null;
+        }
+        Customer customer = entityCache.get(name);
+        return customer == null ? null : customer.copy();
+    }
+
+    /**
+     * @return token to take before loading the row that is later passed to putCached
+     */
+    public long stamp(String name) {
+        return entityCache == null ? 0 : entityCache.stamp(name);
+    }
+
+    /**
+     * @param stamp from {@link #stamp(String)} before the row was loaded,the row is not cached when
+     *              the name was invalidated since
+     */
+    public void putCached(String name, Customer customer, long stamp) {
+        if (entityCache != null && customer != null) {
+            entityCache.put(name, customer.copy(), stamp);
+        }
+    }
+
+    /**
+     * @param name changed customer's name, null drops every entry
+     */
+    public void invalidate(String name) {
+        if (entityCache == null) {
+            return;
+        }
+        if (name == null) {
+            entityCache.invalidateAll();
+        } else {
+            entityCache.invalidate(name);
+        }
+        countCache.invalidateAll();
+    }
+
+    public void setTarget(ICustomerService target) {
+        this.target = target;
+    }
+
+    public void setChangeNotifier(ICustomerChangeNotifier changeNotifier) {
+        this.changeNotifier = changeNotifier;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public void setTtlSeconds(long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public void setCountTtlSeconds(long countTtlSeconds) {
+        this.countTtlSeconds = countTtlSeconds;
+    }
+
+    public void setResubscribeSeconds(long resubscribeSeconds) {
+        this.resubscribeSeconds = resubscribeSeconds;
+    }
+}
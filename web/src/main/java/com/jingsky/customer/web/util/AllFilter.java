@@ -1,30 +1,69 @@
 package com.jingsky.customer.web.util;
 
-import com.alibaba.fastjson.JSONObject;
+import com.jingsky.customer.util.accesslog.AccessLog;
+import com.jingsky.customer.util.accesslog.AccessLogPolicy;
+import com.jingsky.customer.util.trace.Span;
+import com.jingsky.customer.util.trace.Trace;
 import com.jingsky.customer.util.util.StringUtil;
 import org.apache.log4j.Logger;
 
 import javax.servlet.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.util.Enumeration;
 
 
 /**
- * For printing logs
+ * For printing logs,and the start of request tracing:each request gets a trace id,from the caller's X-Request-Id
+ * header when it sends a valid one,as requestCode attribute and X-Request-Id response header.
+ * The servlet span ends with the response,for async requests when the async context completes,
+ * and the request is then handed to the {@link AccessLog} with its status and latency.<br/>
+ * Init params:accessLog,the file,relative to catalina.base when set,empty disables;
+ * accessLogQueueSize,accessLogMaxFileMB and accessLogMaxBackups;
+ * accessLogPolicy,the {@link AccessLogPolicy} file or classpath: resource,without it every request is logged.
  * @author pg
  */
 public class AllFilter implements Filter {
     private static final Logger log = Logger.getLogger(AllFilter.class);
 
-    public void init(FilterConfig arg0) throws ServletException {
+    private AccessLog accessLog;
+    private AccessLogPolicy accessLogPolicy;
+
+    public void init(FilterConfig config) throws ServletException {
+        String file = config.getInitParameter("accessLog");
+        if (!StringUtil.isEmpty(file)) {
+            File accessLogFile = new File(file);
+            String base = System.getProperty("catalina.base");
+            if (!accessLogFile.isAbsolute() && base != null) {
+                accessLogFile = new File(base, file);
+            }
+            accessLog = new AccessLog(accessLogFile, intParameter(config, "accessLogQueueSize", 8192),
+                    intParameter(config, "accessLogMaxFileMB", 100) * 1024L * 1024L, intParameter(config, "accessLogMaxBackups", 5));
+            accessLog.start();
+            String policy = config.getInitParameter("accessLogPolicy");
+            if (!StringUtil.isEmpty(policy)) {
+                accessLogPolicy = AccessLogPolicy.load(policy.trim());
+                accessLogPolicy.start();
+                log.info("access log policy " + accessLogPolicy);
+            }
+        }
         log.info("AllFilter init！");
     }
 
-    public void destroy() {
+    private static int intParameter(FilterConfig config, String name, int defaultValue) {
+        String value = config.getInitParameter(name);
+        return StringUtil.isEmpty(value) ? defaultValue : Integer.parseInt(value.trim());
+    }
 
+    public void destroy() {
+        if (accessLogPolicy != null) {
+            accessLogPolicy.stop();
+        }
+        if (accessLog != null) {
+            accessLog.stop();
+        }
     }
 
     public void doFilter(ServletRequest request, ServletResponse response,
@@ -38,23 +77,71 @@ public class AllFilter implements Filter {
             return;
         }
 
-        //Parameters transmitted from splicing
-        logRequestInfo((HttpServletRequest) request, uri);
+        final long start = System.nanoTime();
+        final HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        String requestCode = httpRequest.getHeader(Trace.HEADER);
+        if (!Trace.isValidId(requestCode)) {
+            requestCode = Trace.newId();
+        }
+        request.setAttribute("requestCode", requestCode);
+        httpResponse.setHeader(Trace.HEADER, requestCode);
+        final Trace trace = Trace.start(requestCode, Span.Kind.SERVLET, httpRequest.getMethod() + " " + uri);
+
+        String error = null;
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                async = true;
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        complete(httpRequest, event.getSuppliedResponse(), trace, null, start);
+                    }
 
-        chain.doFilter(request, response);
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        trace.error("async timeout");
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        trace.error(event.getThrowable() == null ? "async error" : event.getThrowable().getClass().getSimpleName());
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            }
+        } catch (IOException | ServletException | RuntimeException e) {
+            error = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            if (async) {
+                //finished by the listener on whichever thread completes the request
+                Trace.detach();
+            } else {
+                complete(httpRequest, response, trace, error, start);
+            }
+        }
     }
 
     /**
-     * Print request information
+     * Ends the servlet span and logs the request,an exception still on its way to the container is a 500;
+     * failures marked on the trace(resolved exceptions,async timeouts and errors) are logged whatever the status
      */
-    private void logRequestInfo(HttpServletRequest request, String uri) {
-        JSONObject jo = new JSONObject();
-        Enumeration paras = request.getParameterNames();
-        while (paras.hasMoreElements()) {
-            Object name = paras.nextElement();
-            jo.put(name.toString(), request.getParameter(name.toString()));
+    private void complete(HttpServletRequest request, ServletResponse response, Trace trace, String error, long start) {
+        int status = error != null ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : ((HttpServletResponse) response).getStatus();
+        trace.finish(error != null ? error : status >= 500 ? "status=" + status : null);
+        if (accessLog != null) {
+            long nanos = System.nanoTime() - start;
+            boolean failed = trace.getRoot().getError() != null;
+            if (accessLogPolicy == null || accessLogPolicy.shouldLog(request.getRequestURI(), status, nanos, failed)) {
+                accessLog.log(request, getRemoteAddrIp(request), trace.getId(), status, nanos);
+            }
         }
-        log.info("IP:" + getRemoteAddrIp(request) + ",requestCode:"+request.getAttribute("requestCode")+",URI:" + uri + ",parameters:" + jo.toJSONString());
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.jingsky.customer.web.util;
 
+import com.jingsky.customer.util.deadline.DeadlineExceededException;
+import com.jingsky.customer.util.trace.Trace;
 import com.jingsky.customer.util.util.ExceptionUtil;
 import com.jingsky.customer.util.util.ResultMessage;
 import org.apache.log4j.Logger;
@@ -21,11 +23,25 @@ public class ExceptionHandler implements HandlerExceptionResolver {
     public ModelAndView resolveException(HttpServletRequest request,
                                          HttpServletResponse response, Object handler, Exception ex) {
         String uri = request.getRequestURI();
-        log.error(uri+" error:",ex);
-
         ResultMessage resultMessage = new ResultMessage();
         resultMessage.put("status","failure");
-        resultMessage.put("ex", ExceptionUtil.getStackTrace(ex));
+        if (DeadlineExceededException.isCausedBy(ex)) {
+            //expected under load,no stack trace
+            log.warn(uri+" deadline exceeded:"+ex.getMessage());
+            response.setStatus(HttpServletResponse.SC_GATEWAY_TIMEOUT);
+            resultMessage.put("code", DeadlineExceededException.CODE);
+            resultMessage.put("msg", "request deadline exceeded");
+        } else {
+            log.error(uri+" error:",ex);
+            //500.jsp sets no status,without it the failure reaches the access log as a 200
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            resultMessage.put("ex", ExceptionUtil.getStackTrace(ex));
+        }
+        //resolved here,so AllFilter does not see it
+        Trace trace = Trace.current();
+        if (trace != null) {
+            trace.error(ex.getClass().getSimpleName());
+        }
         resultMessage.put("requestCode",request.getAttribute("requestCode"));
         request.setAttribute("resultMessage",new JSONObject(resultMessage));
 
@@ -0,0 +1,92 @@
+package com.jingsky.customer.web.interceptor;
+
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdminInterceptorTest {
+
+    private final AdminInterceptor interceptor = new AdminInterceptor();
+    private final StringWriter body = new StringWriter();
+    private int status = HttpServletResponse.SC_OK;
+
+    @Test
+    public void loggedInCustomerIsRejected() throws Exception {
+        interceptor.setAdminNames("admin, ops");
+        assertFalse(interceptor.preHandle(request("tom"), response(), null));
+        assertEquals(HttpServletResponse.SC_FORBIDDEN, status);
+        assertTrue(body.toString(), body.toString().contains("forbidden"));
+    }
+
+    @Test
+    public void adminPasses() throws Exception {
+        interceptor.setAdminNames("admin, ops");
+        assertTrue(interceptor.preHandle(request("ops"), response(), null));
+        assertEquals(HttpServletResponse.SC_OK, status);
+        assertEquals("", body.toString());
+    }
+
+    @Test
+    public void nobodyPassesWithoutAdmins() throws Exception {
+        interceptor.setAdminNames("");
+        assertFalse(interceptor.preHandle(request(""), response(), null));
+        assertFalse(interceptor.preHandle(request(null), response(), null));
+        assertEquals(HttpServletResponse.SC_FORBIDDEN, status);
+    }
+
+    /**
+     * @param name logged in customer,null for no session
+     */
+    private static HttpServletRequest request(final String name) {
+        final HttpSession session = name == null ? null : (HttpSession) Proxy.newProxyInstance(
+                AdminInterceptorTest.class.getClassLoader(), new Class<?>[]{HttpSession.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return method.getName().equals("getAttribute") && "name".equals(args[0]) ? name : null;
+                    }
+                });
+        return (HttpServletRequest) Proxy.newProxyInstance(AdminInterceptorTest.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "getSession":
+                                return session;
+                            case "getRequestURI":
+                                return "/customers/export";
+                            default:
+                                return null;
+                        }
+                    }
+                });
+    }
+
+    private HttpServletResponse response() {
+        return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        switch (method.getName()) {
+                            case "setStatus":
+                                status = (Integer) args[0];
+                                return null;
+                            case "getWriter":
+                                return new PrintWriter(body, true);
+                            default:
+                                return null;
+                        }
+                    }
+                });
+    }
+}
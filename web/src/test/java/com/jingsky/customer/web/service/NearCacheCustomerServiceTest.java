@@ -0,0 +1,247 @@
+package com.jingsky.customer.web.service;
+
+import com.alibaba.dubbo.config.ApplicationConfig;
+import com.alibaba.dubbo.config.ArgumentConfig;
+import com.alibaba.dubbo.config.MethodConfig;
+import com.alibaba.dubbo.config.ProtocolConfig;
+import com.alibaba.dubbo.config.ReferenceConfig;
+import com.alibaba.dubbo.config.RegistryConfig;
+import com.alibaba.dubbo.config.ServiceConfig;
+import com.alibaba.dubbo.rpc.RpcException;
+import com.jingsky.customer.entity.Customer;
+import com.jingsky.customer.iservice.CustomerChangeListener;
+import com.jingsky.customer.iservice.ICustomerChangeNotifier;
+import com.jingsky.customer.iservice.ICustomerService;
+import com.jingsky.customer.service.CustomerChangeNotifier;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Near cache against a CustomerChangeNotifier exported by a dubbo provider in this JVM,
+ * configured like spring-provider.xml and spring-customer.xml.
+ */
+public class NearCacheCustomerServiceTest {
+
+    private static CustomerChangeNotifier notifier;
+    private static ServiceConfig<ICustomerChangeNotifier> service;
+    private static ReferenceConfig<ICustomerChangeNotifier> reference;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private NearCacheCustomerService nearCache;
+    /**
+     * runs inside the target's findOne,stands in for a change landing while a row is loaded
+     */
+    private Runnable duringLoad;
+    /**
+     * key the near cache subscribes with
+     */
+    private volatile String subscribeKey;
+    /**
+     * the next subscribe call fails,like a provider that can not be reached
+     */
+    private volatile boolean failSubscribe;
+
+    @BeforeClass
+    public static void exportNotifier() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        ApplicationConfig application = new ApplicationConfig("near-cache-test");
+        ProtocolConfig protocol = new ProtocolConfig("dubbo", port);
+        protocol.setHost("localhost");
+        protocol.setSerialization("kryo");
+
+        notifier = new CustomerChangeNotifier();
+        service = new ServiceConfig<ICustomerChangeNotifier>();
+        service.setApplication(application);
+        service.setRegistry(new RegistryConfig(RegistryConfig.NO_AVAILABLE));
+        service.setProtocol(protocol);
+        service.setInterface(ICustomerChangeNotifier.class);
+        service.setRef(notifier);
+        service.setConnections(1);
+        service.setCallbacks(1000);
+        ArgumentConfig listener = new ArgumentConfig();
+        listener.setIndex(1);
+        listener.setCallback(true);
+        MethodConfig subscribe = new MethodConfig();
+        subscribe.setName("subscribe");
+        subscribe.setArguments(Collections.singletonList(listener));
+        service.setMethods(Collections.singletonList(subscribe));
+        service.export();
+
+        reference = new ReferenceConfig<ICustomerChangeNotifier>();
+        reference.setApplication(application);
+        reference.setInterface(ICustomerChangeNotifier.class);
+        reference.setUrl("dubbo://localhost:" + port);
+        reference.setCheck(false);
+        Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put("subscribe.1.callback", "true");
+        //each test subscribes its own near cache over the one connection,dubbo allows a single callback instance by default
+        parameters.put("callbacks", "10");
+        reference.setParameters(parameters);
+    }
+
+    @AfterClass
+    public static void unexportNotifier() {
+        reference.destroy();
+        service.unexport();
+        notifier.destroy();
+        ProtocolConfig.destroyAll();
+    }
+
+    @Before
+    public void setUp() {
+        nearCache = new NearCacheCustomerService();
+        nearCache.setTarget((ICustomerService) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ICustomerService.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (!method.getName().equals("findOne") || !(args[0] instanceof Customer)) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        loads.incrementAndGet();
+                        if (duringLoad != null) {
+                            duringLoad.run();
+                        }
+                        Customer customer = new Customer();
+                        customer.setName(((Customer) args[0]).getName());
+                        return customer;
+                    }
+                }));
+        final ICustomerChangeNotifier remote = reference.get();
+        nearCache.setChangeNotifier(new ICustomerChangeNotifier() {
+            @Override
+            public void subscribe(String key, CustomerChangeListener listener) {
+                subscribeKey = key;
+                if (failSubscribe) {
+                    failSubscribe = false;
+                    throw new RpcException("provider unreachable");
+                }
+                remote.subscribe(key, listener);
+            }
+
+            @Override
+            public void unsubscribe(String key) {
+                remote.unsubscribe(key);
+            }
+        });
+        nearCache.setEnabled(true);
+        nearCache.setResubscribeSeconds(1);
+    }
+
+    @After
+    public void tearDown() {
+        nearCache.destroy();
+    }
+
+    @Test
+    public void providerChangeInvalidatesEntry() throws Exception {
+        initSubscribed();
+        nearCache.findOne(customer("tom"));
+        nearCache.findOne(customer("tom"));
+        assertEquals(1, loads.get());
+
+        notifier.publish("tom");
+        awaitEvicted("tom");
+        nearCache.findOne(customer("tom"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void providerInvalidateAllDropsEveryEntry() throws Exception {
+        initSubscribed();
+        nearCache.findOne(customer("tom"));
+        nearCache.findOne(customer("ann"));
+
+        notifier.publish(null);
+        awaitEvicted("tom");
+        awaitEvicted("ann");
+    }
+
+    @Test
+    public void failedSubscribeAtStartupIsRepeated() throws Exception {
+        failSubscribe = true;
+        nearCache.init();
+        nearCache.findOne(customer("tom"));
+        //subscribing again answers with an invalidate-all,the row may have changed meanwhile
+        awaitEvicted("tom");
+
+        nearCache.findOne(customer("tom"));
+        notifier.publish("tom");
+        awaitEvicted("tom");
+    }
+
+    @Test
+    public void droppedSubscriptionIsRepeated() throws Exception {
+        initSubscribed();
+        nearCache.findOne(customer("tom"));
+        //stands in for the provider dropping the listener after a failed callback
+        notifier.unsubscribe(subscribeKey);
+        notifier.publish("tom");
+        assertNotNull(nearCache.getCached("tom"));
+        awaitEvicted("tom");
+    }
+
+    @Test
+    public void rowLoadedAcrossAChangeIsNotCached() throws Exception {
+        initSubscribed();
+        duringLoad = new Runnable() {
+            @Override
+            public void run() {
+                nearCache.invalidate("tom");
+            }
+        };
+        assertNotNull(nearCache.findOne(customer("tom")));
+        assertNull(nearCache.getCached("tom"));
+
+        duringLoad = null;
+        nearCache.findOne(customer("tom"));
+        assertNotNull(nearCache.getCached("tom"));
+    }
+
+    /**
+     * returns after the invalidate-all answering the first subscription,so it can not drop rows of the test
+     */
+    private void initSubscribed() throws InterruptedException {
+        nearCache.init();
+        //stamps of a new cache move only on invalidation
+        long deadline = System.currentTimeMillis() + 5000;
+        while (nearCache.stamp("tom") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotEquals(0, nearCache.stamp("tom"));
+    }
+
+    private void awaitEvicted(String name) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (nearCache.getCached(name) != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNull(name + " still cached", nearCache.getCached(name));
+    }
+
+    private static Customer customer(String name) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        return customer;
+    }
+}